@@ -22,14 +22,21 @@ import org.junit.Before;
 import org.junit.Test;
 import reactor.AbstractReactorTest;
 import reactor.core.composable.Deferred;
+import reactor.core.composable.LongDeferred;
 import reactor.core.composable.Stream;
 import reactor.core.composable.spec.Streams;
+import reactor.function.BiFunction;
 import reactor.function.Consumer;
 import reactor.function.Function;
+import reactor.function.Functions;
+import reactor.function.LongConsumer;
+import reactor.function.Predicate;
 import reactor.event.dispatch.Dispatcher;
 import reactor.event.dispatch.RingBufferDispatcher;
 import reactor.tuple.Tuple2;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -110,6 +117,325 @@ public class ComposableThroughputTests extends AbstractReactorTest {
 		dispatcher.shutdown();
 	}
 
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	private long buildAndRunPipelines(int pipelines, int operators) {
+		Function<Integer, Integer> identity = new Function<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer integer) {
+				return integer;
+			}
+		};
+		final CountDownLatch latch = new CountDownLatch(pipelines);
+		Consumer<Integer> countDown = new Consumer<Integer>() {
+			@Override
+			public void accept(Integer integer) {
+				latch.countDown();
+			}
+		};
+
+		long allocated = allocatedBytes();
+		for (int i = 0; i < pipelines; i++) {
+			Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().synchronousDispatcher().get();
+			Stream<Integer> s = d.compose();
+			for (int op = 0; op < operators; op++) {
+				s = s.map(identity);
+			}
+			s.consume(countDown);
+			d.accept(i);
+		}
+		return allocatedBytes() - allocated;
+	}
+
+	@Test
+	public void testPipelineConstructionCost() {
+		int pipelines = 100000;
+		int operators = 10;
+
+		// warm up
+		buildAndRunPipelines(pipelines, operators);
+
+		long start = System.currentTimeMillis();
+		long allocated = buildAndRunPipelines(pipelines, operators);
+		long elapsed = System.currentTimeMillis() - start;
+
+		System.out.println(String.format("%s-operator pipeline build+run (%sms): %s/sec, %s bytes/pipeline",
+																		 operators,
+																		 elapsed,
+																		 Math.round(pipelines / (Math.max(elapsed, 1) * 1.0 / 1000)),
+																		 (allocated < 0 ? "?" : allocated / pipelines)));
+	}
+
+	@Test
+	public void testSynchronousOperatorChainThroughput() {
+		final int values = length * runs * samples;
+		final CountDownLatch latch = new CountDownLatch(values / 2);
+
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().synchronousDispatcher().get();
+		d.compose()
+		 .map(new Function<Integer, Integer>() {
+			 @Override
+			 public Integer apply(Integer integer) {
+				 return integer + 1;
+			 }
+		 })
+		 .filter(new Predicate<Integer>() {
+			 @Override
+			 public boolean test(Integer integer) {
+				 return (integer & 1) == 0;
+			 }
+		 })
+		 .map(new Function<Integer, Integer>() {
+			 @Override
+			 public Integer apply(Integer integer) {
+				 return integer >> 1;
+			 }
+		 })
+		 .consume(new Consumer<Integer>() {
+			 @Override
+			 public void accept(Integer integer) {
+				 latch.countDown();
+			 }
+		 });
+
+		// warm up
+		for (int i = 0; i < values; i++) {
+			d.accept(i);
+		}
+
+		long allocated = allocatedBytes();
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < values; i++) {
+			d.accept(i);
+		}
+		long elapsed = System.currentTimeMillis() - start;
+		allocated = allocatedBytes() - allocated;
+
+		System.out.println(String.format("synchronous map/filter/map/consume throughput (%sms): %s/sec, %s bytes/value",
+																		 elapsed,
+																		 Math.round(values / (Math.max(elapsed, 1) * 1.0 / 1000)),
+																		 (allocated < 0 ? "?" : allocated / values)));
+	}
+
+	@Test
+	public void testPrimitiveSumThroughput() {
+		final int values = length * runs * samples;
+		final int batchSize = 1024;
+
+		Deferred<Long, Stream<Long>> boxed = Streams.<Long>defer().synchronousDispatcher().batchSize(batchSize).get();
+		boxed.compose()
+		     .reduce(new Function<Tuple2<Long, Long>, Long>() {
+			     @Override
+			     public Long apply(Tuple2<Long, Long> tup) {
+				     return tup.getT1() + tup.getT2();
+			     }
+		     }, 0L)
+		     .consume(new Consumer<Long>() {
+			     @Override
+			     public void accept(Long sum) {
+			     }
+		     });
+
+		LongDeferred primitive = Streams.deferLong(batchSize);
+		primitive.compose()
+		         .sum()
+		         .consume(new LongConsumer() {
+			         @Override
+			         public void accept(long sum) {
+			         }
+		         });
+
+		// warm up
+		for (int i = 0; i < values; i++) {
+			boxed.accept((long) i);
+			primitive.accept(i);
+		}
+
+		long allocated = allocatedBytes();
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < values; i++) {
+			boxed.accept((long) i);
+		}
+		long elapsed = System.currentTimeMillis() - start;
+		allocated = allocatedBytes() - allocated;
+		System.out.println(String.format("Stream<Long> reduce sum throughput (%sms): %s/sec, %s bytes/value",
+		                                 elapsed,
+		                                 Math.round(values / (Math.max(elapsed, 1) * 1.0 / 1000)),
+		                                 (allocated < 0 ? "?" : allocated / values)));
+
+		allocated = allocatedBytes();
+		start = System.currentTimeMillis();
+		for (int i = 0; i < values; i++) {
+			primitive.accept(i);
+		}
+		elapsed = System.currentTimeMillis() - start;
+		allocated = allocatedBytes() - allocated;
+		System.out.println(String.format("LongStream sum throughput (%sms): %s/sec, %s bytes/value",
+		                                 elapsed,
+		                                 Math.round(values / (Math.max(elapsed, 1) * 1.0 / 1000)),
+		                                 (allocated < 0 ? "?" : allocated / values)));
+	}
+
+	@Test
+	public void testReduceAllocation() {
+		final int values = length * runs * samples;
+		final int batchSize = 1024;
+		final Integer[] inputs = new Integer[batchSize];
+		for (int i = 0; i < batchSize; i++) {
+			inputs[i] = i;
+		}
+
+		Deferred<Integer, Stream<Integer>> tupled = Streams.<Integer>defer().synchronousDispatcher().batchSize(batchSize).get();
+		tupled.compose()
+		      .reduce(new Function<Tuple2<Integer, long[]>, long[]>() {
+			      @Override
+			      public long[] apply(Tuple2<Integer, long[]> tup) {
+				      tup.getT2()[0] += tup.getT1();
+				      return tup.getT2();
+			      }
+		      }, new long[1])
+		      .consume(new Consumer<long[]>() {
+			      @Override
+			      public void accept(long[] sum) {
+			      }
+		      });
+
+		final long[] sum = new long[1];
+		Deferred<Integer, Stream<Integer>> aggregated = Streams.<Integer>defer().synchronousDispatcher().batchSize(batchSize).get();
+		aggregated.compose()
+		          .aggregate(new BiFunction<long[], Integer, long[]>() {
+			          @Override
+			          public long[] apply(long[] acc, Integer value) {
+				          acc[0] += value;
+				          return acc;
+			          }
+		          }, Functions.supplier(sum))
+		          .consume(new Consumer<long[]>() {
+			          @Override
+			          public void accept(long[] sum) {
+			          }
+		          });
+
+		// warm up
+		for (int i = 0; i < values; i++) {
+			tupled.accept(inputs[i % batchSize]);
+			aggregated.accept(inputs[i % batchSize]);
+		}
+
+		long allocated = allocatedBytes();
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < values; i++) {
+			tupled.accept(inputs[i % batchSize]);
+		}
+		long elapsed = System.currentTimeMillis() - start;
+		allocated = allocatedBytes() - allocated;
+		System.out.println(String.format("Tuple2 reduce throughput (%sms): %s/sec, %s bytes/value",
+		                                 elapsed,
+		                                 Math.round(values / (Math.max(elapsed, 1) * 1.0 / 1000)),
+		                                 (allocated < 0 ? "?" : allocated / values)));
+
+		allocated = allocatedBytes();
+		start = System.currentTimeMillis();
+		for (int i = 0; i < values; i++) {
+			aggregated.accept(inputs[i % batchSize]);
+		}
+		elapsed = System.currentTimeMillis() - start;
+		allocated = allocatedBytes() - allocated;
+		System.out.println(String.format("BiFunction aggregate throughput (%sms): %s/sec, %s bytes/value",
+		                                 elapsed,
+		                                 Math.round(values / (Math.max(elapsed, 1) * 1.0 / 1000)),
+		                                 (allocated < 0 ? "?" : allocated / values)));
+	}
+
+	@Test
+	public void testMultiProducerSynchronousThroughput() throws InterruptedException {
+		final int producers = Math.max(2, Runtime.getRuntime().availableProcessors());
+		final int values = length * runs;
+		final Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().synchronousDispatcher().get();
+		d.compose().consume(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer integer) {
+			}
+		});
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < values; i++) {
+						d.accept(i);
+					}
+					done.countDown();
+				}
+			}.start();
+		}
+
+		long begin = System.currentTimeMillis();
+		start.countDown();
+		done.await(30, TimeUnit.SECONDS);
+		long elapsed = System.currentTimeMillis() - begin;
+
+		System.out.println(String.format("%s-producer synchronous throughput (%sms): %s",
+																		 producers,
+																		 elapsed,
+																		 Math.round((producers * values) / (Math.max(elapsed, 1) * 1.0 / 1000)) + "/sec"));
+	}
+
+	private void doParallelMapTest(boolean async, boolean ordered, String name) throws InterruptedException {
+		final int values = 20000;
+		final CountDownLatch done = new CountDownLatch(values);
+		Function<Integer, Integer> work = new Function<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer integer) {
+				int h = integer;
+				for (int i = 0; i < 2000; i++) {
+					h = 31 * h + i;
+				}
+				return h;
+			}
+		};
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().env(env).synchronousDispatcher().get();
+		Stream<Integer> s = (async ? d.compose().mapAsync(work, "eventLoop", ordered) : d.compose().map(work));
+		s.consume(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer integer) {
+				done.countDown();
+			}
+		});
+
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < values; i++) {
+			d.accept(i);
+		}
+		done.await(30, TimeUnit.SECONDS);
+		long elapsed = System.currentTimeMillis() - start;
+
+		System.out.println(String.format("%s CPU-bound map throughput (%sms): %s",
+																		 name,
+																		 elapsed,
+																		 Math.round(values / (Math.max(elapsed, 1) * 1.0 / 1000)) + "/sec"));
+	}
+
+	@Test
+	public void testParallelMapThroughput() throws InterruptedException {
+		doParallelMapTest(false, false, "synchronous");
+		doParallelMapTest(true, false, Environment.PROCESSORS + "-way unordered");
+		doParallelMapTest(true, true, Environment.PROCESSORS + "-way ordered");
+	}
+
 	@Test
 	public void testThreadPoolDispatcherComposableThroughput() throws InterruptedException {
 		doTest(env.getDispatcher("threadPoolExecutor"), "thread pool");
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import org.junit.After;
+import org.junit.Test;
+import reactor.event.dispatch.Dispatcher;
+import reactor.event.dispatch.ThreadPoolExecutorDispatcher;
+import reactor.event.registry.Registration;
+import reactor.function.Consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of scheduling and cancelling timeouts on a {@link HashWheelTimer} as the number of pending
+ * timeouts grows, which is the pattern of request timeouts that are almost always cancelled by a reply.
+ */
+public class HashWheelTimerThroughputTests {
+
+	static int operations = 1000000;
+
+	private final HashWheelTimer timer = new HashWheelTimer(10);
+
+	private final Consumer<Long> noop = new Consumer<Long>() {
+		@Override
+		public void accept(Long now) {
+		}
+	};
+
+	@After
+	public void cancelTimer() {
+		timer.cancel();
+	}
+
+	@Test
+	public void testSubmitAndCancelThroughput() throws InterruptedException {
+		for (int pending : new int[]{0, 10000, 100000, 1000000}) {
+			List<Registration<? extends Consumer<Long>>> outstanding = new ArrayList<Registration<? extends Consumer<Long>>>(pending);
+			for (int i = 0; i < pending; i++) {
+				outstanding.add(timer.submit(noop, 10 + i % 600, TimeUnit.SECONDS));
+			}
+
+			long start = System.nanoTime();
+			for (int i = 0; i < operations; i++) {
+				timer.submit(noop, 30, TimeUnit.SECONDS).cancel();
+			}
+			long elapsed = System.nanoTime() - start;
+
+			System.out.println(String.format("HashWheelTimer submit/cancel with %s pending tasks: %sns/task",
+			                                 pending,
+			                                 elapsed / operations));
+
+			for (Registration<? extends Consumer<Long>> reg : outstanding) {
+				reg.cancel();
+			}
+			// let the timer thread drain the cancellations before the next round
+			Thread.sleep(200);
+		}
+	}
+
+	@Test
+	public void testTickJitter() throws InterruptedException {
+		for (HashWheelTimer.WaitStrategy waitStrategy : HashWheelTimer.WaitStrategy.values()) {
+			HashWheelTimer fine = new HashWheelTimer(250, TimeUnit.MICROSECONDS, 512, waitStrategy);
+			final long period = TimeUnit.MICROSECONDS.toNanos(250);
+			final long[] lateness = new long[2000];
+			final long[] first = new long[1];
+			final int[] fired = new int[1];
+			Registration<? extends Consumer<Long>> reg = fine.schedule(new Consumer<Long>() {
+				@Override
+				public void accept(Long now) {
+					long t = System.nanoTime();
+					int n = fired[0]++;
+					if (n == 0) {
+						first[0] = t;
+					} else if (n < lateness.length) {
+						lateness[n] = t - (first[0] + n * period);
+					}
+				}
+			}, 250, TimeUnit.MICROSECONDS);
+
+			Thread.sleep(1000);
+			reg.cancel();
+			fine.cancel();
+
+			int samples = Math.min(fired[0], lateness.length);
+			long sum = 0;
+			long max = 0;
+			for (int i = 1; i < samples; i++) {
+				sum += Math.abs(lateness[i]);
+				max = Math.max(max, Math.abs(lateness[i]));
+			}
+			System.out.println(String.format("HashWheelTimer %s at 250us: %s firings/s, mean jitter %sus, max %sus, drift after %s ticks %sus",
+			                                 waitStrategy,
+			                                 fired[0],
+			                                 samples > 1 ? sum / (samples - 1) / 1000 : 0,
+			                                 max / 1000,
+			                                 samples - 1,
+			                                 samples > 1 ? lateness[samples - 1] / 1000 : 0));
+		}
+	}
+
+	@Test
+	public void testTimerLagWithSlowCallbacks() throws InterruptedException {
+		Consumer<Long> slow = new Consumer<Long>() {
+			@Override
+			public void accept(Long now) {
+				try {
+					Thread.sleep(2);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		Dispatcher dispatcher = new ThreadPoolExecutorDispatcher(4, 1024, "timer-lag-tests");
+		for (Dispatcher callbacks : new Dispatcher[]{null, dispatcher}) {
+			HashWheelTimer lagging = new HashWheelTimer(1, TimeUnit.MILLISECONDS, 512, HashWheelTimer.WaitStrategy.PARK);
+			// 50 callbacks of 2ms every 20ms ask for 5ms of work per 1ms tick
+			for (int i = 0; i < 50; i++) {
+				lagging.schedule(slow, 20, TimeUnit.MILLISECONDS, i % 20, callbacks);
+			}
+			Thread.sleep(1000);
+			System.out.println(String.format("HashWheelTimer with slow callbacks %s: lag %sms, max lag %sms",
+			                                 null == callbacks ? "on the timer thread" : "on a dispatcher",
+			                                 lagging.getLag(TimeUnit.MILLISECONDS),
+			                                 lagging.getMaxLag(TimeUnit.MILLISECONDS)));
+			lagging.cancel();
+		}
+		dispatcher.shutdown();
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import org.junit.Test;
+import reactor.AbstractReactorTest;
+import reactor.core.composable.Deferred;
+import reactor.core.composable.Promise;
+import reactor.core.composable.spec.Promises;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of joining n promises with {@link Promises#when(java.util.Collection)} and {@link
+ * Promises#any(java.util.Collection)} as n grows. The cost per promise should stay flat.
+ */
+public class PromisesThroughputTests extends AbstractReactorTest {
+
+	static int   promisesPerSize = 1000000;
+	static int[] sizes           = {10, 100, 1000, 10000};
+
+	private List<Deferred<Integer, Promise<Integer>>> createDeferreds(int size) {
+		List<Deferred<Integer, Promise<Integer>>> deferreds = new ArrayList<Deferred<Integer, Promise<Integer>>>(size);
+		for (int i = 0; i < size; i++) {
+			deferreds.add(Promises.<Integer>defer().get());
+		}
+		return deferreds;
+	}
+
+	private static List<Promise<Integer>> compose(List<Deferred<Integer, Promise<Integer>>> deferreds) {
+		List<Promise<Integer>> promises = new ArrayList<Promise<Integer>>(deferreds.size());
+		for (Deferred<Integer, Promise<Integer>> d : deferreds) {
+			promises.add(d.compose());
+		}
+		return promises;
+	}
+
+	private long joinAll(int size) {
+		List<Deferred<Integer, Promise<Integer>>> deferreds = createDeferreds(size);
+		List<Promise<Integer>> promises = compose(deferreds);
+
+		long start = System.nanoTime();
+		Promise<List<Integer>> joined = Promises.when(promises);
+		for (int i = 0; i < size; i++) {
+			deferreds.get(i).accept(i);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		if (joined.get().size() != size) {
+			throw new IllegalStateException("Joined " + joined.get().size() + " values, expected " + size);
+		}
+		return elapsed;
+	}
+
+	private long joinAny(int size) {
+		List<Deferred<Integer, Promise<Integer>>> deferreds = createDeferreds(size);
+		List<Promise<Integer>> promises = compose(deferreds);
+
+		long start = System.nanoTime();
+		Promise<Integer> any = Promises.any(promises);
+		for (int i = size - 1; i >= 0; i--) {
+			deferreds.get(i).accept(i);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		if (any.get() != size - 1) {
+			throw new IllegalStateException("Got " + any.get() + ", expected the first completed value " + (size - 1));
+		}
+		return elapsed;
+	}
+
+	@Test
+	public void testWhenScaling() {
+		for (int size : sizes) {
+			int rounds = promisesPerSize / size;
+			// warm up
+			for (int i = 0; i < rounds; i++) {
+				joinAll(size);
+			}
+			long elapsed = 0;
+			for (int i = 0; i < rounds; i++) {
+				elapsed += joinAll(size);
+			}
+			System.out.println(String.format("Promises.when of %s promises: %sns/promise",
+			                                 size,
+			                                 elapsed / ((long) rounds * size)));
+		}
+	}
+
+	@Test
+	public void testAnyScaling() {
+		for (int size : sizes) {
+			int rounds = promisesPerSize / size;
+			// warm up
+			for (int i = 0; i < rounds; i++) {
+				joinAny(size);
+			}
+			long elapsed = 0;
+			for (int i = 0; i < rounds; i++) {
+				elapsed += joinAny(size);
+			}
+			System.out.println(String.format("Promises.any of %s promises: %sns/promise",
+			                                 size,
+			                                 elapsed / ((long) rounds * size)));
+		}
+	}
+
+	@Test
+	public void testTimeoutThroughput() {
+		for (int pending : new int[]{1000, 10000, 100000}) {
+			// keep this many timed-out-later promises outstanding while others are armed and completed
+			List<Deferred<Integer, Promise<Integer>>> outstanding = new ArrayList<Deferred<Integer, Promise<Integer>>>(pending);
+			for (int i = 0; i < pending; i++) {
+				outstanding.add(Promises.<Integer>defer().env(env).timeout(1, TimeUnit.MINUTES).get());
+			}
+
+			int promises = 100000;
+			long start = System.nanoTime();
+			for (int i = 0; i < promises; i++) {
+				Deferred<Integer, Promise<Integer>> d = Promises.<Integer>defer().env(env).get();
+				d.compose().timeout(30, TimeUnit.SECONDS);
+				d.accept(i);
+			}
+			long elapsed = System.nanoTime() - start;
+
+			System.out.println(String.format("Promise.timeout with %s pending timeouts: %sns/promise",
+			                                 pending,
+			                                 elapsed / promises));
+
+			for (Deferred<Integer, Promise<Integer>> d : outstanding) {
+				d.accept(0);
+			}
+		}
+	}
+
+}
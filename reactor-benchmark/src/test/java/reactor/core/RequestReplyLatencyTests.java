@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import org.junit.Test;
+import reactor.AbstractReactorTest;
+import reactor.core.composable.Deferred;
+import reactor.core.composable.Promise;
+import reactor.core.composable.spec.Promises;
+import reactor.core.spec.Reactors;
+import reactor.event.Event;
+import reactor.function.Consumer;
+import reactor.function.Function;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static reactor.event.selector.Selectors.$;
+
+/**
+ * Measures the round trip of a request sent with {@link Reactor#send(Object, Event)}, answered by a {@link
+ * Reactor#receive(reactor.event.selector.Selector, Function) receive} function on another thread, and awaited by the
+ * caller with {@link Promise#await()}.
+ */
+public class RequestReplyLatencyTests extends AbstractReactorTest {
+
+	static int warmups  = 10000;
+	static int requests = 50000;
+
+	private void doTest(String dispatcher) throws InterruptedException {
+		final Reactor reactor = Reactors.reactor().env(env).dispatcher(dispatcher).get();
+		final AtomicReference<Deferred<Integer, Promise<Integer>>> pending =
+				new AtomicReference<Deferred<Integer, Promise<Integer>>>();
+
+		reactor.receive($("ping"), new Function<Event<Integer>, Integer>() {
+			@Override
+			public Integer apply(Event<Integer> ev) {
+				return ev.getData();
+			}
+		});
+		reactor.on($("pong"), new Consumer<Event<Integer>>() {
+			@Override
+			public void accept(Event<Integer> ev) {
+				pending.get().accept(ev.getData());
+			}
+		});
+
+		for (int i = 0; i < warmups; i++) {
+			roundTrip(reactor, pending, i);
+		}
+
+		long[] latencies = new long[requests];
+		long start = System.nanoTime();
+		for (int i = 0; i < requests; i++) {
+			latencies[i] = roundTrip(reactor, pending, i);
+		}
+		long elapsed = System.nanoTime() - start;
+		Arrays.sort(latencies);
+
+		System.out.println(String.format("%s send/await round trip: %s/sec, p50 %sus, p99 %sus, p99.9 %sus, max %sus",
+		                                 dispatcher,
+		                                 Math.round(requests / (elapsed / 1e9)),
+		                                 latencies[requests / 2] / 1000,
+		                                 latencies[(int) (requests * 0.99)] / 1000,
+		                                 latencies[(int) (requests * 0.999)] / 1000,
+		                                 latencies[requests - 1] / 1000));
+	}
+
+	private long roundTrip(Reactor reactor,
+	                       AtomicReference<Deferred<Integer, Promise<Integer>>> pending,
+	                       int i) throws InterruptedException {
+		Deferred<Integer, Promise<Integer>> d = Promises.<Integer>defer().get();
+		pending.set(d);
+
+		long start = System.nanoTime();
+		reactor.send("ping", Event.wrap(i, "pong"));
+		Integer reply = d.compose().await(5, TimeUnit.SECONDS);
+		long latency = System.nanoTime() - start;
+
+		if (null == reply || reply != i) {
+			throw new IllegalStateException("Expected reply " + i + " but got " + reply);
+		}
+		return latency;
+	}
+
+	@Test
+	public void testEventLoopDispatcherRequestReplyLatency() throws InterruptedException {
+		doTest("eventLoop");
+	}
+
+	@Test
+	public void testRingBufferDispatcherRequestReplyLatency() throws InterruptedException {
+		doTest("ringBuffer");
+	}
+
+	@Test
+	public void testThreadPoolDispatcherRequestReplyLatency() throws InterruptedException {
+		doTest("threadPoolExecutor");
+	}
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.io;
+
+import org.junit.Test;
+import reactor.function.Consumer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Measures the cost of building up large {@link Buffer Buffers} by appending, of taking short-lived {@link Buffer
+ * Buffers} from the pool rather than allocating them, of writing heap and direct {@link Buffer Buffers} to a
+ * channel, of framing a payload by copying it versus wrapping it in a {@link CompositeBuffer}, and of splitting a
+ * {@link Buffer} into lines and scanning it for delimiters, and of formatting and parsing numbers in place.
+ */
+public class BufferThroughputTests {
+
+	static int payloadSize = 1024 * 1000 * 16;
+	static int operations  = 1000000;
+
+	@Test
+	public void testAppendLargePayload() {
+		byte[] chunk = new byte[1024];
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			Buffer buffer = new Buffer();
+			try {
+				for (int written = 0; written < payloadSize; written += chunk.length) {
+					buffer.append(chunk);
+				}
+			} catch (BufferOverflowException e) {
+				System.out.println(String.format("Buffer append of a %s byte payload failed after %s bytes",
+				                                 payloadSize,
+				                                 buffer.position()));
+				return;
+			}
+			long elapsed = System.nanoTime() - start;
+
+			System.out.println(String.format("Buffer append of a %s byte payload in 1KB chunks: %sms",
+			                                 payloadSize,
+			                                 elapsed / 1000000));
+		}
+	}
+
+	@Test
+	public void testPooledAllocation() {
+		byte[] frame = new byte[1000];
+		for (int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < operations; i++) {
+				new Buffer(frame.length, false).append(frame).flip();
+			}
+			long allocated = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < operations; i++) {
+				Buffer.release(Buffer.allocate(frame.length).append(frame).flip());
+			}
+			long pooled = System.nanoTime() - start;
+
+			System.out.println(String.format("Buffer of %s bytes: allocated %sns/op, pooled %sns/op",
+			                                 frame.length,
+			                                 allocated / operations,
+			                                 pooled / operations));
+		}
+	}
+
+	@Test
+	public void testChannelWrite() throws IOException {
+		int size = 1024 * 1024;
+		int writes = 500;
+		File file = File.createTempFile("buffer-throughput", ".bin");
+		file.deleteOnExit();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		FileChannel channel = raf.getChannel();
+		try {
+			Buffer heap = Buffer.allocate(size).append(new byte[size]).flip();
+			Buffer direct = Buffer.allocateDirect(size).append(new byte[size]).flip();
+			for (int round = 0; round < 3; round++) {
+				for (Buffer buffer : new Buffer[]{heap, direct}) {
+					long start = System.nanoTime();
+					for (int i = 0; i < writes; i++) {
+						ByteBuffer bb = buffer.byteBuffer().duplicate();
+						while (bb.hasRemaining()) {
+							channel.write(bb, size - bb.remaining());
+						}
+					}
+					long elapsed = System.nanoTime() - start;
+
+					System.out.println(String.format("%s Buffer channel write of %s bytes: %sMB/s",
+					                                 buffer.isDirect() ? "Direct" : "Heap",
+					                                 size,
+					                                 (long) size * writes * 1000 / elapsed));
+				}
+			}
+			Buffer.release(heap);
+			Buffer.release(direct);
+		} finally {
+			channel.close();
+			raf.close();
+		}
+	}
+
+	@Test
+	public void testFramingByCopyAndByComposition() throws IOException {
+		int size = 64 * 1024;
+		int frames = 20000;
+		File file = File.createTempFile("buffer-framing", ".bin");
+		file.deleteOnExit();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		FileChannel channel = raf.getChannel();
+		try {
+			Buffer payload = Buffer.allocateDirect(size).append(new byte[size]).flip();
+			for (int round = 0; round < 3; round++) {
+				long start = System.nanoTime();
+				for (int i = 0; i < frames; i++) {
+					channel.position(0);
+					Buffer framed = Buffer.allocateDirect(size + 5).append(size).append(payload.byteBuffer().duplicate())
+					                      .append((byte) 10).flip();
+					while (framed.remaining() > 0) {
+						framed.writeTo(channel);
+					}
+					Buffer.release(framed);
+				}
+				long copied = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < frames; i++) {
+					channel.position(0);
+					Buffer framed = new CompositeBuffer(new Buffer(payload)).prepend(size).append((byte) 10);
+					long remaining = framed.remaining();
+					while (remaining > 0) {
+						remaining -= framed.writeTo(channel);
+					}
+				}
+				long composed = System.nanoTime() - start;
+
+				System.out.println(String.format("Framing a %s byte payload: copied %sns/frame, composed %sns/frame",
+				                                 size,
+				                                 copied / frames,
+				                                 composed / frames));
+			}
+			Buffer.release(payload);
+		} finally {
+			channel.close();
+			raf.close();
+		}
+	}
+
+	@Test
+	public void testSplitLines() {
+		Buffer lines = new Buffer();
+		for (int i = 0; i < 1000; i++) {
+			lines.append("<34>Oct 11 22:14:15 mymachine su: 'su root' failed for lonvick on /dev/pts/8\n");
+		}
+		lines.flip();
+		int start = lines.position();
+		final int[] bytes = new int[1];
+		Consumer<Buffer.View> consumer = new Consumer<Buffer.View>() {
+			@Override
+			public void accept(Buffer.View view) {
+				bytes[0] += view.get().remaining();
+			}
+		};
+		int rounds = 2000;
+		for (int round = 0; round < 3; round++) {
+			long begin = System.nanoTime();
+			for (int i = 0; i < rounds; i++) {
+				lines.position(start);
+				for (Buffer.View view : lines.split(10, true)) {
+					bytes[0] += view.get().remaining();
+				}
+			}
+			long listed = System.nanoTime() - begin;
+
+			begin = System.nanoTime();
+			for (int i = 0; i < rounds; i++) {
+				lines.position(start);
+				lines.split(10, true, consumer);
+			}
+			long called = System.nanoTime() - begin;
+
+			System.out.println(String.format("Splitting %s lines: into a List %sns/line, with a callback %sns/line",
+			                                 1000,
+			                                 listed / (rounds * 1000),
+			                                 called / (rounds * 1000)));
+		}
+	}
+
+	@Test
+	public void testDelimiterScan() {
+		int size = 8 * 1024 * 1024;
+		byte[] data = new byte[size];
+		for (int i = 0; i < size; i++) {
+			data[i] = (byte) ((i % 200 == 199) ? '\n' : 'a' + (i % 26));
+		}
+		Buffer heap = Buffer.wrap(data);
+		Buffer direct = Buffer.allocateDirect(size).append(data).flip();
+		int rounds = 20;
+		for (int round = 0; round < 3; round++) {
+			for (Buffer buffer : new Buffer[]{heap, direct}) {
+				int found = 0;
+				long start = System.nanoTime();
+				for (int r = 0; r < rounds; r++) {
+					for (Byte b : buffer) {
+						if (b == '\n') {
+							found++;
+						}
+					}
+					buffer.flip();
+				}
+				long iterated = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int r = 0; r < rounds; r++) {
+					int limit = buffer.limit();
+					for (int i = buffer.indexOf((byte) '\n'); i >= 0; i = buffer.indexOf((byte) '\n', i + 1, limit)) {
+						found++;
+					}
+				}
+				long scanned = System.nanoTime() - start;
+
+				System.out.println(String.format("%s Buffer delimiter scan of %s bytes (%s found): iterator %sMB/s, indexOf %sMB/s",
+				                                 buffer.isDirect() ? "Direct" : "Heap",
+				                                 size,
+				                                 found,
+				                                 (long) size * rounds * 1000 / iterated,
+				                                 (long) size * rounds * 1000 / scanned));
+			}
+		}
+		Buffer.release(direct);
+	}
+
+	@Test
+	public void testNumberFormattingAndParsing() {
+		Buffer buffer = new Buffer(64, true);
+		long sum = 0;
+		for (int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < operations; i++) {
+				buffer.clear();
+				buffer.append(String.valueOf(i)).append(" ").append("OK").flip();
+				sum += Integer.parseInt(buffer.substring(0, buffer.limit() - 3));
+			}
+			long viaStrings = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < operations; i++) {
+				buffer.clear();
+				buffer.appendDecimal(i).appendAscii(" OK").flip();
+				sum += buffer.parseInt(0, buffer.limit() - 3);
+			}
+			long inPlace = System.nanoTime() - start;
+
+			System.out.println(String.format("Formatting and parsing an int: via Strings %sns/op, in place %sns/op (%s)",
+			                                 viaStrings / operations,
+			                                 inPlace / operations,
+			                                 sum));
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.queue;
+
+import org.junit.Test;
+import reactor.core.composable.Promise;
+import reactor.function.Function;
+import reactor.io.Buffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of offering items to, and polling them from, a {@link PersistentQueue} backed by an {@link
+ * IndexedChronicleQueuePersistor}, when items are encoded with Java serialization into a {@link Buffer} and when they
+ * are written straight into the Chronicle by the {@link CompactExcerptCodec}, and the throughput of durable items
+ * from several producers through a {@link GroupCommitPersistentQueue} at each {@link
+ * GroupCommitPersistentQueue.Durability}.
+ */
+public class PersistentQueueThroughputTests {
+
+	static int items        = 500000;
+	static int durableItems = 100000;
+	static int producers    = 4;
+
+	@Test
+	public void testSerializedVersusCompactCodec() throws IOException {
+		for (int round = 0; round < 3; round++) {
+			run("serialized", new IndexedChronicleQueuePersistor<Object>("./persistent-queue-throughput",
+			                                                              new SerializingEncoder(),
+			                                                              new SerializingDecoder(),
+			                                                              true,
+			                                                              true));
+			run("compact", new IndexedChronicleQueuePersistor<Object>("./persistent-queue-throughput",
+			                                                           null,
+			                                                           true,
+			                                                           true));
+		}
+	}
+
+	@Test
+	public void testGroupCommit() throws Exception {
+		for (int round = 0; round < 2; round++) {
+			for (GroupCommitPersistentQueue.Durability durability : GroupCommitPersistentQueue.Durability.values()) {
+				groupCommit(durability, producers, durableItems);
+			}
+			// a single producer waiting for each item to be synced before offering the next gets no grouping at all
+			groupCommit(GroupCommitPersistentQueue.Durability.SYNC, 1, durableItems / 50);
+		}
+	}
+
+	private void groupCommit(GroupCommitPersistentQueue.Durability durability,
+	                         final int producers,
+	                         final int items) throws Exception {
+		IndexedChronicleQueuePersistor<Object> persistor = new IndexedChronicleQueuePersistor<Object>(
+				"./group-commit-throughput",
+				null,
+				true,
+				true
+		);
+		final GroupCommitPersistentQueue<Object> queue = new GroupCommitPersistentQueue<Object>(persistor,
+		                                                                                        durability,
+		                                                                                        10,
+		                                                                                        TimeUnit.MILLISECONDS);
+		final CountDownLatch latch = new CountDownLatch(producers);
+		ExecutorService pool = Executors.newFixedThreadPool(producers);
+		try {
+			long start = System.nanoTime();
+			for (int p = 0; p < producers; p++) {
+				pool.submit(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							Promise<Long> last = null;
+							for (int i = 0; i < items / producers; i++) {
+								last = queue.persist("item " + i);
+								if (producers == 1) {
+									last.await(5, TimeUnit.SECONDS);
+								}
+							}
+							last.await(30, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						latch.countDown();
+					}
+				});
+			}
+			latch.await(60, TimeUnit.SECONDS);
+			long elapsed = System.nanoTime() - start;
+
+			System.out.println(String.format("%s durability, %s producers: %s durable items/sec",
+			                                 durability,
+			                                 producers,
+			                                 items * 1000000000L / elapsed));
+		} finally {
+			pool.shutdown();
+			queue.close();
+			persistor.close();
+		}
+	}
+
+	private void run(String codec, IndexedChronicleQueuePersistor<Object> persistor) {
+		PersistentQueue<Object> queue = new PersistentQueue<Object>(persistor);
+		try {
+			long start = System.nanoTime();
+			for (int i = 0; i < items; i++) {
+				queue.offer((i & 1) == 0 ? (Object) ("item " + i) : (Object) (long) i);
+			}
+			long offered = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			while (null != queue.poll()) {
+			}
+			long polled = System.nanoTime() - start;
+
+			System.out.println(String.format("%s codec, %s Strings and Longs: %s offers/sec, %s polls/sec",
+			                                 codec,
+			                                 items,
+			                                 items * 1000000000L / offered,
+			                                 items * 1000000000L / polled));
+		} finally {
+			persistor.close();
+		}
+	}
+
+	private static class SerializingEncoder implements Function<Object, Buffer> {
+		@Override
+		public Buffer apply(Object obj) {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			try {
+				ObjectOutputStream oos = new ObjectOutputStream(baos);
+				oos.writeObject(obj);
+				oos.close();
+			} catch (IOException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			return Buffer.wrap(baos.toByteArray());
+		}
+	}
+
+	private static class SerializingDecoder implements Function<Buffer, Object> {
+		@Override
+		public Object apply(Buffer buffer) {
+			try {
+				return new ObjectInputStream(new ByteArrayInputStream(buffer.asBytes())).readObject();
+			} catch (IOException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+	}
+
+}
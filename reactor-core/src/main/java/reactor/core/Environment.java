@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.lmax.disruptor.BlockingWaitStrategy;
@@ -76,7 +77,7 @@ public class Environment implements Iterable<Map.Entry<String, List<Dispatcher>>
 
 	private final Properties env;
 
-	private final HashWheelTimer           timer            = new HashWheelTimer();
+	private final HashWheelTimer           timer;
 	private final AtomicReference<Reactor> rootReactor      = new AtomicReference<Reactor>();
 	private final Object                   monitor          = new Object();
 	private final Filter                   dispatcherFilter = new RoundRobinFilter();
@@ -136,6 +137,20 @@ public class Environment implements Iterable<Map.Entry<String, List<Dispatcher>>
 		}
 
 		addDispatcher(SYNC_DISPATCHER_NAME, new SynchronousDispatcher());
+
+		timer = createTimer();
+	}
+
+	private HashWheelTimer createTimer() {
+		long resolution = getProperty("reactor.timer.resolution", Long.class, 50L);
+		TimeUnit unit = TimeUnit.valueOf(getProperty("reactor.timer.resolutionUnit", "MILLISECONDS").trim().toUpperCase());
+		int wheelSize = getProperty("reactor.timer.wheelSize", Integer.class, 512);
+		HashWheelTimer.WaitStrategy waitStrategy = HashWheelTimer.WaitStrategy.valueOf(
+				getProperty("reactor.timer.waitStrategy", "SLEEP").trim().toUpperCase()
+		);
+		String dispatcherName = getProperty("reactor.timer.dispatcher", null);
+		Dispatcher dispatcher = null != dispatcherName ? getDispatcher(dispatcherName.trim()) : null;
+		return new HashWheelTimer(resolution, unit, wheelSize, waitStrategy, dispatcher);
 	}
 
 	private ThreadPoolExecutorDispatcher createThreadPoolExecutorDispatcher(DispatcherConfiguration dispatcherConfiguration) {
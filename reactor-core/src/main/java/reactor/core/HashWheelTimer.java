@@ -1,24 +1,51 @@
 package reactor.core;
 
-import java.util.UUID;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import reactor.event.registry.CachingRegistry;
+import reactor.event.Event;
+import reactor.event.dispatch.Dispatcher;
 import reactor.event.registry.Registration;
-import reactor.event.registry.Registry;
-import reactor.event.selector.HeaderResolver;
+import reactor.event.routing.EventRouter;
 import reactor.event.selector.Selector;
 import reactor.function.Consumer;
-import reactor.function.support.SingleUseConsumer;
 import reactor.support.NamedDaemonThreadFactory;
 import reactor.util.Assert;
-import reactor.util.UUIDUtils;
 
 /**
- * A hashed wheel timer implementation that uses a {@link reactor.event.registry.Registry} and custom {@link
- * reactor.event.selector.Selector Selectors} to determine when tasks should be executed.
+ * A hashed wheel timer. Time is divided into ticks of a fixed {@code resolution} and tasks are kept in a wheel of
+ * buckets, one per tick, so scheduling and cancelling a task are O(1) and each tick only looks at the tasks that are
+ * due in it, however many tasks are pending.
+ * <p>
+ * A task due within one turn of the wheel goes straight into the bucket of the tick it is due in. Longer delays go into
+ * an overflow wheel whose buckets each span one full turn of the inner wheel; when the inner wheel comes round to the
+ * start of such a span, the tasks due in it are moved down into the inner wheel. Delays longer than a full turn of the
+ * overflow wheel carry a round counter that is decremented each time their overflow bucket comes round.
+ * </p>
+ * <p>
+ * New and cancelled tasks are handed to the timer thread through queues, so callers never contend with the wheel
+ * itself; only the timer thread touches the buckets.
+ * </p>
+ * <p>
+ * Ticks are measured against {@link System#nanoTime()}: tick {@code n} is due exactly {@code n * resolution} after the
+ * timer was started, and the timer thread waits only for whatever is left until that deadline once the previous tick's
+ * tasks have run, so the time spent firing tasks never pushes later ticks back. How the thread waits is chosen with a
+ * {@link WaitStrategy}: {@link WaitStrategy#SLEEP sleeping} is cheapest but no finer than the platform's sleep
+ * granularity, while {@link WaitStrategy#PARK parking} and {@link WaitStrategy#BUSY_SPIN spinning} make resolutions
+ * below a millisecond usable.
+ * </p>
+ * <p>
+ * By default a task's {@link Consumer} runs on the timer thread itself, so a slow task holds up every other task due in
+ * the same or later ticks. Tasks scheduled with a {@link Dispatcher}, or on a timer created with a default {@link
+ * Dispatcher}, are instead handed to that {@link Dispatcher} when they fall due, leaving the timer thread to do nothing
+ * but turn the wheel. How far the timer thread is running behind its ticks is reported by {@link
+ * #getLag(java.util.concurrent.TimeUnit)} and {@link #getMaxLag(java.util.concurrent.TimeUnit)}.
+ * </p>
  * <p>
  * A {@code HashWheelTimer} has two variations for scheduling tasks: {@link #schedule(reactor.function.Consumer, long,
  * java.util.concurrent.TimeUnit)} and {@link #schedule(reactor.function.Consumer, long, java.util.concurrent.TimeUnit,
@@ -50,9 +77,45 @@ public class HashWheelTimer {
 
 	private static final Logger LOG = LoggerFactory.getLogger(HashWheelTimer.class);
 
-	private final Registry<Consumer<Long>> tasks = new CachingRegistry<Consumer<Long>>(false);
-	private final int    resolution;
-	private final Thread loop;
+	private static final EventRouter DIRECT_ROUTER = new EventRouter() {
+		@SuppressWarnings("unchecked")
+		@Override
+		public void route(Object key,
+		                  Event<?> event,
+		                  List<Registration<? extends Consumer<? extends Event<?>>>> consumers,
+		                  Consumer<?> completionConsumer,
+		                  Consumer<Throwable> errorConsumer) {
+			try {
+				((Consumer<Event<?>>)completionConsumer).accept(event);
+			} catch(Throwable t) {
+				errorConsumer.accept(t);
+			}
+		}
+	};
+
+	private static final Consumer<Throwable> LOG_ERROR = new Consumer<Throwable>() {
+		@Override
+		public void accept(Throwable t) {
+			LOG.error(t.getMessage(), t);
+		}
+	};
+
+	private final Queue<Task> added     = new ConcurrentLinkedQueue<Task>();
+	private final Queue<Task> cancelled = new ConcurrentLinkedQueue<Task>();
+	private final long         resolution;
+	private final int          mask;
+	private final int          shift;
+	private final Bucket[]     wheel;
+	private final Bucket[]     overflow;
+	private final WaitStrategy waitStrategy;
+	private final Dispatcher   dispatcher;
+	private final long         startTime;
+	private final long         startMillis;
+	private final Thread       loop;
+
+	// only written by the timer thread
+	private volatile long lag;
+	private volatile long maxLag;
 
 	/**
 	 * Create a new {@code HashWheelTimer} using the default resolution of 50ms.
@@ -68,32 +131,94 @@ public class HashWheelTimer {
 	 * @param resolution
 	 * 		the resolution of this timer, in milliseconds
 	 */
-	public HashWheelTimer(final int resolution) {
-		this.resolution = resolution;
+	public HashWheelTimer(int resolution) {
+		this(resolution, 512);
+	}
+
+	/**
+	 * Create a new {@code HashWheelTimer} using the given timer resolution and number of buckets per wheel. One turn of
+	 * the inner wheel spans {@code resolution * wheelSize} milliseconds and one turn of the overflow wheel spans {@code
+	 * resolution * wheelSize * wheelSize} milliseconds.
+	 *
+	 * @param resolution
+	 * 		the resolution of this timer, in milliseconds
+	 * @param wheelSize
+	 * 		the number of buckets per wheel, rounded up to a power of two
+	 */
+	public HashWheelTimer(int resolution, int wheelSize) {
+		this(resolution, TimeUnit.MILLISECONDS, wheelSize, WaitStrategy.SLEEP);
+	}
+
+	/**
+	 * Create a new {@code HashWheelTimer} using the given timer resolution, number of buckets per wheel and strategy for
+	 * waiting between ticks. Resolutions below a millisecond should be combined with {@link WaitStrategy#PARK} or {@link
+	 * WaitStrategy#BUSY_SPIN}.
+	 *
+	 * @param resolution
+	 * 		the resolution of this timer
+	 * @param unit
+	 * 		the unit the {@code resolution} is measured in
+	 * @param wheelSize
+	 * 		the number of buckets per wheel, rounded up to a power of two
+	 * @param waitStrategy
+	 * 		how the timer thread waits for the next tick
+	 */
+	public HashWheelTimer(long resolution, TimeUnit unit, int wheelSize, WaitStrategy waitStrategy) {
+		this(resolution, unit, wheelSize, waitStrategy, null);
+	}
+
+	/**
+	 * Create a new {@code HashWheelTimer} that runs the tasks scheduled without a {@link Dispatcher} of their own on the
+	 * given {@code dispatcher}, rather than on the timer thread.
+	 *
+	 * @param resolution
+	 * 		the resolution of this timer
+	 * @param unit
+	 * 		the unit the {@code resolution} is measured in
+	 * @param wheelSize
+	 * 		the number of buckets per wheel, rounded up to a power of two
+	 * @param waitStrategy
+	 * 		how the timer thread waits for the next tick
+	 * @param dispatcher
+	 * 		the {@link Dispatcher} to run tasks on, or {@code null} to run them on the timer thread
+	 */
+	public HashWheelTimer(long resolution,
+	                      TimeUnit unit,
+	                      int wheelSize,
+	                      WaitStrategy waitStrategy,
+	                      Dispatcher dispatcher) {
+		Assert.isTrue(resolution > 0, "Timer resolution must be positive.");
+		Assert.isTrue(wheelSize > 1 && wheelSize <= 1 << 16, "Wheel size must be between 2 and 65536.");
+		Assert.notNull(waitStrategy, "WaitStrategy cannot be null.");
+		int size = 2;
+		while(size < wheelSize) {
+			size <<= 1;
+		}
+		this.resolution = unit.toNanos(resolution);
+		this.mask = size - 1;
+		this.shift = Integer.numberOfTrailingZeros(size);
+		this.wheel = createWheel(size);
+		this.overflow = createWheel(size);
+		this.waitStrategy = waitStrategy;
+		this.dispatcher = dispatcher;
+		this.startTime = System.nanoTime();
+		this.startMillis = System.currentTimeMillis();
 
 		this.loop = new NamedDaemonThreadFactory("hash-wheel-timer").newThread(
 				new Runnable() {
 					@Override public void run() {
-						while(!Thread.currentThread().isInterrupted()) {
-							long now = now(resolution);
-							for(Registration<? extends Consumer<Long>> reg : tasks.select(now)) {
-								try {
-									if(reg.isCancelled() || reg.isPaused()) {
-										continue;
-									}
-									reg.getObject().accept(now);
-								} catch(Throwable t) {
-									LOG.error(t.getMessage(), t);
-								} finally {
-									if(reg.isCancelAfterUse()) {
-										reg.cancel();
-									}
+						Thread thread = Thread.currentThread();
+						long tick = 0;
+						while(!thread.isInterrupted()) {
+							long remaining = startTime + tick * HashWheelTimer.this.resolution - System.nanoTime();
+							if(remaining > 0) {
+								HashWheelTimer.this.waitStrategy.await(remaining);
+							} else {
+								lag = -remaining;
+								if(lag > maxLag) {
+									maxLag = lag;
 								}
-							}
-							try {
-								Thread.sleep(resolution);
-							} catch(InterruptedException e) {
-								Thread.currentThread().interrupt();
+								advance(tick++);
 							}
 						}
 					}
@@ -102,6 +227,45 @@ public class HashWheelTimer {
 		this.loop.start();
 	}
 
+	/**
+	 * Get the length of one tick of this timer.
+	 *
+	 * @param unit
+	 * 		the unit to return the resolution in
+	 *
+	 * @return the resolution, truncated to the given unit
+	 */
+	public long getResolution(TimeUnit unit) {
+		return unit.convert(resolution, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Get how late the timer thread started on its most recent tick. This stays close to zero while the timer keeps up;
+	 * it grows when tasks running on the timer thread, or a starved timer thread, hold the wheel back.
+	 *
+	 * @param unit
+	 * 		the unit to return the lag in
+	 *
+	 * @return the lag of the most recent tick
+	 */
+	public long getLag(TimeUnit unit) {
+		return unit.convert(lag, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Get the largest lag of any tick since this timer was started.
+	 *
+	 * @param unit
+	 * 		the unit to return the lag in
+	 *
+	 * @return the largest lag seen
+	 *
+	 * @see #getLag(java.util.concurrent.TimeUnit)
+	 */
+	public long getMaxLag(TimeUnit unit) {
+		return unit.convert(maxLag, TimeUnit.NANOSECONDS);
+	}
+
 	/**
 	 * Schedule a recurring task. The given {@link reactor.function.Consumer} will be invoked once every N time units
 	 * after the given delay.
@@ -123,11 +287,95 @@ public class HashWheelTimer {
 	                                                       long period,
 	                                                       TimeUnit timeUnit,
 	                                                       long delayInMilliseconds) {
+		return schedule(consumer, period, timeUnit, delayInMilliseconds, dispatcher);
+	}
+
+	/**
+	 * Schedule a recurring task whose {@link reactor.function.Consumer} is run on the given {@link Dispatcher} each
+	 * period, after the given delay. The timer thread only hands the task to the {@link Dispatcher}, so a slow {@code
+	 * Consumer} does not hold up the timer.
+	 *
+	 * @param consumer
+	 * 		the {@code Consumer} to invoke each period
+	 * @param period
+	 * 		the amount of time that should elapse between invocations of the given {@code Consumer}
+	 * @param timeUnit
+	 * 		the unit of time the {@code period} is to be measured in
+	 * @param delayInMilliseconds
+	 * 		a number of milliseconds in which to delay any execution of the given {@code Consumer}
+	 * @param dispatcher
+	 * 		the {@link Dispatcher} to run the {@code Consumer} on, or {@code null} to run it on the timer thread
+	 *
+	 * @return a {@link reactor.event.registry.Registration} that can be used to {@link
+	 * reactor.event.registry.Registration#cancel() cancel}, {@link reactor.event.registry.Registration#pause() pause} or
+	 * {@link reactor.event.registry.Registration#resume() resume} the given task.
+	 */
+	public Registration<? extends Consumer<Long>> schedule(Consumer<Long> consumer,
+	                                                       long period,
+	                                                       TimeUnit timeUnit,
+	                                                       long delayInMilliseconds,
+	                                                       Dispatcher dispatcher) {
+		return schedule(consumer, period, timeUnit, delayInMilliseconds, TimeUnit.MILLISECONDS, dispatcher);
+	}
+
+	/**
+	 * Schedule a recurring task. The given {@link reactor.function.Consumer} will be invoked once every N time units
+	 * after the given delay, which, like the period, can be shorter than a millisecond if the timer's resolution allows.
+	 *
+	 * @param consumer
+	 * 		the {@code Consumer} to invoke each period
+	 * @param period
+	 * 		the amount of time that should elapse between invocations of the given {@code Consumer}
+	 * @param timeUnit
+	 * 		the unit of time the {@code period} is to be measured in
+	 * @param delay
+	 * 		the amount of time that should elapse before the first invocation of the given {@code Consumer}
+	 * @param delayUnit
+	 * 		the unit of time the {@code delay} is to be measured in
+	 *
+	 * @return a {@link reactor.event.registry.Registration} that can be used to {@link
+	 * reactor.event.registry.Registration#cancel() cancel}, {@link reactor.event.registry.Registration#pause() pause} or
+	 * {@link reactor.event.registry.Registration#resume() resume} the given task.
+	 */
+	public Registration<? extends Consumer<Long>> schedule(Consumer<Long> consumer,
+	                                                       long period,
+	                                                       TimeUnit timeUnit,
+	                                                       long delay,
+	                                                       TimeUnit delayUnit) {
+		return schedule(consumer, period, timeUnit, delay, delayUnit, dispatcher);
+	}
+
+	/**
+	 * Schedule a recurring task whose {@link reactor.function.Consumer} is run on the given {@link Dispatcher} each
+	 * period, after the given delay.
+	 *
+	 * @param consumer
+	 * 		the {@code Consumer} to invoke each period
+	 * @param period
+	 * 		the amount of time that should elapse between invocations of the given {@code Consumer}
+	 * @param timeUnit
+	 * 		the unit of time the {@code period} is to be measured in
+	 * @param delay
+	 * 		the amount of time that should elapse before the first invocation of the given {@code Consumer}
+	 * @param delayUnit
+	 * 		the unit of time the {@code delay} is to be measured in
+	 * @param dispatcher
+	 * 		the {@link Dispatcher} to run the {@code Consumer} on, or {@code null} to run it on the timer thread
+	 *
+	 * @return a {@link reactor.event.registry.Registration} that can be used to {@link
+	 * reactor.event.registry.Registration#cancel() cancel}, {@link reactor.event.registry.Registration#pause() pause} or
+	 * {@link reactor.event.registry.Registration#resume() resume} the given task.
+	 */
+	public Registration<? extends Consumer<Long>> schedule(Consumer<Long> consumer,
+	                                                       long period,
+	                                                       TimeUnit timeUnit,
+	                                                       long delay,
+	                                                       TimeUnit delayUnit,
+	                                                       Dispatcher dispatcher) {
 		Assert.isTrue(!loop.isInterrupted(), "Cannot submit tasks to this timer as it has been cancelled.");
-		return tasks.register(
-				new PeriodSelector(TimeUnit.MILLISECONDS.convert(period, timeUnit), delayInMilliseconds, resolution),
-				consumer
-		);
+		long periodTicks = Math.max(1, ticks(timeUnit.toNanos(period)));
+		long deadline = System.nanoTime() + delayUnit.toNanos(delay);
+		return add(new Task(consumer, dispatcher, deadline, periodTicks));
 	}
 
 	/**
@@ -171,12 +419,32 @@ public class HashWheelTimer {
 	public Registration<? extends Consumer<Long>> submit(Consumer<Long> consumer,
 	                                                     long delay,
 	                                                     TimeUnit timeUnit) {
+		return submit(consumer, delay, timeUnit, dispatcher);
+	}
+
+	/**
+	 * Submit a task to be run on the given {@link Dispatcher} once the given time delay has elapsed. A {@link Dispatcher}
+	 * configured in an {@link Environment} can be looked up by name with {@link Environment#getDispatcher(String)}.
+	 *
+	 * @param consumer
+	 * 		the {@code Consumer} to invoke
+	 * @param delay
+	 * 		the amount of time that should elapse before invocations of the given {@code Consumer}
+	 * @param timeUnit
+	 * 		the unit of time the {@code period} is to be measured in
+	 * @param dispatcher
+	 * 		the {@link Dispatcher} to run the {@code Consumer} on, or {@code null} to run it on the timer thread
+	 *
+	 * @return a {@link reactor.event.registry.Registration} that can be used to {@link
+	 * reactor.event.registry.Registration#cancel() cancel}, {@link reactor.event.registry.Registration#pause() pause} or
+	 * {@link reactor.event.registry.Registration#resume() resume} the given task.
+	 */
+	public Registration<? extends Consumer<Long>> submit(Consumer<Long> consumer,
+	                                                     long delay,
+	                                                     TimeUnit timeUnit,
+	                                                     Dispatcher dispatcher) {
 		Assert.isTrue(!loop.isInterrupted(), "Cannot submit tasks to this timer as it has been cancelled.");
-		long ms = TimeUnit.MILLISECONDS.convert(delay, timeUnit);
-		return tasks.register(
-				new PeriodSelector(ms, ms, resolution),
-				new SingleUseConsumer<Long>(consumer)
-		).cancelAfterUse();
+		return add(new Task(consumer, dispatcher, System.nanoTime() + timeUnit.toNanos(delay), 0)).cancelAfterUse();
 	}
 
 	/**
@@ -187,41 +455,277 @@ public class HashWheelTimer {
 		this.loop.interrupt();
 	}
 
-	private static long now(int resolution) {
-		return (long)(Math.ceil(System.currentTimeMillis() / resolution) * resolution);
+	private Task add(Task task) {
+		added.add(task);
+		return task;
+	}
+
+	private long ticks(long nanos) {
+		return (nanos + resolution - 1) / resolution;
+	}
+
+	/**
+	 * Move the wheel on to the given tick and run the tasks that are due in it. Only called on the timer thread.
+	 */
+	private void advance(long tick) {
+		if((tick & mask) == 0) {
+			cascade(overflow[(int)((tick >> shift) & mask)], tick);
+		}
+
+		Task task;
+		while(null != (task = cancelled.poll())) {
+			if(null != task.bucket) {
+				task.bucket.remove(task);
+			}
+		}
+		while(null != (task = added.poll())) {
+			if(!task.isCancelled()) {
+				task.deadlineTick = Math.max(tick, ticks(task.deadline - startTime));
+				place(task, tick);
+			}
+		}
+
+		Bucket bucket = wheel[(int)(tick & mask)];
+		long now = startMillis + TimeUnit.NANOSECONDS.toMillis(tick * resolution);
+		while(null != (task = bucket.poll())) {
+			if(task.isCancelled()) {
+				continue;
+			}
+			if(!task.isPaused()) {
+				fire(task, now);
+			}
+			if(task.isCancelAfterUse() || task.periodTicks == 0) {
+				task.cancelled = true;
+			} else if(!task.isCancelled()) {
+				task.deadlineTick += task.periodTicks;
+				place(task, tick);
+			}
+		}
+	}
+
+	private void fire(Task task, long now) {
+		try {
+			if(null == task.dispatcher) {
+				task.consumer.accept(now);
+			} else {
+				task.dispatcher.dispatch(Event.wrap(now), DIRECT_ROUTER, task, LOG_ERROR);
+			}
+		} catch(Throwable t) {
+			LOG.error(t.getMessage(), t);
+		}
 	}
 
-	private static class PeriodSelector implements Selector {
-		private final UUID uuid = UUIDUtils.create();
-		private final long period;
-		private final long delay;
-		private final long createdMillis;
-		private final int  resolution;
+	private void place(Task task, long tick) {
+		long deadlineTick = task.deadlineTick;
+		if(deadlineTick - tick <= mask) {
+			wheel[(int)(deadlineTick & mask)].add(task);
+		} else {
+			long block = deadlineTick >> shift;
+			task.rounds = (block - (tick >> shift) - 1) >> shift;
+			overflow[(int)(block & mask)].add(task);
+		}
+	}
 
-		private PeriodSelector(long period, long delay, int resolution) {
-			this.period = period;
-			this.delay = delay;
-			this.resolution = resolution;
-			this.createdMillis = now(resolution);
+	private void cascade(Bucket bucket, long tick) {
+		Task task = bucket.head;
+		while(null != task) {
+			Task next = task.next;
+			if(task.isCancelled()) {
+				bucket.remove(task);
+			} else if(task.rounds > 0) {
+				task.rounds--;
+			} else {
+				bucket.remove(task);
+				place(task, tick);
+			}
+			task = next;
 		}
+	}
 
-		@Override public UUID getId() {
-			return uuid;
+	private static Bucket[] createWheel(int size) {
+		Bucket[] wheel = new Bucket[size];
+		for(int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
 		}
+		return wheel;
+	}
+
+	/**
+	 * A doubly-linked list of the tasks in one slot of a wheel, so a cancelled task can be unlinked in O(1).
+	 */
+	private static final class Bucket {
+		private Task head;
+		private Task tail;
+
+		private void add(Task task) {
+			task.bucket = this;
+			task.prev = tail;
+			task.next = null;
+			if(null == tail) {
+				head = task;
+			} else {
+				tail.next = task;
+			}
+			tail = task;
+		}
+
+		private void remove(Task task) {
+			if(null == task.prev) {
+				head = task.next;
+			} else {
+				task.prev.next = task.next;
+			}
+			if(null == task.next) {
+				tail = task.prev;
+			} else {
+				task.next.prev = task.prev;
+			}
+			task.bucket = null;
+			task.prev = null;
+			task.next = null;
+		}
+
+		private Task poll() {
+			Task task = head;
+			if(null != task) {
+				remove(task);
+			}
+			return task;
+		}
+	}
+
+	/**
+	 * How the timer thread waits for the deadline of the next tick.
+	 */
+	public enum WaitStrategy {
+		/**
+		 * Sleep until the next tick. Costs no CPU while waiting, but cannot wake more precisely than the platform's sleep
+		 * granularity, which is commonly a millisecond or more.
+		 */
+		SLEEP {
+			@Override
+			void await(long nanos) {
+				try {
+					Thread.sleep(nanos / 1000000, (int)(nanos % 1000000));
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		},
+		/**
+		 * Park the timer thread until the next tick. Wakes with the precision of the platform's high-resolution timers,
+		 * typically tens of microseconds, at little CPU cost.
+		 */
+		PARK {
+			@Override
+			void await(long nanos) {
+				LockSupport.parkNanos(nanos);
+			}
+		},
+		/**
+		 * Spin until the next tick. Gives the most precise ticks, at the cost of keeping one core fully busy.
+		 */
+		BUSY_SPIN {
+			@Override
+			void await(long nanos) {
+			}
+		};
+
+		/**
+		 * Wait for at most the given number of nanoseconds. Returning early is allowed; the timer thread will check the
+		 * time again and call back in for whatever is left.
+		 */
+		abstract void await(long nanos);
+	}
+
+	private final class Task implements Registration<Consumer<Long>>, Consumer<Event<Long>> {
+		private final Consumer<Long> consumer;
+		private final Dispatcher     dispatcher;
+		private final long           deadline;
+		private final long           periodTicks;
+
+		private volatile boolean cancelAfterUse = false;
+		private volatile boolean cancelled      = false;
+		private volatile boolean paused         = false;
 
-		@Override public Object getObject() {
-			return period;
+		// only accessed on the timer thread
+		private long   deadlineTick;
+		private long   rounds;
+		private Bucket bucket;
+		private Task   prev;
+		private Task   next;
+
+		private Task(Consumer<Long> consumer, Dispatcher dispatcher, long deadline, long periodTicks) {
+			this.consumer = consumer;
+			this.dispatcher = dispatcher;
+			this.deadline = deadline;
+			this.periodTicks = periodTicks;
 		}
 
-		@Override public boolean matches(Object key) {
-			long now = (Long)key;
-			long period = (long)(Math.ceil((now - createdMillis) / resolution) * resolution);
-			return period >= delay && period % this.period == 0;
+		/**
+		 * Run the task on its {@link Dispatcher}'s thread.
+		 */
+		@Override
+		public void accept(Event<Long> now) {
+			consumer.accept(now.getData());
 		}
 
-		@Override public HeaderResolver getHeaderResolver() {
+		/**
+		 * Timer tasks are not selected by key, so they have no {@link Selector}.
+		 *
+		 * @return {@code null}
+		 */
+		@Override
+		public Selector getSelector() {
 			return null;
 		}
+
+		@Override
+		public Consumer<Long> getObject() {
+			return consumer;
+		}
+
+		@Override
+		public Registration<Consumer<Long>> cancelAfterUse() {
+			cancelAfterUse = !cancelAfterUse;
+			return this;
+		}
+
+		@Override
+		public boolean isCancelAfterUse() {
+			return cancelAfterUse;
+		}
+
+		@Override
+		public Registration<Consumer<Long>> cancel() {
+			if(!cancelled) {
+				cancelled = true;
+				HashWheelTimer.this.cancelled.add(this);
+			}
+			return this;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public Registration<Consumer<Long>> pause() {
+			paused = true;
+			return this;
+		}
+
+		@Override
+		public boolean isPaused() {
+			return paused;
+		}
+
+		@Override
+		public Registration<Consumer<Long>> resume() {
+			paused = false;
+			return this;
+		}
 	}
 
 }
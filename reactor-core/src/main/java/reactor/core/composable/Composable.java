@@ -16,11 +16,17 @@
 
 package reactor.core.composable;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.cliffc.high_scale_lib.Counter;
 import reactor.core.Observable;
 import reactor.core.Reactor;
 import reactor.core.support.NotifyConsumer;
 import reactor.event.Event;
 import reactor.event.dispatch.Dispatcher;
+import reactor.event.dispatch.SynchronousDispatcher;
+import reactor.event.registry.Registration;
+import reactor.event.routing.EventRouter;
 import reactor.event.selector.Selector;
 import reactor.event.selector.Selectors;
 import reactor.event.support.EventConsumer;
@@ -32,7 +38,8 @@ import reactor.util.Assert;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Abstract base class for components designed to provide a succinct API for working with future values. Provides base
@@ -49,21 +56,65 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public abstract class Composable<T> {
 
-	protected final ReentrantLock lock = new ReentrantLock();
+	private static final Logger LOG = LoggerFactory.getLogger(Composable.class);
 
-	private final Tuple2<Selector, Object> accept = Selectors.$();
-	private final Tuple2<Selector, Object> flush  = Selectors.$();
+	/**
+	 * Routes a dispatched {@link Event} straight to the single {@link Consumer} handed to {@link
+	 * Dispatcher#dispatch(Event, EventRouter, Consumer, Consumer)}, bypassing selection and filtering.
+	 */
+	private static final EventRouter DIRECT_ROUTER = new EventRouter() {
+		@SuppressWarnings("unchecked")
+		@Override
+		public void route(Object key,
+		                  Event<?> event,
+		                  List<Registration<? extends Consumer<? extends Event<?>>>> consumers,
+		                  Consumer<?> completionConsumer,
+		                  Consumer<Throwable> errorConsumer) {
+			try {
+				((Consumer<Event<?>>)completionConsumer).accept(event);
+			} catch(Throwable t) {
+				errorConsumer.accept(t);
+			}
+		}
+	};
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicLongFieldUpdater<Composable> ERROR_COUNT =
+			AtomicLongFieldUpdater.newUpdater(Composable.class, "errorCount");
+
+	private final Consumer<Throwable> errorRouter = new Consumer<Throwable>() {
+		@Override
+		public void accept(Throwable t) {
+			errors.accept(null, t);
+		}
+	};
+
+	private final Signal<T>         accepts = new Signal<T>(errorRouter);
+	private final Signal<Throwable> errors  = new Signal<Throwable>(null);
+	private final Signal<Void>      flushes = new Signal<Void>(errorRouter);
 
-	private final Observable             events;
-	private final Composable<?>          parent;
+	private final Dispatcher    dispatcher;
+	private final boolean       synchronous;
+	private final Composable<?> parent;
 
-	private volatile long acceptCount = 0l;
+	/**
+	 * Values are usually accepted from many threads at once, so the count is striped across cells rather than funnelled
+	 * through a single contended word. Errors are rare enough to share one.
+	 */
+	private final Counter acceptCount = new Counter();
 	private volatile long errorCount  = 0l;
 
+	private volatile Consumer<Long> requestConsumer;
+	private volatile boolean        demandDriven = false;
+
+	// only created when a subclass still uses the deprecated getObservable(), getAccept() or getFlush()
+	private volatile LegacyEvents legacyEvents;
+
 	protected <U> Composable(@Nonnull Dispatcher dispatcher,
 	                         @Nullable Composable<U> parent) {
 		Assert.notNull(dispatcher, "'dispatcher' cannot be null.");
-		this.events = new Reactor(dispatcher);
+		this.dispatcher = dispatcher;
+		this.synchronous = dispatcher instanceof SynchronousDispatcher;
 		this.parent = parent;
 		if (parent != null) {
 			parent.cascadeErrors(this);
@@ -80,10 +131,10 @@ public abstract class Composable<T> {
 	 * @return {@literal this}
 	 */
 	public Composable<T> consume(@Nonnull final Composable<T> composable) {
-		consumeEvent(new Consumer<Event<T>>() {
+		addHandler(new Signal.Handler<T>() {
 			@Override
-			public void accept(Event<T> event) {
-				composable.notifyValue(event);
+			public void accept(Event<?> origin, T value) {
+				composable.notifyValue(origin, value);
 			}
 		});
 		cascadeErrors(composable);
@@ -100,7 +151,7 @@ public abstract class Composable<T> {
 	 * @return {@literal this}
 	 */
 	public Composable<T> consume(@Nonnull final Consumer<T> consumer) {
-		this.events.on(accept.getT1(), new EventConsumer<T>(consumer));
+		accepts.addConsumer(consumer);
 		return this;
 	}
 
@@ -114,7 +165,7 @@ public abstract class Composable<T> {
 	 * @return {@literal this}
 	 */
 	public Composable<T> consumeEvent(@Nonnull final Consumer<Event<T>> consumer) {
-		this.events.on(accept.getT1(), consumer);
+		accepts.addEventConsumer(consumer);
 		return this;
 	}
 
@@ -145,8 +196,17 @@ public abstract class Composable<T> {
 	 *
 	 * @return {@literal this}
 	 */
-	public <E extends Throwable> Composable<T> when(@Nonnull Class<E> exceptionType, @Nonnull Consumer<E> onError) {
-		this.events.on(Selectors.T(exceptionType), new EventConsumer<E>(onError));
+	public <E extends Throwable> Composable<T> when(@Nonnull final Class<E> exceptionType,
+	                                                @Nonnull final Consumer<E> onError) {
+		errors.add(new Signal.Handler<Throwable>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public void accept(Event<?> origin, Throwable t) {
+				if(exceptionType.isInstance(t)) {
+					onError.accept((E)t);
+				}
+			}
+		});
 		return this;
 	}
 
@@ -164,15 +224,18 @@ public abstract class Composable<T> {
 	public <V> Composable<V> map(@Nonnull final Function<T, V> fn) {
 		Assert.notNull(fn, "Map function cannot be null.");
 		final Deferred<V, ? extends Composable<V>> d = createDeferred();
-		consumeEvent(new Consumer<Event<T>>() {
+		final Composable<V> next = d.compose();
+		addHandler(new Signal.Handler<T>() {
 			@Override
-			public void accept(Event<T> value) {
+			public void accept(Event<?> origin, T value) {
+				V val;
 				try {
-					V val = fn.apply(value.getData());
-					d.acceptEvent(value.copy(val));
+					val = fn.apply(value);
 				} catch (Throwable e) {
-					d.accept(e);
+					next.notifyError(e);
+					return;
 				}
+				next.notifyValue(origin, val);
 			}
 		});
 		return d.compose();
@@ -206,15 +269,20 @@ public abstract class Composable<T> {
 	 */
 	public Composable<T> filter(@Nonnull final Predicate<T> p, final Composable<T> elseComposable) {
 		final Deferred<T, ? extends Composable<T>> d = createDeferred();
-		consumeEvent(new Consumer<Event<T>>() {
+		final Composable<T> next = d.compose();
+		addHandler(new Signal.Handler<T>() {
 			@Override
-			public void accept(Event<T> value) {
-				boolean b = p.test(value.getData());
+			public void accept(Event<?> origin, T value) {
+				boolean b = p.test(value);
 				if (b) {
-					d.acceptEvent(value);
+					next.notifyValue(origin, value);
 				} else {
 					if(null != elseComposable){
-						elseComposable.notifyValue(value);
+						elseComposable.notifyValue(origin, value);
+					}
+					// a dropped value still used up one unit of demand, so ask for a replacement
+					if(next.isDemandDriven()) {
+						request(1);
 					}
 					// GH-154: Verbose error level logging of every event filtered out by a Stream filter
 					// Fix: ignore Predicate failures and drop values rather than notifying of errors.
@@ -225,18 +293,36 @@ public abstract class Composable<T> {
 		return d.compose();
 	}
 
+	/**
+	 * Signal that the consumers of this {@code Composable} are ready to accept {@code n} more values. Demand travels
+	 * upstream through every {@code Composable} in the chain until it reaches a producer that honors it, such as a
+	 * {@code Stream} of initial values or a TCP connection. A {@code Composable} that never receives a request is
+	 * pushed values as fast as they are produced.
+	 *
+	 * @param n
+	 * 		the number of additional values the consumers can take. {@link Long#MAX_VALUE} means unbounded.
+	 *
+	 * @return {@literal this}
+	 */
+	public Composable<T> request(long n) {
+		Assert.isTrue(n > 0, "Requested demand must be greater than 0.");
+		demandDriven = true;
+		Consumer<Long> consumer = requestConsumer;
+		if(null != consumer) {
+			schedule(consumer, n);
+		} else if(null != parent) {
+			parent.request(n);
+		}
+		return this;
+	}
+
 	/**
 	 * Get the total number of values accepted into this {@code Composable} since its creation.
 	 *
 	 * @return number of values accepted
 	 */
 	public long getAcceptCount() {
-		lock.lock();
-		try {
-			return acceptCount;
-		} finally {
-			lock.unlock();
-		}
+		return acceptCount.get();
 	}
 
 	/**
@@ -245,12 +331,7 @@ public abstract class Composable<T> {
 	 * @return number of errors propagated
 	 */
 	public long getErrorCount() {
-		lock.lock();
-		try {
-			return errorCount;
-		} finally {
-			lock.unlock();
-		}
+		return errorCount;
 	}
 
 	/**
@@ -262,7 +343,7 @@ public abstract class Composable<T> {
 		if(null != parent) {
 			parent.flush();
 		}
-		events.notify(flush.getT2(), Event.NULL_EVENT);
+		dispatch(Event.NULL_EVENT, null, flushes);
 		return this;
 	}
 
@@ -273,18 +354,27 @@ public abstract class Composable<T> {
 	 * 		the value to accept
 	 */
 	void notifyValue(T value) {
-		notifyValue(Event.wrap(value));
+		notifyValue(null, value);
 	}
 
 	void notifyValue(Event<T> value) {
-		lock.lock();
-		try {
-			acceptCount++;
-			valueAccepted(value.getData());
-		} finally {
-			lock.unlock();
-		}
-		events.notify(accept.getT2(), value);
+		notifyValue(value, value.getData());
+	}
+
+	/**
+	 * Notify this {@code Composable} that a value is being accepted by this {@code Composable}. The {@code origin} is
+	 * only used to carry headers and error handling down the chain; no new {@link Event} is created for the value
+	 * unless a {@link Consumer} of {@link Event Events} needs one.
+	 *
+	 * @param origin
+	 * 		the {@link Event} the value originated from. May be {@code null}.
+	 * @param value
+	 * 		the value to accept
+	 */
+	void notifyValue(@Nullable Event<?> origin, T value) {
+		acceptCount.increment();
+		valueAccepted(value);
+		dispatch(origin, value, accepts);
 	}
 
 	/**
@@ -294,14 +384,134 @@ public abstract class Composable<T> {
 	 * 		the error to propagate
 	 */
 	void notifyError(Throwable error) {
-		lock.lock();
-		try {
-			errorCount++;
-			errorAccepted(error);
-		} finally {
-			lock.unlock();
+		ERROR_COUNT.incrementAndGet(this);
+		errorAccepted(error);
+		if(LOG.isDebugEnabled()) {
+			LOG.debug(error.getMessage(), error);
+		}
+		dispatch(null, error, errors);
+	}
+
+	/**
+	 * Run the given {@link Consumer} with the given {@code data} using this {@code Composable}'s {@link Dispatcher}. Any
+	 * exception thrown by the {@link Consumer} is passed to this {@code Composable}'s error handlers.
+	 *
+	 * @param consumer
+	 * 		the {@link Consumer} to run
+	 * @param data
+	 * 		the data to pass to the {@link Consumer}
+	 * @param <V>
+	 * 		type of the data
+	 */
+	<V> void schedule(Consumer<V> consumer, V data) {
+		if(synchronous) {
+			try {
+				consumer.accept(data);
+			} catch(Throwable t) {
+				errorRouter.accept(t);
+			}
+		} else {
+			schedule(dispatcher, consumer, data);
 		}
-		events.notify(error.getClass(), Event.wrap(error));
+	}
+
+	/**
+	 * Run the given {@link Consumer} with the given {@code data} using the given {@link Dispatcher} rather than this
+	 * {@code Composable}'s own. Any exception thrown by the {@link Consumer} is passed to this {@code Composable}'s
+	 * error handlers.
+	 *
+	 * @param dispatcher
+	 * 		the {@link Dispatcher} to run the {@link Consumer} on
+	 * @param consumer
+	 * 		the {@link Consumer} to run
+	 * @param data
+	 * 		the data to pass to the {@link Consumer}
+	 * @param <V>
+	 * 		type of the data
+	 */
+	<V> void schedule(Dispatcher dispatcher, Consumer<V> consumer, V data) {
+		dispatcher.dispatch(Event.wrap(data), DIRECT_ROUTER, new EventConsumer<V>(consumer), errorRouter);
+	}
+
+	/**
+	 * Pass the given {@code value} to the given {@link Signal} using this {@code Composable}'s {@link Dispatcher}. A
+	 * {@link SynchronousDispatcher} is short-circuited so the {@link Signal} is invoked directly on the calling thread,
+	 * which fuses a chain of synchronous operators into plain method calls. Only when the value has to cross to another
+	 * thread is it wrapped in an {@link Event}.
+	 *
+	 * @param origin
+	 * 		the {@link Event} the value originated from. May be {@code null}.
+	 * @param value
+	 * 		the value to signal
+	 * @param signal
+	 * 		the {@link Signal} to notify
+	 * @param <V>
+	 * 		type of the value
+	 */
+	<V> void dispatch(@Nullable Event<?> origin, V value, Signal<V> signal) {
+		if(synchronous) {
+			try {
+				signal.accept(origin, value);
+			} catch(Throwable t) {
+				errorRouter.accept(t);
+			}
+		} else {
+			dispatcher.dispatch(Signal.eventOf(origin, value), DIRECT_ROUTER, signal, errorRouter);
+		}
+	}
+
+	/**
+	 * Create a new {@link Signal} whose handler failures are passed to this {@code Composable}'s error handlers.
+	 *
+	 * @param <V>
+	 * 		type of the values being signalled
+	 *
+	 * @return a new {@link Signal}
+	 */
+	<V> Signal<V> createSignal() {
+		return new Signal<V>(errorRouter);
+	}
+
+	/**
+	 * Register a {@link Signal.Handler} to be invoked every time this {@code Composable} is {@link #flush() flushed}.
+	 *
+	 * @param handler
+	 * 		the flush {@link Signal.Handler}
+	 */
+	void consumeFlush(Signal.Handler<Void> handler) {
+		flushes.add(handler);
+	}
+
+	/**
+	 * Take over the demand {@link #request(long) requested} from this {@code Composable}. Demand is no longer passed to
+	 * the parent but to the given {@link Consumer} instead.
+	 *
+	 * @param consumer
+	 * 		the {@link Consumer} to pass requested demand to
+	 */
+	void consumeRequests(Consumer<Long> consumer) {
+		this.requestConsumer = consumer;
+	}
+
+	/**
+	 * Whether any demand has been {@link #request(long) requested} from this {@code Composable}, meaning its consumers
+	 * expect values to be paced rather than pushed.
+	 *
+	 * @return {@literal true} if demand has been requested, {@literal false} otherwise
+	 */
+	boolean isDemandDriven() {
+		return demandDriven;
+	}
+
+	/**
+	 * Register a {@link Signal.Handler} to be invoked with every value accepted by this {@code Composable}. Operators use
+	 * this to call straight into the next {@code Composable} without an intermediate {@link Event}.
+	 *
+	 * @param handler
+	 * 		the value {@link Signal.Handler}
+	 */
+	void addHandler(Signal.Handler<T> handler) {
+		accepts.add(handler);
 	}
 
 	/**
@@ -317,7 +527,8 @@ public abstract class Composable<T> {
 	protected abstract <V, C extends Composable<V>> Deferred<V, C> createDeferred();
 
 	/**
-	 * Called after {@code errorCount} has been incremented, but before {@link Consumer}s have been notified.
+	 * Called after {@code errorCount} has been incremented, but before {@link Consumer}s have been notified. No lock is
+	 * held, so implementations must be safe to call from several threads at once.
 	 *
 	 * @param error
 	 * 		the error being propagated
@@ -325,7 +536,8 @@ public abstract class Composable<T> {
 	protected abstract void errorAccepted(Throwable error);
 
 	/**
-	 * Called after {@code acceptCount} has been incremented, but before {@link Consumer}s have been notified.
+	 * Called after {@code acceptCount} has been incremented, but before {@link Consumer}s have been notified. No lock is
+	 * held, so implementations must be safe to call from several threads at once.
 	 *
 	 * @param value
 	 * 		the value being accepted
@@ -349,39 +561,98 @@ public abstract class Composable<T> {
 	}
 
 	/**
-	 * Get the current {@link Observable}.
+	 * Get the {@link Dispatcher} used to notify this {@code Composable}'s {@link Consumer Consumers}.
 	 *
 	 * @return
 	 */
-	protected Observable getObservable() {
-		return events;
+	protected Dispatcher getDispatcher() {
+		return this.dispatcher;
 	}
 
 	/**
-	 * Get the anonymous {@link Selector} and notification key {@link Tuple2} for doing accepts.
+	 * Get the parent {@link Composable} for callback callback.
 	 *
 	 * @return
 	 */
-	protected Tuple2<Selector, Object> getAccept() {
-		return this.accept;
+	protected Composable<?> getParent() {
+		return this.parent;
 	}
 
 	/**
-	 * Get the parent {@link Composable} for callback callback.
+	 * Get an {@link Observable} on which every value accepted by, and every flush of, this {@code Composable} is
+	 * republished under the keys of {@link #getAccept()} and {@link #getFlush()}. It is created on first use and only
+	 * mirrors this {@code Composable}: notifying it directly no longer passes a value into this {@code Composable}.
 	 *
 	 * @return
+	 *
+	 * @deprecated values are now passed between {@code Composables} without a {@link Reactor}. Use {@link
+	 * #consume(Consumer)}, {@link #consumeEvent(Consumer)} or {@link #flush()} instead.
 	 */
-	protected Composable<?> getParent() {
-		return this.parent;
+	@Deprecated
+	protected Observable getObservable() {
+		return legacyEvents().observable;
 	}
 
 	/**
-	 * Get the anonymous {@link Selector} and notification key {@link Tuple2} for doing flushes.
+	 * Get the anonymous {@link Selector} and notification key {@link Tuple2} with which accepted values are republished
+	 * on {@link #getObservable()}.
 	 *
 	 * @return
+	 *
+	 * @deprecated use {@link #consume(Consumer)} or {@link #consumeEvent(Consumer)} instead.
 	 */
+	@Deprecated
+	protected Tuple2<Selector, Object> getAccept() {
+		return legacyEvents().accept;
+	}
+
+	/**
+	 * Get the anonymous {@link Selector} and notification key {@link Tuple2} with which flushes are republished on
+	 * {@link #getObservable()}.
+	 *
+	 * @return
+	 *
+	 * @deprecated use {@link #flush()} instead.
+	 */
+	@Deprecated
 	protected Tuple2<Selector, Object> getFlush() {
-		return this.flush;
+		return legacyEvents().flush;
+	}
+
+	private LegacyEvents legacyEvents() {
+		LegacyEvents events = legacyEvents;
+		if(null == events) {
+			synchronized(accepts) {
+				events = legacyEvents;
+				if(null == events) {
+					final LegacyEvents created = new LegacyEvents();
+					accepts.add(new Signal.Handler<T>() {
+						@Override
+						public void accept(Event<?> origin, T value) {
+							created.observable.notify(created.accept.getT2(), Signal.eventOf(origin, value));
+						}
+					});
+					flushes.add(new Signal.Handler<Void>() {
+						@Override
+						public void accept(Event<?> origin, Void value) {
+							created.observable.notify(created.flush.getT2(), Event.NULL_EVENT);
+						}
+					});
+					legacyEvents = events = created;
+				}
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * The {@link Reactor} and keys that used to carry every {@code Composable}'s values, kept for subclasses that still
+	 * reach for them.
+	 */
+	private static final class LegacyEvents {
+		private final Observable               observable = new Reactor(new SynchronousDispatcher());
+		private final Tuple2<Selector, Object> accept     = Selectors.$();
+		private final Tuple2<Selector, Object> flush      = Selectors.$();
 	}
 
 }
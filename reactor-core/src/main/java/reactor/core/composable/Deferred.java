@@ -67,7 +67,7 @@ public class Deferred<T, C extends Composable<T>> implements Consumer<T> {
 	 */
 	@Override
 	public void accept(T value) {
-		composable.notifyValue(Event.wrap(value));
+		composable.notifyValue(value);
 	}
 	/**
 	 * Accepts the given {@code value} such that is can be consumed by the underlying
@@ -90,6 +90,21 @@ public class Deferred<T, C extends Composable<T>> implements Consumer<T> {
 		composable.notifyValue(new CallbackEvent<T>(value, callback));
 	}
 
+	/**
+	 * Assign a {@link Consumer} to be notified with the number of values requested every time the consumers of the
+	 * underlying {@code Composable} {@link Composable#request(long) request} more. A producer that can pace itself uses
+	 * this to only supply values that have been asked for.
+	 *
+	 * @param consumer
+	 * 		the {@link Consumer} to notify of requested demand
+	 *
+	 * @return {@literal this}
+	 */
+	public Deferred<T, C> onRequest(Consumer<Long> consumer) {
+		composable.consumeRequests(consumer);
+		return this;
+	}
+
 	/**
 	 * Returns the underlying {@link Composable} subclass from which values and errors can be
 	 * consumed.
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emits values from some backlog only as fast as they are {@link Composable#request(long) requested}. Outstanding
+ * demand is kept in an {@link AtomicLong} and emission is serialized so only one thread drains at a time. A consumer
+ * that requests more values from inside its own {@code accept} does not recurse; the thread already draining picks the
+ * new demand up instead.
+ * <p/>
+ * A demand of {@link Long#MAX_VALUE} is treated as unbounded and is never decremented.
+ */
+abstract class DemandDrain {
+
+	private final AtomicLong    requested = new AtomicLong();
+	private final AtomicInteger wip       = new AtomicInteger();
+
+	/**
+	 * Add {@code n} to the outstanding demand and emit as many values as are now allowed.
+	 *
+	 * @param n
+	 * 		the number of additional values requested
+	 */
+	void add(long n) {
+		for(; ; ) {
+			long current = requested.get();
+			if(current == Long.MAX_VALUE) {
+				break;
+			}
+			long next = current + n;
+			if(next < 0) {
+				next = Long.MAX_VALUE;
+			}
+			if(requested.compareAndSet(current, next)) {
+				break;
+			}
+		}
+		drain();
+	}
+
+	/**
+	 * Emit values while there is both outstanding demand and something to emit.
+	 */
+	void drain() {
+		if(wip.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		for(; ; ) {
+			long r;
+			while((r = requested.get()) > 0 && hasNext()) {
+				if(r != Long.MAX_VALUE) {
+					requested.decrementAndGet();
+				}
+				emitNext();
+			}
+			missed = wip.addAndGet(-missed);
+			if(missed == 0) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Whether there is a value ready to be emitted.
+	 *
+	 * @return {@literal true} if {@link #emitNext()} can be called
+	 */
+	protected abstract boolean hasNext();
+
+	/**
+	 * Emit the next value. Only called after {@link #hasNext()} returned {@literal true} and one unit of demand has been
+	 * consumed.
+	 */
+	protected abstract void emitNext();
+
+}
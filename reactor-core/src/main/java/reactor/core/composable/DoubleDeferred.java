@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import reactor.function.DoubleConsumer;
+
+/**
+ * The {@code double} counterpart of {@link Deferred}: values and errors are supplied by calling {@link #accept(double)} and
+ * {@link #accept(Throwable)} respectively and consumed through the {@link DoubleStream} made available by {@link
+ * #compose()}.
+ */
+public class DoubleDeferred implements DoubleConsumer {
+
+	private final DoubleStream stream;
+
+	/**
+	 * Creates a new DoubleDeferred using the given {@link DoubleStream}
+	 *
+	 * @param stream The stream that will provide access to values
+	 */
+	public DoubleDeferred(DoubleStream stream) {
+		this.stream = stream;
+	}
+
+	/**
+	 * Accepts the given {@code error} such that it can be consumed by the
+	 * underlying {@code DoubleStream}.
+	 *
+	 * @param error The error to accept
+	 */
+	public void accept(Throwable error) {
+		stream.notifyError(error);
+	}
+
+	/**
+	 * Accepts the given {@code value} such that is can be consumed by the underlying
+	 * {@code DoubleStream}.
+	 *
+	 * @param value The value to accept
+	 */
+	@Override
+	public void accept(double value) {
+		stream.notifyValue(value);
+	}
+
+	/**
+	 * Returns the underlying {@link DoubleStream} from which values and errors can be
+	 * consumed.
+	 *
+	 * @return The underlying stream
+	 */
+	public DoubleStream compose() {
+		return stream;
+	}
+
+}
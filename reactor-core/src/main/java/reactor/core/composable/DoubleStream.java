@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import org.cliffc.high_scale_lib.Counter;
+import reactor.event.Event;
+import reactor.event.dispatch.SynchronousDispatcher;
+import reactor.function.Consumer;
+import reactor.function.DoubleBinaryOperator;
+import reactor.function.DoubleConsumer;
+import reactor.function.DoublePredicate;
+import reactor.function.DoubleUnaryOperator;
+import reactor.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * A {@code Stream} of primitive {@code double} values, the floating-point counterpart of {@link LongStream}. Values are
+ * passed from stage to stage as {@code double}s and the built-in reducers keep their state in primitive fields, so
+ * {@link #map(DoubleUnaryOperator) mapping}, {@link #filter(DoublePredicate) filtering} and {@link #sum() summing}
+ * allocate nothing per value.
+ * <p/>
+ * A {@code DoubleStream} is always synchronous: values are processed on the thread that supplies them. To hand values
+ * to another thread, convert to a {@link Stream} with {@link #boxed()}.
+ * <p/>
+ * As with {@link Stream}, when a {@code batchSize} is set, reducers publish once at the end of each batch instead of
+ * for every value, and {@link #flush()} publishes a partially filled batch.
+ *
+ * @see DoubleDeferred
+ */
+public class DoubleStream {
+
+	private static final DoubleConsumer[] EMPTY = new DoubleConsumer[0];
+
+	private static final DoubleBinaryOperator SUM = new DoubleBinaryOperator() {
+		@Override
+		public double apply(double left, double right) {
+			return left + right;
+		}
+	};
+	private static final DoubleBinaryOperator MIN = new DoubleBinaryOperator() {
+		@Override
+		public double apply(double left, double right) {
+			return Math.min(left, right);
+		}
+	};
+	private static final DoubleBinaryOperator MAX = new DoubleBinaryOperator() {
+		@Override
+		public double apply(double left, double right) {
+			return Math.max(left, right);
+		}
+	};
+
+	private final Consumer<Throwable> errorRouter = new Consumer<Throwable>() {
+		@Override
+		public void accept(Throwable t) {
+			errors.accept(null, t);
+		}
+	};
+
+	private final Signal<Throwable> errors      = new Signal<Throwable>(null);
+	private final Signal<Void>      flushes     = new Signal<Void>(errorRouter);
+	private final Counter           acceptCount = new Counter();
+	private final int               batchSize;
+	private final DoubleStream        parent;
+	private final Composable<?>     source;
+
+	private volatile DoubleConsumer[] consumers = EMPTY;
+	private volatile long           errorCount;
+
+	/**
+	 * Create a new {@code DoubleStream}. Values are supplied to it through a {@link DoubleDeferred}.
+	 *
+	 * @param batchSize
+	 * 		The size of the batches, or {@code -1} for no batching
+	 * @param parent
+	 * 		The stream's parent. May be {@code null}
+	 */
+	public DoubleStream(int batchSize, @Nullable DoubleStream parent) {
+		this(batchSize, parent, null);
+	}
+
+	DoubleStream(int batchSize, @Nullable DoubleStream parent, @Nullable Composable<?> source) {
+		this.batchSize = batchSize;
+		this.parent = parent;
+		this.source = source;
+		if(null != parent) {
+			parent.cascadeErrors(this);
+		}
+	}
+
+	/**
+	 * Attach a {@link DoubleConsumer} to this {@code DoubleStream} that will consume every value.
+	 *
+	 * @param consumer
+	 * 		the consumer to invoke on each value
+	 *
+	 * @return {@literal this}
+	 */
+	public synchronized DoubleStream consume(@Nonnull DoubleConsumer consumer) {
+		Assert.notNull(consumer, "Consumer cannot be null.");
+		DoubleConsumer[] next = Arrays.copyOf(consumers, consumers.length + 1);
+		next[consumers.length] = consumer;
+		consumers = next;
+		return this;
+	}
+
+	/**
+	 * Assign an error handler to exceptions of the given type.
+	 *
+	 * @param exceptionType
+	 * 		the type of exceptions to handle
+	 * @param onError
+	 * 		the error handler for each exception
+	 * @param <E>
+	 * 		type of the exception to handle
+	 *
+	 * @return {@literal this}
+	 */
+	public <E extends Throwable> DoubleStream when(@Nonnull final Class<E> exceptionType,
+	                                            @Nonnull final Consumer<E> onError) {
+		errors.add(new Signal.Handler<Throwable>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public void accept(Event<?> origin, Throwable t) {
+				if(exceptionType.isInstance(t)) {
+					onError.accept((E)t);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Transform each value with the given {@link DoubleUnaryOperator}.
+	 *
+	 * @param fn
+	 * 		the transformation function
+	 *
+	 * @return a new {@code DoubleStream} containing the transformed values
+	 */
+	public DoubleStream map(@Nonnull final DoubleUnaryOperator fn) {
+		Assert.notNull(fn, "Map function cannot be null.");
+		final DoubleStream next = new DoubleStream(batchSize, this);
+		consume(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				double result;
+				try {
+					result = fn.apply(value);
+				} catch(Throwable t) {
+					next.notifyError(t);
+					return;
+				}
+				next.notifyValue(result);
+			}
+		});
+		return next;
+	}
+
+	/**
+	 * Pass on only the values that match the given {@link DoublePredicate}.
+	 *
+	 * @param p
+	 * 		the {@link DoublePredicate} to test values against
+	 *
+	 * @return a new {@code DoubleStream} containing only values that pass the predicate test
+	 */
+	public DoubleStream filter(@Nonnull final DoublePredicate p) {
+		Assert.notNull(p, "Predicate cannot be null.");
+		final DoubleStream next = new DoubleStream(batchSize, this);
+		consume(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				if(p.test(value)) {
+					next.notifyValue(value);
+				}
+			}
+		});
+		return next;
+	}
+
+	/**
+	 * Reduce the values into a single {@code double} using the given {@link DoubleBinaryOperator}, starting from {@code
+	 * identity}. In an unbounded {@code DoubleStream} the accumulated value is published every time a value is accepted.
+	 * When a {@code batchSize} is set, it is published at the end of each batch and on {@link #flush()}, after which
+	 * the reduction starts over from {@code identity}.
+	 *
+	 * @param fn
+	 * 		the reduce function
+	 * @param identity
+	 * 		the initial accumulator value
+	 *
+	 * @return a new {@code DoubleStream} whose values are the reduced values
+	 */
+	public DoubleStream reduce(@Nonnull final DoubleBinaryOperator fn, final double identity) {
+		Assert.notNull(fn, "Reduce function cannot be null.");
+		final DoubleStream next = new DoubleStream(-1, this);
+
+		final class Reducer implements DoubleConsumer, Signal.Handler<Void> {
+			private double acc   = identity;
+			private long count = 0;
+
+			@Override
+			public void accept(double value) {
+				double result;
+				synchronized(this) {
+					acc = fn.apply(acc, value);
+					if(batchSize <= 0) {
+						result = acc;
+					} else if(++count % batchSize == 0) {
+						result = acc;
+						acc = identity;
+						count = 0;
+					} else {
+						return;
+					}
+				}
+				next.notifyValue(result);
+			}
+
+			@Override
+			public void accept(Event<?> origin, Void v) {
+				double result;
+				synchronized(this) {
+					if(batchSize <= 0 || count == 0) {
+						return;
+					}
+					result = acc;
+					acc = identity;
+					count = 0;
+				}
+				next.notifyValue(result);
+			}
+		}
+
+		Reducer reducer = new Reducer();
+		consume(reducer);
+		flushes.add(reducer);
+		return next;
+	}
+
+	/**
+	 * Sum the values.
+	 *
+	 * @return a new {@code DoubleStream} whose values are the sums
+	 *
+	 * @see #reduce(DoubleBinaryOperator, double)
+	 */
+	public DoubleStream sum() {
+		return reduce(SUM, 0d);
+	}
+
+	/**
+	 * Find the smallest value.
+	 *
+	 * @return a new {@code DoubleStream} whose values are the minimums
+	 *
+	 * @see #reduce(DoubleBinaryOperator, double)
+	 */
+	public DoubleStream min() {
+		return reduce(MIN, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Find the largest value.
+	 *
+	 * @return a new {@code DoubleStream} whose values are the maximums
+	 *
+	 * @see #reduce(DoubleBinaryOperator, double)
+	 */
+	public DoubleStream max() {
+		return reduce(MAX, Double.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Count the values falling into each bucket delimited by the given ascending {@code bounds}. Bucket {@code 0} holds
+	 * values below {@code bounds[0]}, bucket {@code i} holds values from {@code bounds[i - 1]} up to but excluding {@code
+	 * bounds[i]}, and the last bucket holds values from the last bound up. The counts are published as a copy at the end
+	 * of each batch, if a {@code batchSize} is set, and on {@link #flush()}, after which counting starts over.
+	 *
+	 * @param bounds
+	 * 		the ascending bucket boundaries
+	 *
+	 * @return a new {@link Stream} whose values are the bucket counts
+	 */
+	public Stream<long[]> histogram(@Nonnull final double... bounds) {
+		Assert.isTrue(bounds.length > 0, "At least one bucket boundary is required.");
+		for(int i = 1; i < bounds.length; i++) {
+			Assert.isTrue(bounds[i - 1] < bounds[i], "Bucket boundaries must be in ascending order.");
+		}
+		final Stream<long[]> next = createStream();
+
+		final class Histogram implements DoubleConsumer, Signal.Handler<Void> {
+			private final long[] counts = new long[bounds.length + 1];
+			private long total;
+
+			@Override
+			public void accept(double value) {
+				int i = Arrays.binarySearch(bounds, value);
+				int bucket = (i >= 0 ? i + 1 : -i - 1);
+				long[] batch;
+				synchronized(this) {
+					counts[bucket]++;
+					if(batchSize <= 0 || ++total % batchSize != 0) {
+						return;
+					}
+					batch = close();
+				}
+				next.notifyValue(batch);
+			}
+
+			@Override
+			public void accept(Event<?> origin, Void v) {
+				long[] batch;
+				synchronized(this) {
+					batch = close();
+				}
+				if(null != batch) {
+					next.notifyValue(batch);
+				}
+			}
+
+			private long[] close() {
+				boolean empty = true;
+				for(long c : counts) {
+					if(c != 0) {
+						empty = false;
+						break;
+					}
+				}
+				if(empty) {
+					return null;
+				}
+				long[] batch = counts.clone();
+				Arrays.fill(counts, 0);
+				total = 0;
+				return batch;
+			}
+		}
+
+		Histogram histogram = new Histogram();
+		consume(histogram);
+		flushes.add(histogram);
+		return next;
+	}
+
+	/**
+	 * Box each value into a {@link Stream} of {@link Double Doubles}, for example to hand the values to another thread or to
+	 * an operator that only exists on {@link Stream}.
+	 *
+	 * @return a new {@link Stream} containing the boxed values
+	 */
+	public Stream<Double> boxed() {
+		final Stream<Double> next = createStream();
+		consume(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				next.notifyValue(value);
+			}
+		});
+		return next;
+	}
+
+	/**
+	 * Flush any cached or unprocessed values through this {@code DoubleStream}, publishing partially filled batches.
+	 *
+	 * @return {@literal this}
+	 */
+	public DoubleStream flush() {
+		if(null != parent) {
+			parent.flush();
+		} else if(null != source) {
+			source.flush();
+		}
+		flushes.accept(null, null);
+		return this;
+	}
+
+	/**
+	 * Get the total number of values accepted into this {@code DoubleStream} since its creation.
+	 *
+	 * @return number of values accepted
+	 */
+	public long getAcceptCount() {
+		return acceptCount.get();
+	}
+
+	/**
+	 * Get the total number of errors propagated through this {@code DoubleStream} since its creation.
+	 *
+	 * @return number of errors propagated
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Indicates whether or not this {@code DoubleStream} is batched.
+	 *
+	 * @return {@literal true} if a {@code batchSize} has been set, {@literal false} otherwise
+	 */
+	public boolean isBatch() {
+		return batchSize > 0;
+	}
+
+	void notifyValue(double value) {
+		acceptCount.increment();
+		DoubleConsumer[] consumers = this.consumers;
+		for(int i = 0; i < consumers.length; i++) {
+			try {
+				consumers[i].accept(value);
+			} catch(Throwable t) {
+				errorRouter.accept(t);
+			}
+		}
+	}
+
+	synchronized void notifyError(Throwable error) {
+		errorCount++;
+		errors.accept(null, error);
+	}
+
+	private void cascadeErrors(final DoubleStream next) {
+		when(Throwable.class, new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				next.notifyError(t);
+			}
+		});
+	}
+
+	private <V> Stream<V> createStream() {
+		final Stream<V> next = new Stream<V>(SynchronousDispatcher.INSTANCE, -1, null, null) {
+			@Override
+			public Stream<V> flush() {
+				DoubleStream.this.flush();
+				return super.flush();
+			}
+		};
+		when(Throwable.class, new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				next.notifyError(t);
+			}
+		});
+		return next;
+	}
+
+	@Override
+	public String toString() {
+		return "DoubleStream{" +
+				"acceptCount=" + getAcceptCount() +
+				", errorCount=" + getErrorCount() +
+				", batchSize=" + batchSize +
+				'}';
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import reactor.core.Environment;
+import reactor.event.dispatch.Dispatcher;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A {@link Stream} holding only the values of its parent that share the same key, as produced by {@link
+ * Stream#groupBy(reactor.function.Function)}.
+ *
+ * @param <K>
+ * 		the type of the key
+ * @param <T>
+ * 		the type of the values in the stream
+ */
+public class GroupedStream<K, T> extends Stream<T> {
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<GroupedStream> STATE   =
+			AtomicIntegerFieldUpdater.newUpdater(GroupedStream.class, "state");
+	private static final int                                      IDLE    = 0;
+	private static final int                                      TOUCHED = 1;
+	private static final int                                      EVICTED = 2;
+
+	private final K key;
+
+	private volatile int state = TOUCHED;
+
+	/**
+	 * Create a new {@code GroupedStream} for the values with the given {@code key}.
+	 *
+	 * @param key
+	 * 		The key shared by all values in this stream
+	 * @param dispatcher
+	 * 		The dispatcher used to drive event handlers
+	 * @param env
+	 * 		The Environment, if any, whose root timer drives time-based operators
+	 * @param batchSize
+	 * 		The size of the batches, or {@code -1} for no batching
+	 * @param parent
+	 * 		The stream's parent. May be {@code null}
+	 */
+	public GroupedStream(@Nullable K key,
+	                     @Nonnull Dispatcher dispatcher,
+	                     @Nullable Environment env,
+	                     int batchSize,
+	                     @Nullable Composable<?> parent) {
+		super(dispatcher, env, batchSize, null, parent);
+		this.key = key;
+	}
+
+	/**
+	 * Get the key shared by all values in this stream.
+	 *
+	 * @return the key
+	 */
+	public K getKey() {
+		return key;
+	}
+
+	/**
+	 * Record that a value is about to be passed into this group.
+	 *
+	 * @return {@literal true} if the value may be passed in, {@literal false} if the group has been evicted, in which case
+	 * the value belongs in a new group
+	 */
+	boolean touch() {
+		for(; ; ) {
+			int current = state;
+			if(current == EVICTED) {
+				return false;
+			}
+			if(current == TOUCHED || STATE.compareAndSet(this, IDLE, TOUCHED)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Called once per idle period: a group that has been touched since the last call is marked idle, and a group that is
+	 * still idle is evicted. Once evicted, {@link #touch()} refuses any further values.
+	 *
+	 * @return {@literal true} if the group has just been evicted
+	 */
+	boolean evictIfIdle() {
+		return !STATE.compareAndSet(this, TOUCHED, IDLE) && STATE.compareAndSet(this, IDLE, EVICTED);
+	}
+
+	@Override
+	public String toString() {
+		return "GroupedStream{" +
+				"key=" + key +
+				", acceptCount=" + getAcceptCount() +
+				", errorCount=" + getErrorCount() +
+				'}';
+	}
+
+}
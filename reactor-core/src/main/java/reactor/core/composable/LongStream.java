@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import org.cliffc.high_scale_lib.Counter;
+import reactor.event.Event;
+import reactor.event.dispatch.SynchronousDispatcher;
+import reactor.function.Consumer;
+import reactor.function.LongBinaryOperator;
+import reactor.function.LongConsumer;
+import reactor.function.LongPredicate;
+import reactor.function.LongUnaryOperator;
+import reactor.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * A {@code Stream} of primitive {@code long} values, for numeric pipelines such as metrics where boxing every value and
+ * wrapping it in an {@link Event} would dominate the cost. Values are passed from stage to stage as {@code long}s and
+ * the built-in reducers keep their state in primitive fields, so {@link #map(LongUnaryOperator) mapping}, {@link
+ * #filter(LongPredicate) filtering} and {@link #sum() summing} allocate nothing per value.
+ * <p/>
+ * A {@code LongStream} is always synchronous: values are processed on the thread that supplies them. To hand values to
+ * another thread, convert to a {@link Stream} with {@link #boxed()}.
+ * <p/>
+ * As with {@link Stream}, when a {@code batchSize} is set, reducers publish once at the end of each batch instead of
+ * for every value, and {@link #flush()} publishes a partially filled batch.
+ *
+ * @see LongDeferred
+ */
+public class LongStream {
+
+	private static final LongConsumer[] EMPTY = new LongConsumer[0];
+
+	private static final LongBinaryOperator SUM = new LongBinaryOperator() {
+		@Override
+		public long apply(long left, long right) {
+			return left + right;
+		}
+	};
+	private static final LongBinaryOperator MIN = new LongBinaryOperator() {
+		@Override
+		public long apply(long left, long right) {
+			return Math.min(left, right);
+		}
+	};
+	private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+		@Override
+		public long apply(long left, long right) {
+			return Math.max(left, right);
+		}
+	};
+
+	private final Consumer<Throwable> errorRouter = new Consumer<Throwable>() {
+		@Override
+		public void accept(Throwable t) {
+			errors.accept(null, t);
+		}
+	};
+
+	private final Signal<Throwable> errors      = new Signal<Throwable>(null);
+	private final Signal<Void>      flushes     = new Signal<Void>(errorRouter);
+	private final Counter           acceptCount = new Counter();
+	private final int               batchSize;
+	private final LongStream        parent;
+	private final Composable<?>     source;
+
+	private volatile LongConsumer[] consumers = EMPTY;
+	private volatile long           errorCount;
+
+	/**
+	 * Create a new {@code LongStream}. Values are supplied to it through a {@link LongDeferred}.
+	 *
+	 * @param batchSize
+	 * 		The size of the batches, or {@code -1} for no batching
+	 * @param parent
+	 * 		The stream's parent. May be {@code null}
+	 */
+	public LongStream(int batchSize, @Nullable LongStream parent) {
+		this(batchSize, parent, null);
+	}
+
+	LongStream(int batchSize, @Nullable LongStream parent, @Nullable Composable<?> source) {
+		this.batchSize = batchSize;
+		this.parent = parent;
+		this.source = source;
+		if(null != parent) {
+			parent.cascadeErrors(this);
+		}
+	}
+
+	/**
+	 * Attach a {@link LongConsumer} to this {@code LongStream} that will consume every value.
+	 *
+	 * @param consumer
+	 * 		the consumer to invoke on each value
+	 *
+	 * @return {@literal this}
+	 */
+	public synchronized LongStream consume(@Nonnull LongConsumer consumer) {
+		Assert.notNull(consumer, "Consumer cannot be null.");
+		LongConsumer[] next = Arrays.copyOf(consumers, consumers.length + 1);
+		next[consumers.length] = consumer;
+		consumers = next;
+		return this;
+	}
+
+	/**
+	 * Assign an error handler to exceptions of the given type.
+	 *
+	 * @param exceptionType
+	 * 		the type of exceptions to handle
+	 * @param onError
+	 * 		the error handler for each exception
+	 * @param <E>
+	 * 		type of the exception to handle
+	 *
+	 * @return {@literal this}
+	 */
+	public <E extends Throwable> LongStream when(@Nonnull final Class<E> exceptionType,
+	                                            @Nonnull final Consumer<E> onError) {
+		errors.add(new Signal.Handler<Throwable>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public void accept(Event<?> origin, Throwable t) {
+				if(exceptionType.isInstance(t)) {
+					onError.accept((E)t);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Transform each value with the given {@link LongUnaryOperator}.
+	 *
+	 * @param fn
+	 * 		the transformation function
+	 *
+	 * @return a new {@code LongStream} containing the transformed values
+	 */
+	public LongStream map(@Nonnull final LongUnaryOperator fn) {
+		Assert.notNull(fn, "Map function cannot be null.");
+		final LongStream next = new LongStream(batchSize, this);
+		consume(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				long result;
+				try {
+					result = fn.apply(value);
+				} catch(Throwable t) {
+					next.notifyError(t);
+					return;
+				}
+				next.notifyValue(result);
+			}
+		});
+		return next;
+	}
+
+	/**
+	 * Pass on only the values that match the given {@link LongPredicate}.
+	 *
+	 * @param p
+	 * 		the {@link LongPredicate} to test values against
+	 *
+	 * @return a new {@code LongStream} containing only values that pass the predicate test
+	 */
+	public LongStream filter(@Nonnull final LongPredicate p) {
+		Assert.notNull(p, "Predicate cannot be null.");
+		final LongStream next = new LongStream(batchSize, this);
+		consume(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				if(p.test(value)) {
+					next.notifyValue(value);
+				}
+			}
+		});
+		return next;
+	}
+
+	/**
+	 * Reduce the values into a single {@code long} using the given {@link LongBinaryOperator}, starting from {@code
+	 * identity}. In an unbounded {@code LongStream} the accumulated value is published every time a value is accepted.
+	 * When a {@code batchSize} is set, it is published at the end of each batch and on {@link #flush()}, after which
+	 * the reduction starts over from {@code identity}.
+	 *
+	 * @param fn
+	 * 		the reduce function
+	 * @param identity
+	 * 		the initial accumulator value
+	 *
+	 * @return a new {@code LongStream} whose values are the reduced values
+	 */
+	public LongStream reduce(@Nonnull final LongBinaryOperator fn, final long identity) {
+		Assert.notNull(fn, "Reduce function cannot be null.");
+		final LongStream next = new LongStream(-1, this);
+
+		final class Reducer implements LongConsumer, Signal.Handler<Void> {
+			private long acc   = identity;
+			private long count = 0;
+
+			@Override
+			public void accept(long value) {
+				long result;
+				synchronized(this) {
+					acc = fn.apply(acc, value);
+					if(batchSize <= 0) {
+						result = acc;
+					} else if(++count % batchSize == 0) {
+						result = acc;
+						acc = identity;
+						count = 0;
+					} else {
+						return;
+					}
+				}
+				next.notifyValue(result);
+			}
+
+			@Override
+			public void accept(Event<?> origin, Void v) {
+				long result;
+				synchronized(this) {
+					if(batchSize <= 0 || count == 0) {
+						return;
+					}
+					result = acc;
+					acc = identity;
+					count = 0;
+				}
+				next.notifyValue(result);
+			}
+		}
+
+		Reducer reducer = new Reducer();
+		consume(reducer);
+		flushes.add(reducer);
+		return next;
+	}
+
+	/**
+	 * Sum the values.
+	 *
+	 * @return a new {@code LongStream} whose values are the sums
+	 *
+	 * @see #reduce(LongBinaryOperator, long)
+	 */
+	public LongStream sum() {
+		return reduce(SUM, 0l);
+	}
+
+	/**
+	 * Find the smallest value.
+	 *
+	 * @return a new {@code LongStream} whose values are the minimums
+	 *
+	 * @see #reduce(LongBinaryOperator, long)
+	 */
+	public LongStream min() {
+		return reduce(MIN, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Find the largest value.
+	 *
+	 * @return a new {@code LongStream} whose values are the maximums
+	 *
+	 * @see #reduce(LongBinaryOperator, long)
+	 */
+	public LongStream max() {
+		return reduce(MAX, Long.MIN_VALUE);
+	}
+
+	/**
+	 * Count the values falling into each bucket delimited by the given ascending {@code bounds}. Bucket {@code 0} holds
+	 * values below {@code bounds[0]}, bucket {@code i} holds values from {@code bounds[i - 1]} up to but excluding {@code
+	 * bounds[i]}, and the last bucket holds values from the last bound up. The counts are published as a copy at the end
+	 * of each batch, if a {@code batchSize} is set, and on {@link #flush()}, after which counting starts over.
+	 *
+	 * @param bounds
+	 * 		the ascending bucket boundaries
+	 *
+	 * @return a new {@link Stream} whose values are the bucket counts
+	 */
+	public Stream<long[]> histogram(@Nonnull final long... bounds) {
+		Assert.isTrue(bounds.length > 0, "At least one bucket boundary is required.");
+		for(int i = 1; i < bounds.length; i++) {
+			Assert.isTrue(bounds[i - 1] < bounds[i], "Bucket boundaries must be in ascending order.");
+		}
+		final Stream<long[]> next = createStream();
+
+		final class Histogram implements LongConsumer, Signal.Handler<Void> {
+			private final long[] counts = new long[bounds.length + 1];
+			private long total;
+
+			@Override
+			public void accept(long value) {
+				int i = Arrays.binarySearch(bounds, value);
+				int bucket = (i >= 0 ? i + 1 : -i - 1);
+				long[] batch;
+				synchronized(this) {
+					counts[bucket]++;
+					if(batchSize <= 0 || ++total % batchSize != 0) {
+						return;
+					}
+					batch = close();
+				}
+				next.notifyValue(batch);
+			}
+
+			@Override
+			public void accept(Event<?> origin, Void v) {
+				long[] batch;
+				synchronized(this) {
+					batch = close();
+				}
+				if(null != batch) {
+					next.notifyValue(batch);
+				}
+			}
+
+			private long[] close() {
+				boolean empty = true;
+				for(long c : counts) {
+					if(c != 0) {
+						empty = false;
+						break;
+					}
+				}
+				if(empty) {
+					return null;
+				}
+				long[] batch = counts.clone();
+				Arrays.fill(counts, 0);
+				total = 0;
+				return batch;
+			}
+		}
+
+		Histogram histogram = new Histogram();
+		consume(histogram);
+		flushes.add(histogram);
+		return next;
+	}
+
+	/**
+	 * Box each value into a {@link Stream} of {@link Long Longs}, for example to hand the values to another thread or to
+	 * an operator that only exists on {@link Stream}.
+	 *
+	 * @return a new {@link Stream} containing the boxed values
+	 */
+	public Stream<Long> boxed() {
+		final Stream<Long> next = createStream();
+		consume(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				next.notifyValue(value);
+			}
+		});
+		return next;
+	}
+
+	/**
+	 * Flush any cached or unprocessed values through this {@code LongStream}, publishing partially filled batches.
+	 *
+	 * @return {@literal this}
+	 */
+	public LongStream flush() {
+		if(null != parent) {
+			parent.flush();
+		} else if(null != source) {
+			source.flush();
+		}
+		flushes.accept(null, null);
+		return this;
+	}
+
+	/**
+	 * Get the total number of values accepted into this {@code LongStream} since its creation.
+	 *
+	 * @return number of values accepted
+	 */
+	public long getAcceptCount() {
+		return acceptCount.get();
+	}
+
+	/**
+	 * Get the total number of errors propagated through this {@code LongStream} since its creation.
+	 *
+	 * @return number of errors propagated
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Indicates whether or not this {@code LongStream} is batched.
+	 *
+	 * @return {@literal true} if a {@code batchSize} has been set, {@literal false} otherwise
+	 */
+	public boolean isBatch() {
+		return batchSize > 0;
+	}
+
+	void notifyValue(long value) {
+		acceptCount.increment();
+		LongConsumer[] consumers = this.consumers;
+		for(int i = 0; i < consumers.length; i++) {
+			try {
+				consumers[i].accept(value);
+			} catch(Throwable t) {
+				errorRouter.accept(t);
+			}
+		}
+	}
+
+	synchronized void notifyError(Throwable error) {
+		errorCount++;
+		errors.accept(null, error);
+	}
+
+	private void cascadeErrors(final LongStream next) {
+		when(Throwable.class, new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				next.notifyError(t);
+			}
+		});
+	}
+
+	private <V> Stream<V> createStream() {
+		final Stream<V> next = new Stream<V>(SynchronousDispatcher.INSTANCE, -1, null, null) {
+			@Override
+			public Stream<V> flush() {
+				LongStream.this.flush();
+				return super.flush();
+			}
+		};
+		when(Throwable.class, new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				next.notifyError(t);
+			}
+		});
+		return next;
+	}
+
+	@Override
+	public String toString() {
+		return "LongStream{" +
+				"acceptCount=" + getAcceptCount() +
+				", errorCount=" + getErrorCount() +
+				", batchSize=" + batchSize +
+				'}';
+	}
+
+}
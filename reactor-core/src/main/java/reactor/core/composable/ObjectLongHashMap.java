@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An open-addressed map from object keys to primitive {@code long} values, used to hold per-key aggregation state
+ * without boxing a {@link Long} or allocating an entry for every update. Keys and values live in two parallel arrays
+ * that are probed linearly and doubled once half full.
+ * <p/>
+ * This class is not thread-safe.
+ *
+ * @param <K>
+ * 		the type of the keys
+ */
+final class ObjectLongHashMap<K> {
+
+	private static final Object NULL_KEY = new Object();
+
+	private Object[] keys;
+	private long[]   values;
+	private int      size;
+
+	ObjectLongHashMap(int expectedSize) {
+		int capacity = 8;
+		while(capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		this.keys = new Object[capacity];
+		this.values = new long[capacity];
+	}
+
+	/**
+	 * Add {@code delta} to the value held for {@code key}, starting from {@code 0} if the key is not yet present.
+	 *
+	 * @param key
+	 * 		the key
+	 * @param delta
+	 * 		the amount to add
+	 *
+	 * @return the new value
+	 */
+	long add(K key, long delta) {
+		Object k = (null == key ? NULL_KEY : key);
+		int i = indexOf(k, keys);
+		if(null == keys[i]) {
+			if(++size > keys.length >> 1) {
+				rehash();
+				i = indexOf(k, keys);
+			}
+			keys[i] = k;
+		}
+		return values[i] += delta;
+	}
+
+	/**
+	 * Get the value held for {@code key}.
+	 *
+	 * @param key
+	 * 		the key
+	 * @param defaultValue
+	 * 		the value to return if the key is not present
+	 *
+	 * @return the value held for {@code key} or {@code defaultValue}
+	 */
+	long get(K key, long defaultValue) {
+		Object k = (null == key ? NULL_KEY : key);
+		int i = indexOf(k, keys);
+		return (null == keys[i] ? defaultValue : values[i]);
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Remove every key, keeping the current capacity.
+	 */
+	void clear() {
+		if(size > 0) {
+			Arrays.fill(keys, null);
+			Arrays.fill(values, 0);
+			size = 0;
+		}
+	}
+
+	/**
+	 * Copy the contents into a new {@link Map}, boxing each value once.
+	 *
+	 * @return a new {@link Map} holding every key and value
+	 */
+	@SuppressWarnings("unchecked")
+	Map<K, Long> toMap() {
+		Map<K, Long> map = new HashMap<K, Long>(size * 2);
+		for(int i = 0; i < keys.length; i++) {
+			Object k = keys[i];
+			if(null != k) {
+				map.put((k == NULL_KEY ? null : (K)k), values[i]);
+			}
+		}
+		return map;
+	}
+
+	private static int indexOf(Object key, Object[] keys) {
+		int mask = keys.length - 1;
+		int h = key.hashCode();
+		int i = (h ^ (h >>> 16)) & mask;
+		Object existing;
+		while(null != (existing = keys[i]) && !existing.equals(key)) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private void rehash() {
+		Object[] oldKeys = keys;
+		long[] oldValues = values;
+		keys = new Object[oldKeys.length << 1];
+		values = new long[oldKeys.length << 1];
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(null != oldKeys[i]) {
+				int j = indexOf(oldKeys[i], keys);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+}
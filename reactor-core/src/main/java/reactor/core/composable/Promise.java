@@ -17,23 +17,23 @@
 package reactor.core.composable;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import reactor.core.Environment;
 import reactor.core.Observable;
-import reactor.core.spec.Reactors;
 import reactor.event.Event;
 import reactor.event.dispatch.Dispatcher;
 import reactor.event.dispatch.SynchronousDispatcher;
-import reactor.event.selector.Selector;
-import reactor.event.selector.Selectors;
-import reactor.event.support.EventConsumer;
+import reactor.event.registry.Registration;
 import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.function.Predicate;
 import reactor.function.Supplier;
-import reactor.tuple.Tuple2;
 import reactor.util.Assert;
 
 /**
@@ -57,8 +57,15 @@ import reactor.util.Assert;
  */
 public class Promise<T> extends Composable<T> implements Supplier<T> {
 
-	private final Object                   monitor  = new Object();
-	private final Tuple2<Selector, Object> complete = Selectors.$();
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Promise, State>  STATE   =
+			AtomicReferenceFieldUpdater.newUpdater(Promise.class, State.class, "state");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Promise, Waiter> WAITERS =
+			AtomicReferenceFieldUpdater.newUpdater(Promise.class, Waiter.class, "waiters");
+	private static final Waiter                                        DONE    = new Waiter(null);
+
+	private final Signal<Promise<T>> complete = createSignal();
 
 	private final long defaultTimeout;
 
@@ -68,7 +75,9 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	private T           value;
 	private Throwable   error;
 	private Supplier<T> supplier;
-	private boolean hasBlockers = false;
+	private volatile Waiter waiters;
+	private volatile Long   deadline;
+	private TimeoutException timedOutWith;
 
 	/**
 	 * Creates a new unfulfilled promise.
@@ -164,8 +173,8 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	 * Watches for flush events and accept the delayed value passed via {@link Supplier}.
 	 */
 	private void init() {
-		getObservable().on(getFlush().getT1(), new Consumer<Event<Void>>() {
-			@Override public void accept(Event<Void> ev) {
+		consumeFlush(new Signal.Handler<Void>() {
+			@Override public void accept(Event<?> origin, Void v) {
 				if(null != supplier) {
 					try {
 						notifyValue(supplier.get());
@@ -189,9 +198,23 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	 */
 	public Promise<T> onComplete(@Nonnull final Consumer<Promise<T>> onComplete) {
 		if(isComplete()) {
-			Reactors.schedule(onComplete, this, getObservable());
-		} else {
-			getObservable().on(complete.getT1(), new EventConsumer<Promise<T>>(onComplete));
+			schedule(onComplete, this);
+			return this;
+		}
+
+		final AtomicBoolean called = new AtomicBoolean();
+		Consumer<Promise<T>> once = new Consumer<Promise<T>>() {
+			@Override
+			public void accept(Promise<T> p) {
+				if(called.compareAndSet(false, true)) {
+					onComplete.accept(p);
+				}
+			}
+		};
+		complete.addConsumer(once);
+		// a completion racing with this registration may have signalled before the consumer was added
+		if(isComplete()) {
+			schedule(once, this);
 		}
 		return this;
 	}
@@ -297,12 +320,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	 * @see #isPending()
 	 */
 	public boolean isComplete() {
-		lock.lock();
-		try {
-			return state != State.PENDING;
-		} finally {
-			lock.unlock();
-		}
+		return state == State.SUCCESS || state == State.FAILURE;
 	}
 
 	/**
@@ -313,12 +331,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	 * @see #isComplete()
 	 */
 	public boolean isPending() {
-		lock.lock();
-		try {
-			return state == State.PENDING;
-		} finally {
-			lock.unlock();
-		}
+		return !isComplete();
 	}
 
 	/**
@@ -327,12 +340,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	 * @return {@code true} if this {@code Promise} is successful, {@code false} otherwise.
 	 */
 	public boolean isSuccess() {
-		lock.lock();
-		try {
-			return state == State.SUCCESS;
-		} finally {
-			lock.unlock();
-		}
+		return state == State.SUCCESS;
 	}
 
 	/**
@@ -341,12 +349,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	 * @return {@code true} if this {@code Promise} was completed with an error, {@code false} otherwise.
 	 */
 	public boolean isError() {
-		lock.lock();
-		try {
-			return state == State.FAILURE;
-		} finally {
-			lock.unlock();
-		}
+		return state == State.FAILURE;
 	}
 
 	/**
@@ -390,25 +393,105 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 			return get();
 		}
 
-		hasBlockers = true;
-		synchronized(monitor) {
-			if(timeout >= 0) {
-				long msTimeout = TimeUnit.MILLISECONDS.convert(timeout, unit);
-				long endTime = System.currentTimeMillis() + msTimeout;
-				while(state == State.PENDING && (System.currentTimeMillis()) < endTime) {
-					this.monitor.wait(200);
+		long deadline = (timeout >= 0 ? System.nanoTime() + unit.toNanos(timeout) : 0);
+		Waiter waiter = new Waiter(Thread.currentThread());
+		try {
+			for(; ; ) {
+				Waiter head = waiters;
+				if(head == DONE) {
+					break;
 				}
-			} else {
-				while(state == State.PENDING) {
-					this.monitor.wait(200);
+				waiter.next = head;
+				if(WAITERS.compareAndSet(this, head, waiter)) {
+					break;
+				}
+			}
+			while(isPending()) {
+				if(Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				if(timeout >= 0) {
+					long remaining = deadline - System.nanoTime();
+					if(remaining <= 0) {
+						break;
+					}
+					LockSupport.parkNanos(this, remaining);
+				} else {
+					LockSupport.park(this);
 				}
 			}
+		} finally {
+			removeWaiter(waiter);
 		}
-		hasBlockers = false;
 
 		return get();
 	}
 
+	/**
+	 * Fail this {@code Promise} with a {@link TimeoutException} if it has not completed within the given time. The
+	 * timeout is a single task on the {@link Environment#getRootTimer() root timer}, which is cancelled as soon as the
+	 * {@code Promise} completes, so no thread blocks and an abandoned {@code Promise} does not outlive its deadline.
+	 * {@code Promises} derived from this one, for example by {@link #map(Function)} or {@link #then(Function, Consumer)},
+	 * fail along with it and report the same {@link #timeRemaining(TimeUnit) time remaining}.
+	 *
+	 * @param timeout
+	 * 		the time to wait for completion
+	 * @param unit
+	 * 		the {@link TimeUnit} of the timeout value
+	 *
+	 * @return {@literal this}
+	 */
+	public Promise<T> timeout(final long timeout, final TimeUnit unit) {
+		Assert.state(null != environment, "Timeouts require a Promise created with an Environment.");
+		if(!isPending()) {
+			return this;
+		}
+
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		Long current = this.deadline;
+		if(null == current || deadline - current < 0) {
+			this.deadline = deadline;
+		}
+
+		final Registration<? extends Consumer<Long>> expiry = environment.getRootTimer().submit(new Consumer<Long>() {
+			@Override
+			public void accept(Long now) {
+				// claim the Promise before failing it, so that losing the race with completion is neither reported nor
+				// counted as an error
+				if(STATE.compareAndSet(Promise.this, State.PENDING, State.COMPLETING)) {
+					timedOutWith = new TimeoutException("Promise was not completed within " + timeout + " " + unit);
+					notifyError(timedOutWith);
+				}
+			}
+		}, timeout, unit);
+		onComplete(new Consumer<Promise<T>>() {
+			@Override
+			public void accept(Promise<T> p) {
+				expiry.cancel();
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Get the time left before this {@code Promise}, or the {@code Promise} it was derived from, fails with a {@link
+	 * TimeoutException}. A caller can pass this on as the timeout of a downstream request so the whole chain shares one
+	 * deadline.
+	 *
+	 * @param unit
+	 * 		the {@link TimeUnit} to express the remaining time in
+	 *
+	 * @return the time remaining, {@code 0} if the deadline has passed, or {@link Long#MAX_VALUE} if no {@link
+	 * #timeout(long, TimeUnit) timeout} has been set
+	 */
+	public long timeRemaining(TimeUnit unit) {
+		Long deadline = getDeadline();
+		if(null == deadline) {
+			return Long.MAX_VALUE;
+		}
+		return unit.convert(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+	}
+
 	/**
 	 * Returns the value that completed this promise. Returns {@code null} if the promise has not been completed. If the
 	 * promise is completed with an error a RuntimeException that wraps the error is thrown.
@@ -453,7 +536,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	@Override
 	public Promise<T> consume(@Nonnull Consumer<T> consumer) {
 		if(isSuccess()) {
-			Reactors.schedule(consumer, value, getObservable());
+			schedule(consumer, value);
 		} else {
 			super.consume(consumer);
 		}
@@ -463,12 +546,12 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	@Override
 	public Promise<T> consume(@Nonnull final Composable<T> composable) {
 		if(isSuccess()) {
-			Reactors.schedule(new Consumer<T>() {
+			schedule(new Consumer<T>() {
 				@Override
 				public void accept(T t) {
 					composable.notifyValue(t);
 				}
-			}, value, getObservable());
+			}, value);
 		} else {
 			super.consume(composable);
 		}
@@ -489,7 +572,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	@Override
 	public <E extends Throwable> Promise<T> when(@Nonnull Class<E> exceptionType, @Nonnull Consumer<E> onError) {
 		if(isError() && exceptionType.isAssignableFrom(error.getClass())) {
-			Reactors.schedule(onError, (E)error, getObservable());
+			schedule(onError, (E)error);
 		} else {
 			super.when(exceptionType, onError);
 		}
@@ -504,7 +587,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 
 		final Deferred<V, Promise<V>> d = createDeferred();
 		if(isSuccess()) {
-			Reactors.schedule(
+			schedule(
 					new Consumer<Void>() {
 						@Override
 						public void accept(Void aVoid) {
@@ -515,8 +598,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 							}
 						}
 					},
-					null,
-					getObservable()
+					null
 			);
 		} else if(isError()) {
 			d.accept(error);
@@ -532,7 +614,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 
 		final Deferred<T, Promise<T>> d = createDeferred();
 		if(isSuccess()) {
-			Reactors.schedule(
+			schedule(
 					new Consumer<Void>() {
 						@Override
 						public void accept(Void aVoid) {
@@ -549,8 +631,7 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 							}
 						}
 					},
-					null,
-					getObservable()
+					null
 			);
 		} else if(isError()) {
 			d.accept(error);
@@ -566,55 +647,94 @@ public class Promise<T> extends Composable<T> implements Supplier<T> {
 	@SuppressWarnings("unchecked")
 	@Override
 	protected <V, C extends Composable<V>> Deferred<V, C> createDeferred() {
-		return (Deferred<V, C>)new Deferred<V, Promise<V>>(new Promise<V>(new SynchronousDispatcher(), environment, this));
+		return (Deferred<V, C>)new Deferred<V, Promise<V>>(new Promise<V>(SynchronousDispatcher.INSTANCE, environment, this));
 	}
 
-	@Override
-	protected void errorAccepted(Throwable error) {
-		lock.lock();
-		try {
-			assertPending();
-			this.state = State.FAILURE;
-			this.error = error;
-			if(hasBlockers) {
-				synchronized(monitor) {
-					monitor.notifyAll();
-				}
+	private Long getDeadline() {
+		Long deadline = this.deadline;
+		Composable<?> parent = getParent();
+		if(parent instanceof Promise) {
+			Long inherited = ((Promise<?>)parent).getDeadline();
+			if(null == deadline || (null != inherited && inherited - deadline < 0)) {
+				deadline = inherited;
 			}
-		} finally {
-			lock.unlock();
 		}
-		getObservable().notify(complete.getT2(), Event.wrap(this));
+		return deadline;
+	}
 
+	@Override
+	protected void errorAccepted(Throwable error) {
+		complete(State.FAILURE, null, error);
 	}
 
 	@Override
 	protected void valueAccepted(T value) {
-		lock.lock();
-		try {
-			assertPending();
-			this.state = State.SUCCESS;
-			this.value = value;
-			if(hasBlockers) {
-				synchronized(monitor) {
-					monitor.notifyAll();
-				}
+		complete(State.SUCCESS, value, null);
+	}
+
+	private void complete(State outcome, T value, Throwable error) {
+		boolean pending = STATE.compareAndSet(this, State.PENDING, State.COMPLETING);
+		// a timeout claims the Promise before it fails it
+		Assert.state(pending || (null != error && error == timedOutWith), "Promise has already completed. ");
+		this.value = value;
+		this.error = error;
+		this.state = outcome;
+
+		Waiter waiter = WAITERS.getAndSet(this, DONE);
+		for(; null != waiter; waiter = waiter.next) {
+			Thread thread = waiter.thread;
+			if(null != thread) {
+				waiter.thread = null;
+				LockSupport.unpark(thread);
 			}
-		} finally {
-			lock.unlock();
 		}
-		getObservable().notify(complete.getT2(), Event.wrap(this));
 
+		dispatch(null, this, complete);
 	}
 
-	private void assertPending() {
-		Assert.state(state == State.PENDING, "Promise has already completed. ");
+	/**
+	 * Mark the given waiter as gone and unlink every gone waiter from the stack, so that threads that time out or are
+	 * interrupted while this {@code Promise} stays pending don't pile up on it. A waiter whose predecessor is unlinked
+	 * at the same time may be left behind, in which case the traversal starts over.
+	 */
+	private void removeWaiter(Waiter waiter) {
+		waiter.thread = null;
+		retry:
+		for(; ; ) {
+			Waiter pred = null;
+			for(Waiter q = waiters, next; null != q && q != DONE; q = next) {
+				next = q.next;
+				if(null != q.thread) {
+					pred = q;
+				} else if(null != pred) {
+					pred.next = next;
+					if(null == pred.thread) {
+						continue retry;
+					}
+				} else if(!WAITERS.compareAndSet(this, q, next)) {
+					continue retry;
+				}
+			}
+			return;
+		}
 	}
 
 	private enum State {
-		PENDING, SUCCESS, FAILURE
+		PENDING, COMPLETING, SUCCESS, FAILURE
 	}
 
+	/**
+	 * A thread parked in {@link #await(long, TimeUnit)}. Waiters form a stack that completion swaps out for {@link
+	 * #DONE} before unparking each of them, so a thread that arrives after completion never parks.
+	 */
+	private static final class Waiter {
+		volatile Thread thread;
+		Waiter next;
+
+		private Waiter(Thread thread) {
+			this.thread = thread;
+		}
+	}
 	@Override
 	public String toString() {
 		return "Promise{" +
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Restores the original order of values that were processed out of order, such as by a parallel {@link
+ * Stream#mapAsync(reactor.function.Function, String, boolean) mapAsync} stage. Each value carries the sequence number
+ * it was given on the way in. Results are parked until every earlier sequence number has been passed on, then handed
+ * to the target {@link Composable} in order. Only one thread passes results on at a time.
+ *
+ * @param <V>
+ * 		the type of the values being resequenced
+ */
+final class Resequencer<V> {
+
+	private static final Object NULL = new Object();
+
+	private final ConcurrentHashMap<Long, Object> completed = new ConcurrentHashMap<Long, Object>();
+	private final AtomicInteger                   wip       = new AtomicInteger();
+	private final Composable<V>                   target;
+
+	private long next = 0;
+
+	Resequencer(Composable<V> target) {
+		this.target = target;
+	}
+
+	/**
+	 * Record the result for the given sequence number and pass on every result that is now in order.
+	 *
+	 * @param sequence
+	 * 		the sequence number the value was given when it entered the parallel stage
+	 * @param value
+	 * 		the result
+	 */
+	void complete(long sequence, V value) {
+		completed.put(sequence, (null == value ? NULL : value));
+		drain();
+	}
+
+	/**
+	 * Record a failure for the given sequence number. It is propagated once every earlier result has been passed on.
+	 *
+	 * @param sequence
+	 * 		the sequence number the value was given when it entered the parallel stage
+	 * @param error
+	 * 		the failure
+	 */
+	void fail(long sequence, Throwable error) {
+		completed.put(sequence, new Failure(error));
+		drain();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void drain() {
+		if(wip.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		for(; ; ) {
+			Object result;
+			while(null != (result = completed.remove(next))) {
+				next++;
+				if(result instanceof Failure) {
+					target.notifyError(((Failure)result).error);
+				} else {
+					target.notifyValue(result == NULL ? null : (V)result);
+				}
+			}
+			missed = wip.addAndGet(-missed);
+			if(missed == 0) {
+				return;
+			}
+		}
+	}
+
+	private static final class Failure {
+		private final Throwable error;
+
+		private Failure(Throwable error) {
+			this.error = error;
+		}
+	}
+
+}
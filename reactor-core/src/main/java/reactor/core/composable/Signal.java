@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.event.Event;
+import reactor.function.Consumer;
+import reactor.function.support.CancelConsumerException;
+
+import javax.annotation.Nullable;
+
+/**
+ * A lightweight notification channel used internally by {@link Composable Composables} in place of a full {@link
+ * reactor.core.Reactor}. Handlers are kept in a copy-on-write array, so notifying them is a plain loop with no {@link
+ * reactor.event.registry.Registry} lookup, {@link reactor.event.selector.Selector} matching or per-instance {@link
+ * java.util.UUID}.
+ * <p/>
+ * Handlers are passed the value directly, along with the {@link Event} it originated from. This lets synchronous
+ * operators call straight into the next {@code Composable} without wrapping every intermediate value in a new {@link
+ * Event}; one is only created when a {@link Consumer} of {@link Event Events} is actually subscribed.
+ * <p/>
+ * A {@code Signal} is itself a {@link Consumer} so it can be handed to a {@link reactor.event.dispatch.Dispatcher} as
+ * the single target of a dispatch, fanning the {@link Event} out to every handler on the dispatcher's thread.
+ *
+ * @param <T>
+ * 		the type of the values being signalled
+ */
+final class Signal<T> implements Consumer<Event<T>> {
+
+	private static final Logger       LOG   = LoggerFactory.getLogger(Signal.class);
+	private static final Handler<?>[] EMPTY = new Handler<?>[0];
+
+	private final Consumer<Throwable> errorConsumer;
+
+	@SuppressWarnings("unchecked")
+	private volatile Handler<T>[] handlers = (Handler<T>[])EMPTY;
+
+	/**
+	 * Create a new {@code Signal} that will pass any exception thrown by a handler to the given {@code errorConsumer}.
+	 *
+	 * @param errorConsumer
+	 * 		the {@link Consumer} to pass handler failures to. May be {@code null} in which case failures are logged.
+	 */
+	Signal(@Nullable Consumer<Throwable> errorConsumer) {
+		this.errorConsumer = errorConsumer;
+	}
+
+	/**
+	 * Get an {@link Event} carrying the given {@code value}. The {@code origin} is reused if it already carries that
+	 * value, otherwise it is {@link Event#copy(Object) copied} so headers and callbacks are preserved.
+	 *
+	 * @param origin
+	 * 		the {@link Event} the value originated from. May be {@code null}.
+	 * @param value
+	 * 		the value
+	 * @param <T>
+	 * 		type of the value
+	 *
+	 * @return an {@link Event} whose data is {@code value}
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> Event<T> eventOf(@Nullable Event<?> origin, T value) {
+		if(null == origin) {
+			return Event.wrap(value);
+		}
+		return (origin.getData() == value ? (Event<T>)origin : origin.copy(value));
+	}
+
+	/**
+	 * Subscribe the given {@link Handler} to this {@code Signal}.
+	 *
+	 * @param handler
+	 * 		the {@link Handler} to add
+	 */
+	@SuppressWarnings("unchecked")
+	synchronized void add(Handler<T> handler) {
+		Handler<T>[] current = handlers;
+		Handler<T>[] next = (Handler<T>[])new Handler<?>[current.length + 1];
+		System.arraycopy(current, 0, next, 0, current.length);
+		next[current.length] = handler;
+		handlers = next;
+	}
+
+	/**
+	 * Subscribe the given {@link Consumer} of values to this {@code Signal}.
+	 *
+	 * @param consumer
+	 * 		the {@link Consumer} to add
+	 */
+	void addConsumer(final Consumer<T> consumer) {
+		add(new Handler<T>() {
+			@Override
+			public void accept(Event<?> origin, T value) {
+				consumer.accept(value);
+			}
+		});
+	}
+
+	/**
+	 * Subscribe the given {@link Consumer} of {@link Event Events} to this {@code Signal}.
+	 *
+	 * @param consumer
+	 * 		the {@link Consumer} to add
+	 */
+	void addEventConsumer(final Consumer<Event<T>> consumer) {
+		add(new Handler<T>() {
+			@Override
+			public void accept(Event<?> origin, T value) {
+				consumer.accept(eventOf(origin, value));
+			}
+		});
+	}
+
+	/**
+	 * Unsubscribe the given {@link Handler} from this {@code Signal}.
+	 *
+	 * @param handler
+	 * 		the {@link Handler} to remove
+	 *
+	 * @return {@literal true} if the {@link Handler} was subscribed, {@literal false} otherwise
+	 */
+	@SuppressWarnings("unchecked")
+	synchronized boolean remove(Handler<T> handler) {
+		Handler<T>[] current = handlers;
+		for(int i = 0; i < current.length; i++) {
+			if(current[i] == handler) {
+				Handler<T>[] next = (Handler<T>[])new Handler<?>[current.length - 1];
+				System.arraycopy(current, 0, next, 0, i);
+				System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+				handlers = next;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether any {@link Handler Handlers} are currently subscribed.
+	 *
+	 * @return {@literal true} if there are no handlers, {@literal false} otherwise
+	 */
+	boolean isEmpty() {
+		return handlers.length == 0;
+	}
+
+	@Override
+	public void accept(Event<T> ev) {
+		accept(ev, ev.getData());
+	}
+
+	/**
+	 * Pass the given {@code value} to every subscribed {@link Handler} on the calling thread.
+	 *
+	 * @param origin
+	 * 		the {@link Event} the value originated from. May be {@code null}.
+	 * @param value
+	 * 		the value to signal
+	 */
+	void accept(@Nullable Event<?> origin, T value) {
+		Handler<T>[] handlers = this.handlers;
+		for(int i = 0; i < handlers.length; i++) {
+			try {
+				handlers[i].accept(origin, value);
+			} catch(CancelConsumerException cancel) {
+				remove(handlers[i]);
+			} catch(Throwable t) {
+				if(null != origin && null != origin.getErrorConsumer()) {
+					origin.consumeError(t);
+				} else if(null != errorConsumer) {
+					errorConsumer.accept(t);
+				} else {
+					LOG.error("Signal failed for {}: {}", handlers[i], t.getMessage(), t);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Handles a value passed through a {@link Signal}.
+	 *
+	 * @param <T>
+	 * 		the type of the values handled
+	 */
+	interface Handler<T> {
+
+		/**
+		 * Handle the given {@code value}.
+		 *
+		 * @param origin
+		 * 		the {@link Event} the value originated from. May be {@code null}.
+		 * @param value
+		 * 		the value
+		 */
+		void accept(@Nullable Event<?> origin, T value);
+
+	}
+
+}
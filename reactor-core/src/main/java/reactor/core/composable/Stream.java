@@ -16,28 +16,36 @@
 
 package reactor.core.composable;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import reactor.core.Environment;
+import reactor.core.HashWheelTimer;
 import reactor.core.Observable;
 import reactor.core.composable.spec.DeferredStreamSpec;
 import reactor.event.Event;
 import reactor.event.dispatch.Dispatcher;
 import reactor.event.dispatch.SynchronousDispatcher;
 import reactor.event.registry.Registration;
-import reactor.event.selector.Selector;
-import reactor.event.selector.Selectors;
-import reactor.event.support.CallbackEvent;
-import reactor.event.support.EventConsumer;
+import reactor.function.BiFunction;
 import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.function.Functions;
 import reactor.function.Predicate;
 import reactor.function.Supplier;
+import reactor.function.ToDoubleFunction;
+import reactor.function.ToLongFunction;
 import reactor.function.support.Tap;
 import reactor.tuple.Tuple;
 import reactor.tuple.Tuple2;
@@ -65,10 +73,12 @@ import reactor.util.Assert;
  */
 public class Stream<T> extends Composable<T> {
 
-	private final Tuple2<Selector, Object> first = Selectors.$();
-	private final Tuple2<Selector, Object> last  = Selectors.$();
-	private final int                              batchSize;
-	private final Iterable<T>                      values;
+	private final Signal<T>   first = createSignal();
+	private final Signal<T>   last  = createSignal();
+	private final Environment environment;
+	private final int         batchSize;
+	private final AtomicLong  batchSequence;
+	private final Iterable<T> values;
 
 	/**
 	 * Create a new Stream that will use the {@link Dispatcher} to pass its values to registered
@@ -97,21 +107,43 @@ public class Stream<T> extends Composable<T> {
 	              int batchSize,
 	              @Nullable Iterable<T> values,
 	              @Nullable Composable<?> parent) {
+		this(dispatcher, null, batchSize, values, parent);
+	}
+
+	/**
+	 * Create a new Stream that will use the {@link Dispatcher} to pass its values to registered
+	 * handlers and the given {@link Environment}'s root timer to drive time-based operators such as
+	 * {@link #window(long, TimeUnit)}.
+	 *
+	 * @param dispatcher
+	 * 		The dispatcher used to drive event handlers
+	 * @param env
+	 * 		The Environment, if any, whose root timer drives time-based operators
+	 * @param batchSize
+	 * 		The size of the batches, or {@code -1} for no batching
+	 * @param values
+	 * 		The stream's initial values. May be {@code null}
+	 * @param parent
+	 * 		The stream's parent. May be {@code null}
+	 *
+	 * @see #Stream(Dispatcher, int, Iterable, Composable)
+	 */
+	public Stream(@Nonnull Dispatcher dispatcher,
+	              @Nullable Environment env,
+	              int batchSize,
+	              @Nullable Iterable<T> values,
+	              @Nullable Composable<?> parent) {
 		super(dispatcher, parent);
+		this.environment = env;
 		this.batchSize = batchSize;
+		this.batchSequence = (batchSize > 0 ? new AtomicLong() : null);
 		this.values = values;
 
-		getObservable().on(getFlush().getT1(), new Consumer<Event<Void>>() {
-			@Override
-			public void accept(Event<Void> ev) {
-				if (null == Stream.this.values) {
-					return;
-				}
-				for (T val : Stream.this.values) {
-					Stream.this.notifyValue(val);
-				}
-			}
-		});
+		if(null != values) {
+			ValuesDrain drain = new ValuesDrain();
+			consumeFlush(drain);
+			consumeRequests(drain);
+		}
 	}
 
 	@Override
@@ -134,6 +166,11 @@ public class Stream<T> extends Composable<T> {
 		return (Stream<T>) super.flush();
 	}
 
+	@Override
+	public Stream<T> request(long n) {
+		return (Stream<T>) super.request(n);
+	}
+
 	@Override
 	public <E extends Throwable> Stream<T> when(@Nonnull Class<E> exceptionType, @Nonnull Consumer<E> onError) {
 		return (Stream<T>) super.when(exceptionType, onError);
@@ -155,6 +192,76 @@ public class Stream<T> extends Composable<T> {
 		return (Stream<T>) super.filter(p, composable);
 	}
 
+	/**
+	 * Convert each value into a primitive {@code long} using the given {@link ToLongFunction}. The resulting {@link
+	 * LongStream} is fed on this {@code Stream}'s dispatcher thread, has the same {@code batchSize} and receives this
+	 * {@code Stream}'s errors.
+	 *
+	 * @param fn
+	 * 		the conversion function
+	 *
+	 * @return a new {@link LongStream} containing the converted values
+	 */
+	public LongStream mapToLong(@Nonnull final ToLongFunction<T> fn) {
+		Assert.notNull(fn, "Map function cannot be null.");
+		final LongStream next = new LongStream(batchSize, null, this);
+		addHandler(new Signal.Handler<T>() {
+			@Override
+			public void accept(Event<?> origin, T value) {
+				long result;
+				try {
+					result = fn.apply(value);
+				} catch(Throwable t) {
+					next.notifyError(t);
+					return;
+				}
+				next.notifyValue(result);
+			}
+		});
+		when(Throwable.class, new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				next.notifyError(t);
+			}
+		});
+		return next;
+	}
+
+	/**
+	 * Convert each value into a primitive {@code double} using the given {@link ToDoubleFunction}. The resulting {@link
+	 * DoubleStream} is fed on this {@code Stream}'s dispatcher thread, has the same {@code batchSize} and receives this
+	 * {@code Stream}'s errors.
+	 *
+	 * @param fn
+	 * 		the conversion function
+	 *
+	 * @return a new {@link DoubleStream} containing the converted values
+	 */
+	public DoubleStream mapToDouble(@Nonnull final ToDoubleFunction<T> fn) {
+		Assert.notNull(fn, "Map function cannot be null.");
+		final DoubleStream next = new DoubleStream(batchSize, null, this);
+		addHandler(new Signal.Handler<T>() {
+			@Override
+			public void accept(Event<?> origin, T value) {
+				double result;
+				try {
+					result = fn.apply(value);
+				} catch(Throwable t) {
+					next.notifyError(t);
+					return;
+				}
+				next.notifyValue(result);
+			}
+		});
+		when(Throwable.class, new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				next.notifyError(t);
+			}
+		});
+		return next;
+	}
+
 	/**
 	 * Create a new {@code Stream} whose values will be only the first value of each batch. Requires a {@code batchSize}
 	 * to
@@ -167,9 +274,14 @@ public class Stream<T> extends Composable<T> {
 	 * @see #batch(int)
 	 */
 	public Stream<T> first() {
-		Deferred<T, Stream<T>> d = createDeferredChildStream();
-		getObservable().on(first.getT1(), new EventConsumer<T>(d));
-		return d.compose();
+		final Stream<T> next = createDeferredChildStream().compose();
+		first.add(new Signal.Handler<T>() {
+			@Override
+			public void accept(Event<?> origin, T value) {
+				next.notifyValue(origin, value);
+			}
+		});
+		return next;
 	}
 
 	/**
@@ -181,9 +293,14 @@ public class Stream<T> extends Composable<T> {
 	 * @return a new {@code Stream} whose values are the last value of each batch
 	 */
 	public Stream<T> last() {
-		Deferred<T, Stream<T>> d = createDeferredChildStream();
-		getObservable().on(last.getT1(), new EventConsumer<T>(d));
-		return d.compose();
+		final Stream<T> next = createDeferredChildStream().compose();
+		last.add(new Signal.Handler<T>() {
+			@Override
+			public void accept(Event<?> origin, T value) {
+				next.notifyValue(origin, value);
+			}
+		});
+		return next;
 	}
 
 	/**
@@ -203,6 +320,149 @@ public class Stream<T> extends Composable<T> {
 		return d.compose();
 	}
 
+	/**
+	 * Assign the given {@link Function} to transform the incoming values on the {@link Environment} dispatcher pool with
+	 * the given name rather than on the thread that published them. Values are spread across the pool so a CPU-bound
+	 * {@code fn} scales with the number of cores. Transformed values are published on the new {@code Stream} as soon as
+	 * they are ready, which may not be the order they arrived in.
+	 *
+	 * @param fn
+	 * 		the transformation function
+	 * @param dispatcherName
+	 * 		the name of the {@link Environment} dispatcher to run {@code fn} on
+	 * @param <V>
+	 * 		the type of the return value of the transformation function
+	 *
+	 * @return a new {@code Stream} containing the transformed values
+	 *
+	 * @see #mapAsync(Function, String, boolean)
+	 */
+	public <V> Stream<V> mapAsync(@Nonnull Function<T, V> fn, @Nonnull String dispatcherName) {
+		return mapAsync(fn, dispatcherName, false);
+	}
+
+	/**
+	 * Assign the given {@link Function} to transform the incoming values on the {@link Environment} dispatcher pool with
+	 * the given name rather than on the thread that published them. Values are handed out round-robin to {@link
+	 * Environment#PROCESSORS} dispatchers taken from the pool, so a CPU-bound {@code fn} scales with the number of
+	 * cores.
+	 * <p/>
+	 * If {@code ordered} is {@literal true}, each value is numbered on the way in and the results, including errors, are
+	 * published in that order. Otherwise results are published as soon as they are ready.
+	 *
+	 * @param fn
+	 * 		the transformation function
+	 * @param dispatcherName
+	 * 		the name of the {@link Environment} dispatcher to run {@code fn} on
+	 * @param ordered
+	 * 		whether to restore the order the values arrived in
+	 * @param <V>
+	 * 		the type of the return value of the transformation function
+	 *
+	 * @return a new {@code Stream} containing the transformed values
+	 */
+	public <V> Stream<V> mapAsync(@Nonnull final Function<T, V> fn, @Nonnull String dispatcherName, boolean ordered) {
+		Assert.notNull(fn, "Map function cannot be null.");
+		Assert.state(null != environment, "mapAsync requires a Stream created with an Environment.");
+		final Dispatcher[] workers = new Dispatcher[Environment.PROCESSORS];
+		for(int i = 0; i < workers.length; i++) {
+			workers[i] = environment.getDispatcher(dispatcherName);
+		}
+		final Deferred<V, Stream<V>> d = createDeferred();
+		final Stream<V> next = d.compose();
+		final Resequencer<V> resequencer = (ordered ? new Resequencer<V>(next) : null);
+		final AtomicLong sequence = new AtomicLong();
+
+		addHandler(new Signal.Handler<T>() {
+			@Override
+			public void accept(final Event<?> origin, T value) {
+				final long seq = sequence.getAndIncrement();
+				schedule(workers[(int)(seq % workers.length)], new Consumer<T>() {
+					@Override
+					public void accept(T value) {
+						V result;
+						try {
+							result = fn.apply(value);
+						} catch(Throwable e) {
+							if(null != resequencer) {
+								resequencer.fail(seq, e);
+							} else {
+								next.notifyError(e);
+							}
+							return;
+						}
+						if(null != resequencer) {
+							resequencer.complete(seq, result);
+						} else {
+							next.notifyValue(origin, result);
+						}
+					}
+				}, value);
+			}
+		});
+
+		return next;
+	}
+
+	/**
+	 * Create a new {@code Stream} that absorbs bursts from this {@code Stream} in a buffer of up to {@code capacity}
+	 * values and releases them only as they are {@link #request(long) requested} from the new {@code Stream}. Once demand
+	 * has been requested downstream, this {@code Stream} is asked for {@code capacity} values up front and then for one
+	 * more every time a buffered value is released, so a producer that honors demand never overfills the buffer. A value
+	 * arriving at a full buffer is dropped and an {@link IllegalStateException} is propagated instead.
+	 * <p/>
+	 * Until demand is requested from the new {@code Stream}, values pass straight through it.
+	 *
+	 * @param capacity
+	 * 		the maximum number of values to buffer
+	 *
+	 * @return a new {@code Stream} that releases buffered values on demand
+	 */
+	public Stream<T> bounded(final int capacity) {
+		Assert.isTrue(capacity > 0, "Buffer capacity must be greater than 0.");
+		final Stream<T> next = createDeferredChildStream(batchSize).compose();
+		final ArrayBlockingQueue<T> buffer = new ArrayBlockingQueue<T>(capacity);
+		final DemandDrain drain = new DemandDrain() {
+			@Override
+			protected boolean hasNext() {
+				return !buffer.isEmpty();
+			}
+
+			@Override
+			protected void emitNext() {
+				T value = buffer.poll();
+				request(1);
+				next.notifyValue(value);
+			}
+		};
+
+		addHandler(new Signal.Handler<T>() {
+			@Override
+			public void accept(Event<?> origin, T value) {
+				if(!next.isDemandDriven()) {
+					next.notifyValue(origin, value);
+				} else if(buffer.offer(value)) {
+					drain.drain();
+				} else {
+					next.notifyError(new IllegalStateException("Buffer of " + capacity + " values is full, dropping " + value));
+				}
+			}
+		});
+		next.consumeRequests(new Consumer<Long>() {
+			private final AtomicBoolean primed = new AtomicBoolean();
+
+			@Override
+			public void accept(Long n) {
+				if(primed.compareAndSet(false, true)) {
+					request(capacity);
+				}
+				drain.add(n);
+			}
+		});
+
+		return next;
+	}
+
 	/**
 	 * Indicates whether or not this {@code Stream} is unbounded.
 	 *
@@ -235,24 +495,25 @@ public class Stream<T> extends Composable<T> {
 	public Stream<List<T>> collect() {
 		Assert.state(batchSize > 0, "Cannot collect() an unbounded Stream. Try extracting a batch first.");
 		final Deferred<List<T>, Stream<List<T>>> d = createDeferred(batchSize);
+		final Stream<List<T>> next = d.compose();
 		final List<T> values = new ArrayList<T>();
 
-		consumeEvent(new Consumer<Event<T>>() {
+		addHandler(new Signal.Handler<T>() {
 			@Override
-			public void accept(Event<T> value) {
+			public void accept(Event<?> origin, T value) {
 				synchronized(values) {
-					values.add(value.getData());
+					values.add(value);
 					if(values.size() % batchSize != 0) {
 						return;
 					}
-					d.acceptEvent(value.copy((List<T>)new ArrayList<T>(values)));
+					next.notifyValue(origin, (List<T>)new ArrayList<T>(values));
 					values.clear();
 				}
 			}
 		});
 
-		getObservable().on(getFlush().getT1(), new Consumer<Event<Void>>() {
-			@Override public void accept(Event<Void> ev) {
+		consumeFlush(new Signal.Handler<Void>() {
+			@Override public void accept(Event<?> origin, Void v) {
 				synchronized(values) {
 					if(values.isEmpty()) {
 						return;
@@ -266,6 +527,353 @@ public class Stream<T> extends Composable<T> {
 		return d.compose();
 	}
 
+	/**
+	 * Collect incoming values into a {@link List} that will be pushed into the returned {@code Stream} at the end of
+	 * every {@code period}. Windows are back to back and an empty window is not published. The {@link Environment}'s
+	 * root timer drives the windows.
+	 *
+	 * @param period
+	 * 		the length of each window
+	 * @param timeUnit
+	 * 		the unit of {@code period}
+	 *
+	 * @return a new {@code Stream} whose values are a {@link List} of all values in a window
+	 */
+	public Stream<List<T>> window(long period, TimeUnit timeUnit) {
+		return window(period, period, timeUnit);
+	}
+
+	/**
+	 * Collect incoming values into a sliding window of length {@code period} that is pushed into the returned {@code
+	 * Stream} every {@code shift}. When {@code shift} is shorter than {@code period} windows overlap and a value may
+	 * appear in several of them; when it is longer, values arriving between windows are dropped. An empty window is not
+	 * published. The {@link Environment}'s root timer drives the windows.
+	 *
+	 * @param period
+	 * 		the length of each window
+	 * @param shift
+	 * 		the amount of time between the start of one window and the next
+	 * @param timeUnit
+	 * 		the unit of {@code period} and {@code shift}
+	 *
+	 * @return a new {@code Stream} whose values are a {@link List} of all values in a window
+	 */
+	public Stream<List<T>> window(long period, long shift, TimeUnit timeUnit) {
+		Assert.isTrue(period > 0 && shift > 0, "Window period and shift must be greater than 0.");
+		final Deferred<List<T>, Stream<List<T>>> d = createDeferred(-1);
+		final Stream<List<T>> next = d.compose();
+		final long periodNanos = TimeUnit.NANOSECONDS.convert(period, timeUnit);
+		final long shiftNanos = TimeUnit.NANOSECONDS.convert(shift, timeUnit);
+
+		final class Window implements Signal.Handler<T>, Consumer<Long> {
+			private final ArrayDeque<Object[]> values = new ArrayDeque<Object[]>();
+
+			@Override
+			public void accept(Event<?> origin, T value) {
+				synchronized(values) {
+					values.add(new Object[]{System.nanoTime(), value});
+				}
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public void accept(Long now) {
+				List<T> window;
+				synchronized(values) {
+					// back-to-back windows publish everything since the last tick, however late the timer runs
+					if(periodNanos != shiftNanos) {
+						long start = System.nanoTime() - periodNanos;
+						while(!values.isEmpty() && (Long)values.peekFirst()[0] - start < 0) {
+							values.pollFirst();
+						}
+					}
+					if(values.isEmpty()) {
+						return;
+					}
+					window = new ArrayList<T>(values.size());
+					for(Object[] entry : values) {
+						window.add((T)entry[1]);
+					}
+					if(periodNanos <= shiftNanos) {
+						values.clear();
+					}
+				}
+				next.notifyValue(window);
+			}
+		}
+
+		Window window = new Window();
+		addHandler(window);
+		scheduleWhileReachable(window, shift, timeUnit);
+
+		return next;
+	}
+
+	/**
+	 * Collect incoming values into a {@link List} that will be pushed into the returned {@code Stream} as soon as it
+	 * holds {@code size} values or {@code timeout} milliseconds after its first value arrived, whichever comes first.
+	 * This bounds how long a value can wait in a partially filled batch. The {@link Environment}'s root timer drives the
+	 * deadlines.
+	 *
+	 * @param size
+	 * 		the maximum number of values in each batch
+	 * @param timeout
+	 * 		the maximum time in milliseconds a batch is held open
+	 *
+	 * @return a new {@code Stream} whose values are a {@link List} of the values in a batch
+	 */
+	public Stream<List<T>> bufferWithTimeout(int size, long timeout) {
+		return bufferWithTimeout(size, timeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Collect incoming values into a {@link List} that will be pushed into the returned {@code Stream} as soon as it
+	 * holds {@code size} values or {@code timeout} after its first value arrived, whichever comes first. This bounds
+	 * how long a value can wait in a partially filled batch. The {@link Environment}'s root timer drives the deadlines.
+	 *
+	 * @param size
+	 * 		the maximum number of values in each batch
+	 * @param timeout
+	 * 		the maximum time a batch is held open
+	 * @param timeUnit
+	 * 		the unit of {@code timeout}
+	 *
+	 * @return a new {@code Stream} whose values are a {@link List} of the values in a batch
+	 */
+	public Stream<List<T>> bufferWithTimeout(final int size, final long timeout, final TimeUnit timeUnit) {
+		Assert.isTrue(size > 0, "Buffer size must be greater than 0.");
+		Assert.isTrue(timeout > 0, "Buffer timeout must be greater than 0.");
+		final Deferred<List<T>, Stream<List<T>>> d = createDeferred(-1);
+		final Stream<List<T>> next = d.compose();
+
+		final TimeoutBatch<T> batch = new TimeoutBatch<T>(next, size, timeout, timeUnit, getTimer());
+		addHandler(batch);
+		consumeFlush(new Signal.Handler<Void>() {
+			@Override
+			public void accept(Event<?> origin, Void v) {
+				batch.accept(null);
+			}
+		});
+
+		return next;
+	}
+
+	/**
+	 * Split this {@code Stream} into one {@link GroupedStream} per key. The first time a key is seen, a new {@link
+	 * GroupedStream} for it is published on the returned {@code Stream}, before the value itself is passed in, so
+	 * consumers can attach to it and aggregate that key alone. Groups are unbounded, since a batch of this {@code
+	 * Stream} spans every key.
+	 *
+	 * @param keyFn
+	 * 		the function to extract the key of each value
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return a new {@code Stream} whose values are the per-key {@link GroupedStream GroupedStreams}
+	 */
+	public <K> Stream<GroupedStream<K, T>> groupBy(@Nonnull Function<T, K> keyFn) {
+		return groupBy(keyFn, -1, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Split this {@code Stream} into one {@link GroupedStream} per key. The first time a key is seen, a new {@link
+	 * GroupedStream} for it is published on the returned {@code Stream}, before the value itself is passed in, so
+	 * consumers can attach to it and aggregate that key alone.
+	 * <p/>
+	 * A group that receives no values for {@code idleTimeout} is evicted so that short-lived keys don't accumulate. An
+	 * evicted group is {@link #flush() flushed} and receives no further values; if its key is seen again, a new {@link
+	 * GroupedStream} is published. Eviction is checked on the {@link Environment}'s root timer, so a group may live for
+	 * up to twice {@code idleTimeout} after its last value.
+	 *
+	 * @param keyFn
+	 * 		the function to extract the key of each value
+	 * @param idleTimeout
+	 * 		how long a group may go without values before it is evicted, or {@code -1} to never evict
+	 * @param timeUnit
+	 * 		the unit of {@code idleTimeout}
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return a new {@code Stream} whose values are the per-key {@link GroupedStream GroupedStreams}
+	 */
+	public <K> Stream<GroupedStream<K, T>> groupBy(@Nonnull final Function<T, K> keyFn,
+	                                               long idleTimeout,
+	                                               TimeUnit timeUnit) {
+		Assert.notNull(keyFn, "Key function cannot be null.");
+		final Deferred<GroupedStream<K, T>, Stream<GroupedStream<K, T>>> d = createDeferred(-1);
+		final Stream<GroupedStream<K, T>> next = d.compose();
+		final ConcurrentHashMap<Object, GroupedStream<K, T>> groups = new ConcurrentHashMap<Object, GroupedStream<K, T>>();
+		final Object nullKey = new Object();
+
+		final class Groups implements Signal.Handler<T>, Consumer<Long> {
+			@Override
+			public void accept(Event<?> origin, T value) {
+				K key = keyFn.apply(value);
+				Object mapKey = (null == key ? nullKey : key);
+				for(; ; ) {
+					GroupedStream<K, T> group = groups.get(mapKey);
+					if(null == group) {
+						GroupedStream<K, T> created = new GroupedStream<K, T>(key,
+						                                                      SynchronousDispatcher.INSTANCE,
+						                                                      environment,
+						                                                      -1,
+						                                                      Stream.this);
+						group = groups.putIfAbsent(mapKey, created);
+						if(null == group) {
+							group = created;
+							next.notifyValue(origin, group);
+						}
+					}
+					if(group.touch()) {
+						group.notifyValue(origin, value);
+						return;
+					}
+					// evicted between the lookup and the touch, so the value starts a new group
+					groups.remove(mapKey, group);
+				}
+			}
+
+			@Override
+			public void accept(Long now) {
+				for(Map.Entry<Object, GroupedStream<K, T>> entry : groups.entrySet()) {
+					GroupedStream<K, T> group = entry.getValue();
+					if(group.evictIfIdle()) {
+						groups.remove(entry.getKey(), group);
+						// a batch boundary tells the group's consumers that it won't receive any more values
+						group.flush();
+					}
+				}
+			}
+		}
+
+		Groups handler = new Groups();
+		addHandler(handler);
+		if(idleTimeout > 0) {
+			scheduleWhileReachable(handler, idleTimeout, timeUnit);
+		}
+
+		return next;
+	}
+
+	/**
+	 * Count the values passing through this {@code Stream} per key. The counts are published as a {@link Map} at the
+	 * end of each batch, if a {@code batchSize} is set, and whenever this {@code Stream} is {@link #flush() flushed},
+	 * after which counting starts over.
+	 *
+	 * @param keyFn
+	 * 		the function to extract the key of each value
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return a new {@code Stream} whose values are the counts per key
+	 */
+	public <K> Stream<Map<K, Long>> countByKey(@Nonnull Function<T, K> keyFn) {
+		return sumByKey(keyFn, null, -1, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Sum a {@code long} extracted from each value passing through this {@code Stream} per key. The sums are published
+	 * as a {@link Map} at the end of each batch, if a {@code batchSize} is set, and whenever this {@code Stream} is
+	 * {@link #flush() flushed}, after which summing starts over.
+	 *
+	 * @param keyFn
+	 * 		the function to extract the key of each value
+	 * @param valueFn
+	 * 		the function to extract the amount to add for each value
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return a new {@code Stream} whose values are the sums per key
+	 */
+	public <K> Stream<Map<K, Long>> sumByKey(@Nonnull Function<T, K> keyFn, @Nonnull ToLongFunction<T> valueFn) {
+		return sumByKey(keyFn, valueFn, -1, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Sum a {@code long} extracted from each value passing through this {@code Stream} per key. The sums are published
+	 * as a {@link Map} every {@code period}, at the end of each batch, if a {@code batchSize} is set, and whenever this
+	 * {@code Stream} is {@link #flush() flushed}, after which summing starts over. Empty windows are not published.
+	 * <p/>
+	 * Running totals are kept in an open-addressed map of primitive {@code long} values, so nothing is allocated per
+	 * value for keys that have already been seen in the current window.
+	 *
+	 * @param keyFn
+	 * 		the function to extract the key of each value
+	 * @param valueFn
+	 * 		the function to extract the amount to add for each value, or {@code null} to count values
+	 * @param period
+	 * 		the length of each window, or {@code -1} to only publish on batch boundaries and flushes
+	 * @param timeUnit
+	 * 		the unit of {@code period}
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return a new {@code Stream} whose values are the sums per key
+	 */
+	public <K> Stream<Map<K, Long>> sumByKey(@Nonnull final Function<T, K> keyFn,
+	                                         @Nullable final ToLongFunction<T> valueFn,
+	                                         long period,
+	                                         TimeUnit timeUnit) {
+		Assert.notNull(keyFn, "Key function cannot be null.");
+		final Deferred<Map<K, Long>, Stream<Map<K, Long>>> d = createDeferred(-1);
+		final Stream<Map<K, Long>> next = d.compose();
+		final ObjectLongHashMap<K> totals = new ObjectLongHashMap<K>(16);
+
+		final class Window implements Signal.Handler<T>, Consumer<Long> {
+			private long count;
+
+			@Override
+			public void accept(Event<?> origin, T value) {
+				K key = keyFn.apply(value);
+				long delta = (null != valueFn ? valueFn.apply(value) : 1l);
+				Map<K, Long> batch = null;
+				synchronized(totals) {
+					totals.add(key, delta);
+					if(isBatch() && ++count % batchSize == 0) {
+						batch = close();
+					}
+				}
+				if(null != batch) {
+					next.notifyValue(origin, batch);
+				}
+			}
+
+			@Override
+			public void accept(Long now) {
+				Map<K, Long> window;
+				synchronized(totals) {
+					window = close();
+				}
+				if(null != window) {
+					next.notifyValue(window);
+				}
+			}
+
+			private Map<K, Long> close() {
+				if(totals.isEmpty()) {
+					return null;
+				}
+				Map<K, Long> window = totals.toMap();
+				totals.clear();
+				return window;
+			}
+		}
+
+		final Window window = new Window();
+		addHandler(window);
+		consumeFlush(new Signal.Handler<Void>() {
+			@Override
+			public void accept(Event<?> origin, Void v) {
+				window.accept((Long)null);
+			}
+		});
+		if(period > 0) {
+			scheduleWhileReachable(window, period, timeUnit);
+		}
+
+		return next;
+	}
+
 	/**
 	 * Reduce the values passing through this {@code Stream} into an object {@code A}. The given initial object will be
 	 * passed to the function's {@link Tuple2} argument.
@@ -305,27 +913,28 @@ public class Stream<T> extends Composable<T> {
 	 */
 	public <A> Stream<A> reduce(@Nonnull final Function<Tuple2<T, A>, A> fn, @Nullable final Supplier<A> accumulators) {
 		final Deferred<A, Stream<A>> d = createDeferred();
+		final Stream<A> next = d.compose();
 
-		consumeEvent(new Consumer<Event<T>>() {
+		addHandler(new Signal.Handler<T>() {
 			private final AtomicLong count = new AtomicLong(0);
 			private A acc;
 
 			@Override
-			public void accept(Event<T> value) {
+			public void accept(Event<?> origin, T value) {
 				if(null == acc) {
 					acc = (null != accumulators ? accumulators.get() : null);
 				}
-				acc = fn.apply(Tuple.of(value.getData(), acc));
+				acc = fn.apply(Tuple.of(value, acc));
 
 				if(isBatch() && count.incrementAndGet() % batchSize == 0) {
-					d.acceptEvent(value.copy(acc));
+					next.notifyValue(origin, acc);
 				} else if(!isBatch()) {
-					d.acceptEvent(value.copy(acc));
+					next.notifyValue(origin, acc);
 				}
 			}
 		});
 
-		return d.compose();
+		return next;
 	}
 
 	/**
@@ -342,6 +951,134 @@ public class Stream<T> extends Composable<T> {
 		return reduce(fn, (Supplier<A>)null);
 	}
 
+	/**
+	 * Reduce the values passing through this {@code Stream} into an object {@code A} using a two-argument {@link
+	 * BiFunction}, which is passed the accumulator and the value directly instead of through a {@link Tuple2}. The given
+	 * initial object is the accumulator passed to the first call.
+	 *
+	 * @param fn
+	 * 		the reduce function
+	 * @param initial
+	 * 		the initial accumulator
+	 * @param <A>
+	 * 		the type of the reduced object
+	 *
+	 * @return a new {@code Stream} whose values contain only the reduced objects
+	 *
+	 * @see #reduce(BiFunction, Supplier)
+	 */
+	public <A> Stream<A> reduce(@Nonnull BiFunction<A, ? super T, A> fn, A initial) {
+		return reduce(fn, Functions.supplier(initial));
+	}
+
+	/**
+	 * Reduce the values passing through this {@code Stream} into an object {@code A} using a two-argument {@link
+	 * BiFunction}, which is passed the accumulator and the value directly instead of through a {@link Tuple2}.
+	 * <p/>
+	 * Values are published as by {@link #reduce(Function, Supplier)}: every time a value is accepted in an unbounded
+	 * {@code Stream}, or at the end of each batch when a {@code batchSize} is set. In the latter case a partially filled
+	 * batch is also published when this {@code Stream} is {@link #flush() flushed}, and the {@link Supplier} is asked for
+	 * a new accumulator for the next batch.
+	 *
+	 * @param fn
+	 * 		the reduce function
+	 * @param accumulators
+	 * 		the {@link Supplier} that will provide accumulators
+	 * @param <A>
+	 * 		the type of the reduced object
+	 *
+	 * @return a new {@code Stream} whose values contain only the reduced objects
+	 *
+	 * @see #aggregate(BiFunction, Supplier)
+	 */
+	public <A> Stream<A> reduce(@Nonnull BiFunction<A, ? super T, A> fn, @Nullable Supplier<A> accumulators) {
+		return reduce(fn, accumulators, !isBatch());
+	}
+
+	/**
+	 * Reduce the values passing through this {@code Stream} into an object {@code A} like {@link #reduce(BiFunction,
+	 * Supplier)}, but never publish on every value: the accumulator is published only at the end of each batch, when a
+	 * {@code batchSize} is set, and when this {@code Stream} is {@link #flush() flushed}. After each publication the
+	 * {@link Supplier} is asked for a new accumulator. A long-running aggregation whose function updates a mutable
+	 * accumulator in place therefore creates no garbage per value.
+	 *
+	 * @param fn
+	 * 		the reduce function
+	 * @param accumulators
+	 * 		the {@link Supplier} that will provide accumulators
+	 * @param <A>
+	 * 		the type of the reduced object
+	 *
+	 * @return a new {@code Stream} whose values are the accumulators of each batch or flush
+	 */
+	public <A> Stream<A> aggregate(@Nonnull BiFunction<A, ? super T, A> fn, @Nullable Supplier<A> accumulators) {
+		return reduce(fn, accumulators, false);
+	}
+
+	private <A> Stream<A> reduce(final BiFunction<A, ? super T, A> fn,
+	                             final Supplier<A> accumulators,
+	                             final boolean publishEachValue) {
+		Assert.notNull(fn, "Reduce function cannot be null.");
+		final Deferred<A, Stream<A>> d = createDeferred();
+		final Stream<A> next = d.compose();
+
+		final class Reducer implements Signal.Handler<T> {
+			private boolean empty = true;
+			private long    count;
+			private A       acc;
+
+			@Override
+			public void accept(Event<?> origin, T value) {
+				A result;
+				synchronized(this) {
+					if(empty) {
+						acc = (null != accumulators ? accumulators.get() : null);
+						empty = false;
+					}
+					acc = fn.apply(acc, value);
+					if(publishEachValue) {
+						result = acc;
+					} else if(isBatch() && ++count % batchSize == 0) {
+						result = close();
+					} else {
+						return;
+					}
+				}
+				next.notifyValue(origin, result);
+			}
+
+			void flush() {
+				A result;
+				synchronized(this) {
+					if(publishEachValue || empty) {
+						return;
+					}
+					result = close();
+				}
+				next.notifyValue(null, result);
+			}
+
+			private A close() {
+				A result = acc;
+				acc = null;
+				count = 0;
+				empty = true;
+				return result;
+			}
+		}
+
+		final Reducer reducer = new Reducer();
+		addHandler(reducer);
+		consumeFlush(new Signal.Handler<Void>() {
+			@Override
+			public void accept(Event<?> origin, Void v) {
+				reducer.flush();
+			}
+		});
+
+		return next;
+	}
+
 	@Override
 	protected <V, C extends Composable<V>> Deferred<V, C> createDeferred() {
 		return createDeferred(batchSize);
@@ -352,12 +1089,30 @@ public class Stream<T> extends Composable<T> {
 		return (Deferred<V, C>)createDeferredChildStream(batchSize);
 	}
 
+	private HashWheelTimer getTimer() {
+		Assert.state(null != environment, "Time-based operators require a Stream created with an Environment.");
+		return environment.getRootTimer();
+	}
+
+	/**
+	 * Run the given task every {@code period} on the {@link Environment}'s root timer for as long as the operator
+	 * it belongs to is in use. The timer only holds the task weakly, through a {@link ReachableTask}, so the task has to
+	 * be kept reachable by the handler that feeds the operator. Once this {@code Stream} and the operator's {@code
+	 * Stream} are no longer referenced, the task is collected and its timer registration cancelled, rather than the
+	 * timer keeping them, and any values they buffer, alive for the life of the {@link Environment}.
+	 */
+	private void scheduleWhileReachable(Consumer<Long> task, long period, TimeUnit timeUnit) {
+		ReachableTask reachable = new ReachableTask(task);
+		reachable.registration = getTimer().schedule(reachable, period, timeUnit, period, timeUnit);
+	}
+
 	private Deferred<T, Stream<T>> createDeferredChildStream() {
 		return createDeferredChildStream(-1);
 	}
 
 	private Deferred<T, Stream<T>> createDeferredChildStream(int batchSize) {
-		return new Deferred<T, Stream<T>>(new Stream<T>(new SynchronousDispatcher(),
+		return new Deferred<T, Stream<T>>(new Stream<T>(SynchronousDispatcher.INSTANCE,
+		                                                environment,
 		                                                batchSize,
 		                                                null,
 		                                                this));
@@ -372,11 +1127,161 @@ public class Stream<T> extends Composable<T> {
 		if(!isBatch()) {
 			return;
 		}
-		long accepted = getAcceptCount() % batchSize;
+		// each value claims its own position in the batch, so concurrent producers agree on which value opens and which
+		// closes a batch without sharing a lock
+		long accepted = batchSequence.incrementAndGet() % batchSize;
 		if(accepted == 1) {
-			getObservable().notify(first.getT2(), Event.wrap(value));
+			dispatch(null, value, first);
 		} else if(accepted == 0) {
-			getObservable().notify(last.getT2(), Event.wrap(value));
+			dispatch(null, value, last);
+		}
+	}
+
+	/**
+	 * Passes the initial {@code values} into this {@code Stream} on {@link #flush()}. Until demand is requested they are
+	 * all pushed at once, otherwise each flush starts a new pass over the values that only advances as far as the
+	 * outstanding demand allows.
+	 */
+	private final class ValuesDrain extends DemandDrain implements Signal.Handler<Void>, Consumer<Long> {
+
+		private volatile Iterator<T> pending;
+
+		@Override
+		public void accept(Event<?> origin, Void v) {
+			if(!isDemandDriven()) {
+				for(T val : values) {
+					notifyValue(val);
+				}
+				return;
+			}
+			pending = values.iterator();
+			drain();
+		}
+
+		@Override
+		public void accept(Long n) {
+			add(n);
+		}
+
+		@Override
+		protected boolean hasNext() {
+			Iterator<T> it = pending;
+			return null != it && it.hasNext();
+		}
+
+		@Override
+		protected void emitNext() {
+			notifyValue(pending.next());
+		}
+	}
+
+	/**
+	 * A repeating timer task that only holds the task it runs weakly, and cancels itself once that task has been
+	 * collected.
+	 */
+	private static final class ReachableTask implements Consumer<Long> {
+		private final    WeakReference<Consumer<Long>>           task;
+		private volatile Registration<? extends Consumer<Long>> registration;
+
+		private ReachableTask(Consumer<Long> task) {
+			this.task = new WeakReference<Consumer<Long>>(task);
+		}
+
+		@Override
+		public void accept(Long now) {
+			Consumer<Long> task = this.task.get();
+			if(null != task) {
+				task.accept(now);
+			} else if(null != registration) {
+				registration.cancel();
+			}
+		}
+	}
+
+	/**
+	 * The open batch of a {@link #bufferWithTimeout(int, long, TimeUnit)} {@code Stream}. Each batch gets its own {@link
+	 * Deadline}, so a deadline that fires just as its batch is closed by size, and then waits for the lock, can't close
+	 * the batch that follows before that batch's own timeout.
+	 */
+	static final class TimeoutBatch<T> implements Signal.Handler<T>, Consumer<Long> {
+		private final Stream<List<T>> next;
+		private final int             size;
+		private final long            timeout;
+		private final TimeUnit        timeUnit;
+		private final HashWheelTimer  timer;
+		private       List<T>         values;
+		Deadline deadline;
+
+		TimeoutBatch(Stream<List<T>> next, int size, long timeout, TimeUnit timeUnit, HashWheelTimer timer) {
+			this.next = next;
+			this.size = size;
+			this.timeout = timeout;
+			this.timeUnit = timeUnit;
+			this.timer = timer;
+			this.values = new ArrayList<T>(size);
+		}
+
+		@Override
+		public void accept(Event<?> origin, T value) {
+			List<T> full = null;
+			synchronized(this) {
+				values.add(value);
+				if(values.size() == 1) {
+					deadline = new Deadline();
+					deadline.registration = timer.submit(deadline, timeout, timeUnit);
+				}
+				if(values.size() >= size) {
+					full = close();
+				}
+			}
+			if(null != full) {
+				next.notifyValue(origin, full);
+			}
+		}
+
+		/**
+		 * Publish whatever the open batch holds, as on a flush.
+		 */
+		@Override
+		public void accept(Long now) {
+			List<T> partial;
+			synchronized(this) {
+				partial = close();
+			}
+			if(null != partial) {
+				next.notifyValue(partial);
+			}
+		}
+
+		private List<T> close() {
+			if(values.isEmpty()) {
+				return null;
+			}
+			if(null != deadline) {
+				deadline.registration.cancel();
+				deadline = null;
+			}
+			List<T> batch = values;
+			values = new ArrayList<T>(size);
+			return batch;
+		}
+
+		final class Deadline implements Consumer<Long> {
+			private Registration<? extends Consumer<Long>> registration;
+
+			@Override
+			public void accept(Long now) {
+				List<T> partial = null;
+				synchronized(TimeoutBatch.this) {
+					// only the deadline of the batch that is still open may close it
+					if(deadline == this) {
+						partial = close();
+					}
+				}
+				if(null != partial) {
+					next.notifyValue(partial);
+				}
+			}
 		}
 	}
 
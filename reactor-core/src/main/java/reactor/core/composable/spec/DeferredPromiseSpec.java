@@ -21,6 +21,9 @@ import reactor.core.composable.Deferred;
 import reactor.core.composable.Promise;
 import reactor.core.spec.support.DispatcherComponentSpec;
 import reactor.event.dispatch.Dispatcher;
+import reactor.util.Assert;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * A helper class for specifying a {@link Deferred} {@link Promise}.
@@ -32,6 +35,8 @@ import reactor.event.dispatch.Dispatcher;
 public final class DeferredPromiseSpec<T> extends DispatcherComponentSpec<DeferredPromiseSpec<T>, Deferred<T, Promise<T>>> {
 
 	private Composable<?> parent;
+	private long          timeout = -1;
+	private TimeUnit      timeUnit;
 
 	/**
 	 * Configures the promise to have the given {@code parent}
@@ -45,8 +50,30 @@ public final class DeferredPromiseSpec<T> extends DispatcherComponentSpec<Deferr
 		return this;
 	}
 
+	/**
+	 * Configures the promise to fail with a {@link java.util.concurrent.TimeoutException} if it has not completed
+	 * within the given time. Requires an {@link Environment}, whose root timer drives the timeout.
+	 *
+	 * @param timeout The time to wait for completion
+	 * @param unit    The {@link TimeUnit} of the timeout value
+	 *
+	 * @return {@code this}
+	 *
+	 * @see Promise#timeout(long, TimeUnit)
+	 */
+	public DeferredPromiseSpec<T> timeout(long timeout, TimeUnit unit) {
+		Assert.isTrue(timeout >= 0, "Timeout must be positive.");
+		this.timeout = timeout;
+		this.timeUnit = unit;
+		return this;
+	}
+
 	@Override
 	protected Deferred<T, Promise<T>> configure(Dispatcher dispatcher, Environment env) {
-		return new Deferred<T, Promise<T>>(new Promise<T>(dispatcher, env, parent));
+		Promise<T> promise = new Promise<T>(dispatcher, env, parent);
+		if (timeout >= 0) {
+			promise.timeout(timeout, timeUnit);
+		}
+		return new Deferred<T, Promise<T>>(promise);
 	}
 }
@@ -75,7 +75,7 @@ public final class DeferredStreamSpec<T> extends DispatcherComponentSpec<Deferre
 
 	@Override
 	protected Deferred<T, Stream<T>> configure(Dispatcher dispatcher, Environment env) {
-		return new Deferred<T, Stream<T>>(new Stream<T>(dispatcher, batchSize, values, parent));
+		return new Deferred<T, Stream<T>>(new Stream<T>(dispatcher, env, batchSize, values, parent));
 	}
 
 }
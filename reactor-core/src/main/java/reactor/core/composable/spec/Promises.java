@@ -18,13 +18,16 @@ package reactor.core.composable.spec;
 
 import reactor.core.composable.Deferred;
 import reactor.core.composable.Promise;
-import reactor.core.composable.Stream;
+import reactor.function.Consumer;
 import reactor.function.Supplier;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Helper methods for creating {@link Deferred} instances, backed by a {@link Promise}.
@@ -106,34 +109,31 @@ public abstract class Promises {
 
 	/**
 	 * Aggregate given promises into a new a {@literal Promise} that will be fulfilled when all of the given {@literal
-	 * Promise Promises} have been fulfilled.
+	 * Promise Promises} have been fulfilled. The values are listed in the order of the given promises, whatever order they
+	 * complete in. The aggregate is rejected as soon as any of the given promises is rejected, without waiting for the
+	 * others, and is fulfilled with an empty list if there are no promises to wait for.
 	 *
 	 * @param promises The promises to use.
 	 * @param <T>      The type of the function result.
 	 * @return a {@link DeferredPromiseSpec}.
 	 */
 	public static <T> Promise<List<T>> when(Collection<? extends Promise<T>> promises) {
-		Stream<T> deferredStream = new DeferredStreamSpec<T>()
+		Deferred<List<T>, Promise<List<T>>> deferred = new DeferredPromiseSpec<List<T>>()
 				.synchronousDispatcher()
-				.batchSize(promises.size())
-				.get()
-				.compose();
+				.get();
 
-		Stream<List<T>> aggregatedStream = deferredStream.collect();
-
-		Promise<List<T>> resultPromise = new DeferredPromiseSpec<List<T>>()
-				.synchronousDispatcher()
-				.link(aggregatedStream)
-				.get()
-				.compose();
-
-		aggregatedStream.consume(resultPromise);
+		if (promises.isEmpty()) {
+			deferred.accept(Collections.<T>emptyList());
+			return deferred.compose();
+		}
 
+		AllOf<T> allOf = new AllOf<T>(deferred, promises.size());
+		int index = 0;
 		for (Promise<T> promise : promises) {
-			promise.consume(deferredStream);
+			promise.onComplete(allOf.new Slot(index++));
 		}
 
-		return resultPromise;
+		return deferred.compose();
 	}
 
 
@@ -168,27 +168,16 @@ public abstract class Promises {
 	 * @return a {@link DeferredStreamSpec}.
 	 */
 	public static <T> Promise<T> any(Collection<? extends Promise<T>> promises) {
-		Stream<T> deferredStream = new DeferredStreamSpec<T>()
-				.synchronousDispatcher()
-				.batchSize(promises.size())
-				.get()
-				.compose();
-
-		Stream<T> firstStream = deferredStream.first();
-
-		Promise<T> resultPromise = new DeferredPromiseSpec<T>()
+		Deferred<T, Promise<T>> deferred = new DeferredPromiseSpec<T>()
 				.synchronousDispatcher()
-				.link(firstStream)
-				.get()
-				.compose();
-
-		firstStream.consume(resultPromise);
+				.get();
 
+		AnyOf<T> anyOf = new AnyOf<T>(deferred);
 		for (Promise<T> promise : promises) {
-			promise.consume(deferredStream);
+			promise.onComplete(anyOf);
 		}
 
-		return resultPromise;
+		return deferred.compose();
 	}
 
 	private static <T> List<Promise<T>> deferredToPromises(Deferred<T, Promise<T>>... promises) {
@@ -199,4 +188,73 @@ public abstract class Promises {
 		return promiseList;
 	}
 
+	/**
+	 * Joins a fixed number of promises: each value is stored in its slot of a preallocated array and a single countdown
+	 * tells the last one to arrive to fulfill the aggregate. The first rejection wins the {@code done} flag and rejects
+	 * the aggregate straight away; anything completing afterwards is ignored.
+	 */
+	private static final class AllOf<T> {
+		private final Deferred<List<T>, Promise<List<T>>> deferred;
+		private final Object[]                            values;
+		private final AtomicInteger                       remaining;
+		private final AtomicBoolean                       done = new AtomicBoolean();
+
+		private AllOf(Deferred<List<T>, Promise<List<T>>> deferred, int size) {
+			this.deferred = deferred;
+			this.values = new Object[size];
+			this.remaining = new AtomicInteger(size);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void complete(int index, Promise<T> promise) {
+			if (done.get()) {
+				return;
+			}
+			if (promise.isSuccess()) {
+				values[index] = promise.get();
+				if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+					deferred.accept((List<T>) Arrays.asList(values));
+				}
+			} else if (done.compareAndSet(false, true)) {
+				deferred.accept(promise.reason());
+			}
+		}
+
+		private final class Slot implements Consumer<Promise<T>> {
+			private final int index;
+
+			private Slot(int index) {
+				this.index = index;
+			}
+
+			@Override
+			public void accept(Promise<T> promise) {
+				complete(index, promise);
+			}
+		}
+	}
+
+	/**
+	 * Completes with the outcome of whichever promise completes first, value or error.
+	 */
+	private static final class AnyOf<T> implements Consumer<Promise<T>> {
+		private final Deferred<T, Promise<T>> deferred;
+		private final AtomicBoolean           done = new AtomicBoolean();
+
+		private AnyOf(Deferred<T, Promise<T>> deferred) {
+			this.deferred = deferred;
+		}
+
+		@Override
+		public void accept(Promise<T> promise) {
+			if (!done.get() && done.compareAndSet(false, true)) {
+				if (promise.isSuccess()) {
+					deferred.accept(promise.get());
+				} else {
+					deferred.accept(promise.reason());
+				}
+			}
+		}
+	}
+
 }
@@ -79,7 +79,7 @@ public final class StreamSpec<T> extends DispatcherComponentSpec<StreamSpec<T>,
 			throw new IllegalStateException("A bounded stream must be configured with some values. Use " +
 					DeferredStreamSpec.class.getSimpleName() + " to create a stream with no initial values");
 		}
-		return new Stream<T>(dispatcher, batchSize, values, parent);
+		return new Stream<T>(dispatcher, env, batchSize, values, parent);
 	}
 
 }
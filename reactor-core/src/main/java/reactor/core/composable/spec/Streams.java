@@ -16,12 +16,19 @@
 
 package reactor.core.composable.spec;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collection;
 
 import reactor.core.composable.Deferred;
+import reactor.core.composable.DoubleDeferred;
+import reactor.core.composable.DoubleStream;
+import reactor.core.composable.LongDeferred;
+import reactor.core.composable.LongStream;
 import reactor.core.composable.Stream;
 import reactor.event.dispatch.SynchronousDispatcher;
+import reactor.io.Buffer;
+import reactor.io.FileChunks;
 
 /**
  * A public factory to build {@link Stream Streams} that use a {@link SynchronousDispatcher}.
@@ -73,4 +80,76 @@ public abstract class Streams {
 		return new DeferredStreamSpec<T>().each(values).batchSize(batchSize);
 	}
 
+	/**
+	 * Build a deferred {@literal Stream} that will implicitly {@link Deferred#accept(Object)} the content of the given
+	 * file, as {@link Buffer#map(File, long, int) memory-mapped} {@link Buffer Buffers} of at most {@code chunkSize}
+	 * bytes, whenever the {@link reactor.core.composable.Stream#flush()} function is invoked. A chunk is only mapped
+	 * once it is about to be accepted, so once demand has been {@link reactor.core.composable.Stream#request(long)
+	 * requested} a file of any size is read only as fast as it is consumed, and never into the heap.
+	 *
+	 * @param file      The file to read
+	 * @param chunkSize The maximum size of the {@link Buffer Buffers}
+	 *
+	 * @return a {@link DeferredStreamSpec} based on the content of the file
+	 * @see FileChunks
+	 */
+	public static DeferredStreamSpec<Buffer> deferFile(File file, int chunkSize) {
+		return new DeferredStreamSpec<Buffer>().each(new FileChunks(file, chunkSize));
+	}
+
+	/**
+	 * Build a deferred {@literal Stream} of the content of the given file, like {@link #deferFile(File, int)}, but with
+	 * every {@link Buffer} ending just after the last {@code delimiter} it contains. Records such as lines are then never
+	 * split across two {@link Buffer Buffers}, so a decoder such as a {@code DelimitedCodec} sees only whole records.
+	 *
+	 * @param file      The file to read
+	 * @param chunkSize The maximum size of the {@link Buffer Buffers}
+	 * @param delimiter The delimiter each {@link Buffer} should end on
+	 *
+	 * @return a {@link DeferredStreamSpec} based on the content of the file
+	 */
+	public static DeferredStreamSpec<Buffer> deferFile(File file, int chunkSize, byte delimiter) {
+		return new DeferredStreamSpec<Buffer>().each(new FileChunks(file, chunkSize, delimiter));
+	}
+
+	/**
+	 * Build a deferred {@link LongStream}, ready to accept primitive {@code long} values.
+	 *
+	 * @return a new {@link LongDeferred}
+	 */
+	public static LongDeferred deferLong() {
+		return deferLong(-1);
+	}
+
+	/**
+	 * Build a deferred {@link LongStream} whose reducers publish once every {@code batchSize} values.
+	 *
+	 * @param batchSize The size of the batches, or {@code -1} for no batching
+	 *
+	 * @return a new {@link LongDeferred}
+	 */
+	public static LongDeferred deferLong(int batchSize) {
+		return new LongDeferred(new LongStream(batchSize, null));
+	}
+
+	/**
+	 * Build a deferred {@link DoubleStream}, ready to accept primitive {@code double} values.
+	 *
+	 * @return a new {@link DoubleDeferred}
+	 */
+	public static DoubleDeferred deferDouble() {
+		return deferDouble(-1);
+	}
+
+	/**
+	 * Build a deferred {@link DoubleStream} whose reducers publish once every {@code batchSize} values.
+	 *
+	 * @param batchSize The size of the batches, or {@code -1} for no batching
+	 *
+	 * @return a new {@link DoubleDeferred}
+	 */
+	public static DoubleDeferred deferDouble(int batchSize) {
+		return new DoubleDeferred(new DoubleStream(batchSize, null));
+	}
+
 }
@@ -28,6 +28,12 @@ import java.util.concurrent.TimeUnit;
  */
 public class SynchronousDispatcher extends BaseDispatcher {
 
+	/**
+	 * A shared instance. A {@code SynchronousDispatcher} holds no state, so components that only need to run work on the
+	 * calling thread can use this rather than creating a new one each time.
+	 */
+	public static final SynchronousDispatcher INSTANCE = new SynchronousDispatcher();
+
 	@Override
 	public boolean alive() {
 		return true;
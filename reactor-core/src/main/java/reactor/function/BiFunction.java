@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.function;
+
+/**
+ * Implementations of this class perform work on the two given parameters and return a result. Unlike a {@link
+ * Function} of a {@link reactor.tuple.Tuple2}, no object is needed to carry the parameters, so a reduce step can be
+ * performed without allocating.
+ *
+ * @param <T> The type of the first input to the apply operation
+ * @param <U> The type of the second input to the apply operation
+ * @param <R> The type of the result of the apply operation
+ */
+public interface BiFunction<T, U, R> {
+
+	/**
+	 * Execute the logic of the action, accepting the given parameters.
+	 *
+	 * @param t The first parameter to pass to the action.
+	 * @param u The second parameter to pass to the action.
+	 *
+	 * @return result
+	 */
+	R apply(T t, U u);
+
+}
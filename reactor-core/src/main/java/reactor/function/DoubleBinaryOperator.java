@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.function;
+
+/**
+ * Combines two primitive {@code double} values into one without boxing, as used to reduce a stream of values into an
+ * accumulator.
+ */
+public interface DoubleBinaryOperator {
+
+	/**
+	 * Combine the given values.
+	 *
+	 * @param left  The current accumulated value.
+	 * @param right The next value.
+	 *
+	 * @return result
+	 */
+	double apply(double left, double right);
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.function;
+
+/**
+ * Determines if a primitive {@code long} matches some criteria without boxing it.
+ */
+public interface LongPredicate {
+
+	/**
+	 * Returns {@literal true} if the given value matches the criteria.
+	 *
+	 * @param value The value to test.
+	 *
+	 * @return {@literal true} if the value matches, {@literal false} otherwise
+	 */
+	boolean test(long value);
+
+}
@@ -16,16 +16,22 @@
 
 package reactor.io;
 
+import reactor.function.Consumer;
 import reactor.function.Supplier;
 import reactor.util.Assert;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
@@ -40,6 +46,17 @@ import java.util.List;
  * A {@literal Buffer} is a general-purpose IO utility class that wraps a {@link ByteBuffer}. It provides optional
  * dynamic expansion of the buffer to accommodate additional content. It also provides convenience methods for operating
  * on buffers.
+ * <p>
+ * A dynamic {@literal Buffer} at least doubles its capacity each time it has to grow, so building up content of any
+ * size copies each byte only a constant number of times on average. Short-lived buffers, such as those codecs encode
+ * into, can be taken from a shared pool with {@link #allocate(int)} and handed back with {@link #release(Buffer)}.
+ * </p>
+ * <p>
+ * A {@literal Buffer} can also keep its content off the Java heap, in a direct {@link ByteBuffer}, either by wrapping
+ * one or by taking one from the pool with {@link #allocateDirect(int)}. Sockets and files read from and write to
+ * direct memory without first copying it to or from the heap, and large payloads held off-heap don't add to garbage
+ * collection pressure. A direct {@literal Buffer} stays direct when it grows.
+ * </p>
  *
  * @author Jon Brisbin
  */
@@ -65,13 +82,20 @@ public class Buffer implements Comparable<Buffer>,
 			System.getProperty("reactor.io.maxBufferSize", "" + 1024 * 1000 * 16)
 	);
 
-	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final Charset UTF8       = Charset.forName("UTF-8");
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+	private static final long    LOW_BYTES  = 0x0101010101010101L;
+	private static final long    LOW_7_BITS = 0x7F7F7F7F7F7F7F7FL;
+	private static final long    HIGH_BITS  = 0x8080808080808080L;
 	private final boolean        dynamic;
+	private       boolean        pooled;
+	private       int            headroom;
 	private       ByteBuffer     buffer;
 	private       CharsetDecoder decoder;
 	private       CharBuffer     chars;
 	private       int            position;
 	private       int            limit;
+	private       View           splitView;
 
 	/**
 	 * Create an empty {@literal Buffer} that is dynamic.
@@ -108,7 +132,7 @@ public class Buffer implements Comparable<Buffer>,
 	 */
 	public Buffer(Buffer bufferToCopy) {
 		this.dynamic = bufferToCopy.dynamic;
-		this.buffer = bufferToCopy.buffer.duplicate();
+		this.buffer = bufferToCopy.byteBuffer().duplicate();
 	}
 
 	/**
@@ -121,6 +145,103 @@ public class Buffer implements Comparable<Buffer>,
 		this.buffer = bufferToStartWith;
 	}
 
+	private Buffer(ByteBuffer pooledBuffer, int headroom) {
+		this.dynamic = true;
+		this.pooled = true;
+		this.headroom = headroom;
+		this.buffer = pooledBuffer;
+		this.buffer.position(headroom);
+	}
+
+	/**
+	 * Take a dynamic {@literal Buffer} with room for at least the given number of bytes from the shared pool. Its
+	 * capacity is rounded up to a power of two. Hand it back with {@link #release(Buffer)} once its content is no longer
+	 * needed; a pooled {@literal Buffer} that is never released is simply garbage collected.
+	 *
+	 * @param atLeast The number of bytes the new {@literal Buffer} must be able to hold without growing.
+	 * @return A {@literal Buffer} ready for writing.
+	 */
+	public static Buffer allocate(int atLeast) {
+		return allocate(atLeast, 0);
+	}
+
+	/**
+	 * Take a dynamic {@literal Buffer} from the shared pool, as {@link #allocate(int)} does, but with {@code headroom}
+	 * bytes kept free in front of its content. Content written to the {@literal Buffer} starts after the headroom and
+	 * {@link #flip()} leaves the position there, so a header of up to {@code headroom} bytes can later be {@link
+	 * #prepend(int) prepended} in place rather than by shifting the content along.
+	 *
+	 * @param atLeast  The number of bytes of content the new {@literal Buffer} must be able to hold without growing.
+	 * @param headroom The number of bytes to keep free in front of the content.
+	 * @return A {@literal Buffer} ready for writing.
+	 */
+	public static Buffer allocate(int atLeast, int headroom) {
+		Assert.isTrue(atLeast >= 0 && headroom >= 0, "Buffer sizes cannot be negative.");
+		return new Buffer(BufferPool.acquire(atLeast + headroom, false), headroom);
+	}
+
+	/**
+	 * Take a dynamic {@literal Buffer} backed by direct, off-heap memory with room for at least the given number of
+	 * bytes from the shared pool. Direct memory is only reclaimed once the garbage collector notices its owner is
+	 * unreachable, so a direct {@literal Buffer} should always be {@link #release(Buffer) released} when done with.
+	 *
+	 * @param atLeast The number of bytes the new {@literal Buffer} must be able to hold without growing.
+	 * @return A direct {@literal Buffer} ready for writing.
+	 * @see #allocate(int)
+	 */
+	public static Buffer allocateDirect(int atLeast) {
+		return allocateDirect(atLeast, 0);
+	}
+
+	/**
+	 * Take a dynamic, direct {@literal Buffer} from the shared pool with {@code headroom} bytes kept free in front of
+	 * its content.
+	 *
+	 * @param atLeast  The number of bytes of content the new {@literal Buffer} must be able to hold without growing.
+	 * @param headroom The number of bytes to keep free in front of the content.
+	 * @return A direct {@literal Buffer} ready for writing.
+	 * @see #allocate(int, int)
+	 */
+	public static Buffer allocateDirect(int atLeast, int headroom) {
+		Assert.isTrue(atLeast >= 0 && headroom >= 0, "Buffer sizes cannot be negative.");
+		return new Buffer(BufferPool.acquire(atLeast + headroom, true), headroom);
+	}
+
+	/**
+	 * Hand the storage of a {@literal Buffer} obtained from {@link #allocate(int)} back to the shared pool. The given
+	 * {@literal Buffer}, and any {@link #duplicate() duplicate} or {@link View} of it, must not be used afterwards.
+	 * Releasing {@code null}, a {@literal Buffer} that did not come from the pool, or one that has already been released
+	 * does nothing.
+	 *
+	 * @param buffer The {@literal Buffer} to release. May be {@code null}.
+	 */
+	public static void release(Buffer buffer) {
+		if (null != buffer) {
+			buffer.releaseStorage();
+		}
+	}
+
+	/**
+	 * Create a read-only {@literal Buffer} over the given region of a file, backed by a {@link MappedByteBuffer}. Nothing
+	 * is read into the heap: the operating system pages the file in as the content is read, and out again under memory
+	 * pressure. The mapping stays valid after the file is closed, until the {@literal Buffer} is garbage collected.
+	 *
+	 * @param file   The file to map.
+	 * @param offset The position in the file at which the region starts.
+	 * @param length The length of the region.
+	 * @return A new {@literal Buffer}, ready to be read from.
+	 * @throws IOException if the file cannot be opened or mapped
+	 * @see FileChunks
+	 */
+	public static Buffer map(File file, long offset, int length) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			return new Buffer(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, offset, length));
+		} finally {
+			raf.close();
+		}
+	}
+
 	/**
 	 * Convenience method to create a new, fixed-length {@literal Buffer} and putting the given byte array into the
 	 * buffer.
@@ -162,62 +283,63 @@ public class Buffer implements Comparable<Buffer>,
 
 	/**
 	 * Very efficient method for parsing an {@link Integer} from the given {@literal Buffer} range. Much faster than {@link
-	 * Integer#parseInt(String)}.
+	 * Integer#parseInt(String)}. The range is parsed as by {@link #parseInt(Buffer)}, so a malformed number throws rather
+	 * than returning a value.
 	 *
 	 * @param b     The {@literal Buffer} to slice.
 	 * @param start start of the range.
 	 * @param end   end of the range.
-	 * @return The int value or {@literal null} if the {@literal Buffer} could not be read.
+	 * @return The int value or {@literal null} if the range is empty.
+	 * @throws NumberFormatException if the range does not hold an optional sign followed by digits, or the number is
+	 *                               out of range for an {@code int}
+	 * @see #parseInt(int, int)
 	 */
 	public static Integer parseInt(Buffer b, int start, int end) {
-		b.snapshot();
+		int origPos = b.buffer.position();
+		int origLimit = b.buffer.limit();
 
 		b.buffer.limit(end);
 		b.buffer.position(start);
 
 		Integer i = parseInt(b);
 
-		b.reset();
+		b.buffer.limit(origLimit);
+		b.buffer.position(origPos);
 
 		return i;
 	}
 
 	/**
 	 * Very efficient method for parsing an {@link Integer} from the given {@literal Buffer}. Much faster than {@link
-	 * Integer#parseInt(String)}.
+	 * Integer#parseInt(String)}. The content must be an optional sign followed by decimal digits; earlier versions
+	 * returned a value for anything that wasn't empty, whereas a malformed or overflowing number is now reported with a
+	 * {@link NumberFormatException}, so callers that read untrusted input have to be prepared for it.
 	 *
 	 * @param b The {@literal Buffer} to slice.
-	 * @return The int value or {@literal null} if the {@literal Buffer} could not be read.
+	 * @return The int value or {@literal null} if the {@literal Buffer} is empty.
+	 * @throws NumberFormatException if the content is not an optional sign followed by digits, or the number is out of
+	 *                               range for an {@code int}
+	 * @see #parseInt(int, int)
 	 */
 	public static Integer parseInt(Buffer b) {
 		if (b.remaining() == 0) {
 			return null;
 		}
-
-		b.snapshot();
-		int len = b.remaining();
-
-		int num = 0;
-		int dec = 1;
-		for (int i = (b.position + len); i > b.position; ) {
-			char c = (char) b.buffer.get(--i);
-			num += Character.getNumericValue(c) * dec;
-			dec *= 10;
-		}
-
-		b.reset();
-
-		return num;
+		return b.parseInt(b.position(), b.limit());
 	}
 
 	/**
 	 * Very efficient method for parsing a {@link Long} from the given {@literal Buffer} range. Much faster than {@link
-	 * Long#parseLong(String)}.
+	 * Long#parseLong(String)}. The range is parsed as by {@link #parseLong(Buffer)}, so a malformed number throws rather
+	 * than returning a value.
 	 *
 	 * @param b     The {@literal Buffer} to slice.
 	 * @param start start of the range.
 	 * @param end   end of the range.
-	 * @return The long value or {@literal null} if the {@literal Buffer} could not be read.
+	 * @return The long value or {@literal null} if the range is empty.
+	 * @throws NumberFormatException if the range does not hold an optional sign followed by digits, or the number is
+	 *                               out of range for a {@code long}
+	 * @see #parseLong(int, int)
 	 */
 	public static Long parseLong(Buffer b, int start, int end) {
 		int origPos = b.buffer.position();
@@ -236,30 +358,85 @@ public class Buffer implements Comparable<Buffer>,
 
 	/**
 	 * Very efficient method for parsing a {@link Long} from the given {@literal Buffer}. Much faster than {@link
-	 * Long#parseLong(String)}.
+	 * Long#parseLong(String)}. The content must be an optional sign followed by decimal digits; earlier versions
+	 * returned a value for anything that wasn't empty, whereas a malformed or overflowing number is now reported with a
+	 * {@link NumberFormatException}, so callers that read untrusted input have to be prepared for it.
 	 *
 	 * @param b The {@literal Buffer} to slice.
-	 * @return The long value or {@literal null} if the {@literal Buffer} could not be read.
+	 * @return The long value or {@literal null} if the {@literal Buffer} is empty.
+	 * @throws NumberFormatException if the content is not an optional sign followed by digits, or the number is out of
+	 *                               range for a {@code long}
+	 * @see #parseLong(int, int)
 	 */
 	public static Long parseLong(Buffer b) {
 		if (b.remaining() == 0) {
 			return null;
 		}
-		ByteBuffer bb = b.buffer;
-		int origPos = bb.position();
-		int len = bb.remaining();
+		return b.parseLong(b.position(), b.limit());
+	}
 
-		long num = 0;
-		int dec = 1;
-		for (int i = len; i > 0; ) {
-			char c = (char) bb.get(--i);
-			num += Character.getNumericValue(c) * dec;
-			dec *= 10;
+	/**
+	 * Parse the decimal {@code int} in the given range of this buffer without creating any garbage, and without moving
+	 * the position. The range must lie within the limit.
+	 *
+	 * @param start start of the range.
+	 * @param end   end of the range.
+	 * @return The int value.
+	 * @throws NumberFormatException if the range does not hold an optional sign followed by digits, or the number is
+	 *                               out of range for an {@code int}
+	 * @see #parseInt(Buffer)
+	 */
+	public int parseInt(int start, int end) {
+		long l = parseLong(start, end);
+		if (l < Integer.MIN_VALUE || l > Integer.MAX_VALUE) {
+			throw new NumberFormatException("Number out of range for an int: " + l);
 		}
+		return (int) l;
+	}
 
-		bb.position(origPos);
+	/**
+	 * Parse the decimal {@code long} in the given range of this buffer without creating any garbage, and without moving
+	 * the position. The range must lie within the limit.
+	 *
+	 * @param start start of the range.
+	 * @param end   end of the range.
+	 * @return The long value.
+	 * @throws NumberFormatException if the range does not hold an optional sign followed by digits, or the number is
+	 *                               out of range for a {@code long}
+	 * @see #parseLong(Buffer)
+	 */
+	public long parseLong(int start, int end) {
+		if (start >= end) {
+			throw new NumberFormatException("No number between " + start + " and " + end);
+		}
+		int i = start;
+		byte first = buffer.get(i);
+		boolean negative = (first == '-');
+		if (negative || first == '+') {
+			if (++i == end) {
+				throw new NumberFormatException("No digits after the sign at " + start);
+			}
+		}
 
-		return num;
+		// accumulate negatively, as Long.parseLong does, so that Long.MIN_VALUE can be parsed
+		long min = (negative ? Long.MIN_VALUE : -Long.MAX_VALUE);
+		long multMin = min / 10;
+		long result = 0;
+		for (; i < end; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("Not a digit at " + i);
+			}
+			if (result < multMin) {
+				throw new NumberFormatException("Number out of range for a long between " + start + " and " + end);
+			}
+			result *= 10;
+			if (result < min + digit) {
+				throw new NumberFormatException("Number out of range for a long between " + start + " and " + end);
+			}
+			result -= digit;
+		}
+		return (negative ? result : -result);
 	}
 
 	/**
@@ -271,6 +448,25 @@ public class Buffer implements Comparable<Buffer>,
 		return dynamic;
 	}
 
+	/**
+	 * Whether the content of this {@literal Buffer} is kept in direct, off-heap memory.
+	 *
+	 * @return {@literal true} if this {@literal Buffer} is direct, {@literal false} otherwise.
+	 */
+	public boolean isDirect() {
+		return (null != buffer && buffer.isDirect());
+	}
+
+	/**
+	 * Whether this {@literal Buffer}'s storage came from the shared pool and has not yet been {@link #release(Buffer)
+	 * released}.
+	 *
+	 * @return {@literal true} if this {@literal Buffer} is pooled, {@literal false} otherwise.
+	 */
+	public boolean isPooled() {
+		return pooled;
+	}
+
 	/**
 	 * Provides the current position in the internal {@link ByteBuffer}.
 	 *
@@ -334,6 +530,20 @@ public class Buffer implements Comparable<Buffer>,
 		return (null == buffer ? 0 : buffer.limit());
 	}
 
+	/**
+	 * How many bytes can be {@link #prepend(byte[]) prepended} in front of the current position without shifting the
+	 * content, as reserved by {@link #allocate(int, int)}.
+	 *
+	 * @return The number of bytes of headroom available.
+	 */
+	public int headroom() {
+		if (null == buffer) {
+			return 0;
+		}
+		int pos = buffer.position();
+		return (pos <= headroom ? pos : 0);
+	}
+
 	/**
 	 * Provides the current capacity of the internal {@link ByteBuffer}.
 	 *
@@ -361,7 +571,7 @@ public class Buffer implements Comparable<Buffer>,
 	 */
 	public Buffer clear() {
 		if (null != buffer) {
-			buffer.position(0);
+			buffer.position(headroom);
 			buffer.limit(buffer.capacity());
 		}
 		return this;
@@ -375,6 +585,7 @@ public class Buffer implements Comparable<Buffer>,
 	public Buffer compact() {
 		if (null != buffer) {
 			buffer.compact();
+			headroom = 0;
 		}
 		return this;
 	}
@@ -387,6 +598,9 @@ public class Buffer implements Comparable<Buffer>,
 	public Buffer flip() {
 		if (null != buffer) {
 			buffer.flip();
+			if (headroom > 0) {
+				buffer.position(Math.min(headroom, buffer.limit()));
+			}
 		}
 		return this;
 	}
@@ -399,6 +613,9 @@ public class Buffer implements Comparable<Buffer>,
 	public Buffer rewind() {
 		if (null != buffer) {
 			buffer.rewind();
+			if (headroom > 0) {
+				buffer.position(Math.min(headroom, buffer.limit()));
+			}
 		}
 		return this;
 	}
@@ -456,7 +673,7 @@ public class Buffer implements Comparable<Buffer>,
 		if (null == b) {
 			return this;
 		}
-		return prepend(b.buffer);
+		return prepend(b.byteBuffer());
 	}
 
 	/**
@@ -479,6 +696,12 @@ public class Buffer implements Comparable<Buffer>,
 	 * @return {@literal this}
 	 */
 	public Buffer prepend(byte[] bytes) {
+		if (claimHeadroom(bytes.length)) {
+			int pos = buffer.position();
+			buffer.put(bytes);
+			buffer.position(pos);
+			return this;
+		}
 		shift(bytes.length);
 		buffer.put(bytes);
 		reset();
@@ -495,6 +718,12 @@ public class Buffer implements Comparable<Buffer>,
 		if (null == b) {
 			return this;
 		}
+		if (claimHeadroom(b.remaining())) {
+			int pos = buffer.position();
+			buffer.put(b);
+			buffer.position(pos);
+			return this;
+		}
 		shift(b.remaining());
 		this.buffer.put(b);
 		reset();
@@ -509,6 +738,10 @@ public class Buffer implements Comparable<Buffer>,
 	 * @return {@literal this}
 	 */
 	public Buffer prepend(byte b) {
+		if (claimHeadroom(1)) {
+			buffer.put(buffer.position(), b);
+			return this;
+		}
 		shift(1);
 		this.buffer.put(b);
 		reset();
@@ -522,6 +755,10 @@ public class Buffer implements Comparable<Buffer>,
 	 * @return {@literal this}
 	 */
 	public Buffer prepend(char c) {
+		if (claimHeadroom(2)) {
+			buffer.putChar(buffer.position(), c);
+			return this;
+		}
 		shift(2);
 		this.buffer.putChar(c);
 		reset();
@@ -535,6 +772,10 @@ public class Buffer implements Comparable<Buffer>,
 	 * @return {@literal this}
 	 */
 	public Buffer prepend(short s) {
+		if (claimHeadroom(2)) {
+			buffer.putShort(buffer.position(), s);
+			return this;
+		}
 		shift(2);
 		this.buffer.putShort(s);
 		reset();
@@ -548,6 +789,10 @@ public class Buffer implements Comparable<Buffer>,
 	 * @return {@literal this}
 	 */
 	public Buffer prepend(int i) {
+		if (claimHeadroom(4)) {
+			buffer.putInt(buffer.position(), i);
+			return this;
+		}
 		shift(4);
 		this.buffer.putInt(i);
 		reset();
@@ -561,6 +806,10 @@ public class Buffer implements Comparable<Buffer>,
 	 * @return {@literal this}
 	 */
 	public Buffer prepend(long l) {
+		if (claimHeadroom(8)) {
+			buffer.putLong(buffer.position(), l);
+			return this;
+		}
 		shift(8);
 		this.buffer.putLong(l);
 		reset();
@@ -579,6 +828,62 @@ public class Buffer implements Comparable<Buffer>,
 		return this;
 	}
 
+	/**
+	 * Append the given String to this {@literal Buffer} as ASCII, one byte per character, without creating an
+	 * intermediate {@code byte[]}. Characters outside of ASCII are appended as {@code '?'}.
+	 *
+	 * @param s The String to append.
+	 * @return {@literal this}
+	 */
+	public Buffer appendAscii(String s) {
+		int len = s.length();
+		ensureCapacity(len);
+		int pos = buffer.position();
+		for (int i = 0; i < len; i++) {
+			char c = s.charAt(i);
+			buffer.put(pos + i, (byte) (c < 0x80 ? c : '?'));
+		}
+		buffer.position(pos + len);
+		return this;
+	}
+
+	/**
+	 * Append the given {@code int} to this {@literal Buffer} as ASCII decimal digits, preceded by a {@code '-'} if it is
+	 * negative, without creating an intermediate String.
+	 *
+	 * @param i The {@code int} to append.
+	 * @return {@literal this}
+	 */
+	public Buffer appendDecimal(int i) {
+		return appendDecimal((long) i);
+	}
+
+	/**
+	 * Append the given {@code long} to this {@literal Buffer} as ASCII decimal digits, preceded by a {@code '-'} if it is
+	 * negative, without creating an intermediate String.
+	 *
+	 * @param l The {@code long} to append.
+	 * @return {@literal this}
+	 */
+	public Buffer appendDecimal(long l) {
+		// work with the negative value, which can hold Long.MIN_VALUE
+		long v = (l < 0 ? l : -l);
+		int len = decimalDigits(v) + (l < 0 ? 1 : 0);
+		ensureCapacity(len);
+		int pos = buffer.position();
+		int i = pos + len;
+		do {
+			long q = v / 10;
+			buffer.put(--i, (byte) ('0' + (q * 10 - v)));
+			v = q;
+		} while (v != 0);
+		if (l < 0) {
+			buffer.put(pos, (byte) '-');
+		}
+		buffer.position(pos + len);
+		return this;
+	}
+
 	/**
 	 * Append the given {@code short} to this {@literal Buffer}.
 	 *
@@ -934,20 +1239,104 @@ public class Buffer implements Comparable<Buffer>,
 	}
 
 	/**
-	 * Create a copy of the given range.
+	 * Find the first occurrence of the given byte between the position and the limit.
+	 *
+	 * @param b The byte to look for.
+	 * @return The absolute index of the byte, or {@literal -1} if it does not occur.
+	 * @see #indexOf(byte, int, int)
+	 */
+	public int indexOf(byte b) {
+		return (null != buffer ? indexOf(b, buffer.position(), buffer.limit()) : -1);
+	}
+
+	/**
+	 * Find the first occurrence of the given byte in the given range. The range is searched eight bytes at a time, by
+	 * reading it a {@code long} at a time and testing all eight bytes of each word at once, which is several times faster
+	 * than looking at one byte at a time and works the same for heap and direct memory. The range must lie within the
+	 * limit.
+	 *
+	 * @param b     The byte to look for.
+	 * @param start The absolute index to start looking at.
+	 * @param end   The absolute index to stop looking before.
+	 * @return The absolute index of the byte, or {@literal -1} if it does not occur.
+	 */
+	public int indexOf(byte b, int start, int end) {
+		if (null == buffer) {
+			return -1;
+		}
+		long pattern = (b & 0xFFL) * LOW_BYTES;
+		boolean bigEndian = (buffer.order() == ByteOrder.BIG_ENDIAN);
+		int i = start;
+		for (int lastWord = end - 8; i <= lastWord; i += 8) {
+			// the bytes that match are 0 after the xor, and only those get their high bit set in found
+			long word = buffer.getLong(i) ^ pattern;
+			long found = ~(((word & LOW_7_BITS) + LOW_7_BITS) | word | LOW_7_BITS);
+			if (found != 0) {
+				return i + ((bigEndian ? Long.numberOfLeadingZeros(found) : Long.numberOfTrailingZeros(found)) >>> 3);
+			}
+		}
+		for (; i < end; i++) {
+			if (buffer.get(i) == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Find the first occurrence of the given sequence of bytes between the position and the limit.
+	 *
+	 * @param bytes The bytes to look for.
+	 * @return The absolute index at which the bytes start, or {@literal -1} if they do not occur.
+	 * @see #indexOf(byte[], int, int)
+	 */
+	public int indexOf(byte[] bytes) {
+		return (null != buffer ? indexOf(bytes, buffer.position(), buffer.limit()) : -1);
+	}
+
+	/**
+	 * Find the first occurrence of the given sequence of bytes in the given range. Candidates are found by searching for
+	 * the first byte with {@link #indexOf(byte, int, int)}.
+	 *
+	 * @param bytes The bytes to look for.
+	 * @param start The absolute index to start looking at.
+	 * @param end   The absolute index the bytes have to end by.
+	 * @return The absolute index at which the bytes start, or {@literal -1} if they do not occur.
+	 */
+	public int indexOf(byte[] bytes, int start, int end) {
+		Assert.notNull(bytes, "Bytes cannot be null.");
+		if (bytes.length == 0) {
+			return (start <= end ? start : -1);
+		}
+		int lastStart = end - bytes.length;
+		for (int i = start; i <= lastStart; i++) {
+			i = indexOf(bytes[0], i, lastStart + 1);
+			if (i < 0) {
+				return -1;
+			}
+			if (matches(bytes, i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Create a {@literal Buffer} over the given range of this buffer, without copying. The slice shares this buffer's
+	 * memory, so changes to the content show up in both, but it has its own position and limit, starting at {@code 0}
+	 * and {@code len}, so it can be read independently of this buffer, on another thread if need be. It is only valid
+	 * for as long as this buffer's storage is: a slice of a {@link #allocate(int) pooled} buffer must not be used once
+	 * that buffer has been {@link #release(Buffer) released}. Use {@link #copy()} for an independent copy.
 	 *
 	 * @param start start of the range.
-	 * @param len   end of the range.
-	 * @return A new {@link Buffer}, constructed from the contents of the given range.
+	 * @param len   length of the range.
+	 * @return A new {@link Buffer} over the given range.
 	 */
 	public Buffer slice(int start, int len) {
-		snapshot();
-		ByteBuffer bb = ByteBuffer.allocate(len);
-		buffer.position(start);
-		bb.put(buffer);
-		reset();
-		bb.flip();
-		return new Buffer(bb);
+		ByteBuffer bb = buffer.duplicate();
+		bb.limit(start + len);
+		bb.position(start);
+		return new Buffer(bb.slice());
 	}
 
 	/**
@@ -992,23 +1381,42 @@ public class Buffer implements Comparable<Buffer>,
 	 * @return An {@link Iterable} of {@link View Views} that point to the segments of this buffer.
 	 */
 	public Iterable<View> split(List<View> views, int delimiter, boolean stripDelimiter) {
-		snapshot();
+		int start = buffer.position();
+		int limit = buffer.limit();
+		for (int i; (i = indexOf((byte) delimiter, start, limit)) >= 0; start = i + 1) {
+			views.add(new View(start, stripDelimiter ? i : i + 1));
+		}
+		buffer.position(start);
 
-		int start = this.position;
-		for (byte b : this) {
-			if (b == delimiter) {
-				int end = stripDelimiter ? buffer.position() - 1 : buffer.position();
-				views.add(createView(start, end));
-				start = end + (stripDelimiter ? 1 : 0);
-			}
+		return views;
+	}
+
+	/**
+	 * Split this buffer on the given delimiter, handing each segment to the given {@link Consumer} as soon as it is
+	 * found. The same {@link View} is handed over for every segment, so no garbage is created, and a consumer that wants
+	 * to keep hold of a segment has to copy it. As with the other {@code split} methods, the position is left after the
+	 * last delimiter, so a trailing segment without a delimiter stays in the buffer.
+	 *
+	 * @param delimiter      The delimiter on which to split this buffer.
+	 * @param stripDelimiter {@literal true} to ignore the delimiter, {@literal false} to leave it in the returned data.
+	 * @param consumer       The {@link Consumer} to hand each segment to.
+	 * @return The number of segments found.
+	 */
+	public int split(int delimiter, boolean stripDelimiter, Consumer<View> consumer) {
+		if (null == splitView) {
+			splitView = new View(0, 0);
 		}
-		if (start != buffer.position()) {
-			buffer.position(start);
+		int segments = 0;
+		int start = buffer.position();
+		int limit = buffer.limit();
+		for (int i; (i = indexOf((byte) delimiter, start, limit)) >= 0; start = i + 1) {
+			buffer.position(i + 1);
+			consumer.accept(splitView.set(start, stripDelimiter ? i : i + 1));
+			segments++;
 		}
+		buffer.position(start);
 
-		reset();
-
-		return views;
+		return segments;
 	}
 
 	/**
@@ -1071,6 +1479,29 @@ public class Buffer implements Comparable<Buffer>,
 		return buffer;
 	}
 
+	/**
+	 * Return the content of this buffer, from its position to its limit, as a sequence of {@link ByteBuffer ByteBuffers}
+	 * that share its memory but have their own position and limit. A plain {@literal Buffer} has at most one; a {@link
+	 * CompositeBuffer} has one per segment.
+	 *
+	 * @return The {@link ByteBuffer ByteBuffers} holding this buffer's content.
+	 */
+	public ByteBuffer[] byteBuffers() {
+		return (null != buffer ? new ByteBuffer[]{buffer.duplicate()} : new ByteBuffer[0]);
+	}
+
+	/**
+	 * Write as much of the remaining content of this buffer to the given channel as it will take in one go, advancing
+	 * the position past the bytes written.
+	 *
+	 * @param channel The channel to write to.
+	 * @return The number of bytes written.
+	 * @throws IOException if the channel cannot be written to
+	 */
+	public long writeTo(WritableByteChannel channel) throws IOException {
+		return (null != buffer ? channel.write(buffer) : 0);
+	}
+
 	@Override
 	public String toString() {
 		return (null != buffer ? buffer.toString() : "<EMPTY>");
@@ -1078,12 +1509,15 @@ public class Buffer implements Comparable<Buffer>,
 
 	@Override
 	public int compareTo(Buffer buffer) {
-		return (null != buffer ? this.buffer.compareTo(buffer.buffer) : -1);
+		return (null != buffer ? byteBuffer().compareTo(buffer.byteBuffer()) : -1);
 	}
 
 	private synchronized void ensureCapacity(int atLeast) {
 		if (null == buffer) {
-			buffer = ByteBuffer.allocate(SMALL_BUFFER_SIZE);
+			if (atLeast > MAX_BUFFER_SIZE) {
+				throw new BufferOverflowException();
+			}
+			buffer = ByteBuffer.allocate(Math.max(SMALL_BUFFER_SIZE, atLeast));
 			return;
 		}
 		int pos = buffer.position();
@@ -1092,28 +1526,128 @@ public class Buffer implements Comparable<Buffer>,
 			if (buffer.limit() < cap) {
 				// there's remaining capacity that hasn't been used yet
 				if (pos + atLeast > cap) {
-					expand();
+					expand(pos + atLeast);
 					cap = buffer.capacity();
 				}
 				buffer.limit(Math.min(pos + atLeast, cap));
 			} else {
-				expand();
+				expand(pos + atLeast);
 			}
-		} else if (pos + SMALL_BUFFER_SIZE > MAX_BUFFER_SIZE) {
+		} else if (pos + atLeast > MAX_BUFFER_SIZE) {
 			throw new BufferOverflowException();
 		}
 	}
 
-	private void expand() {
-		snapshot();
-		ByteBuffer newBuff = ByteBuffer.allocate(buffer.limit() + SMALL_BUFFER_SIZE);
-		buffer.flip();
+	/**
+	 * Hand this buffer's storage back to the pool, if it came from there.
+	 *
+	 * @see #release(Buffer)
+	 */
+	void releaseStorage() {
+		if (!pooled || null == buffer) {
+			return;
+		}
+		BufferPool.recycle(buffer);
+		buffer = null;
+		pooled = false;
+		headroom = 0;
+	}
+
+	/**
+	 * Move the content into a new {@link ByteBuffer} of at least twice the current capacity, and at least {@code
+	 * required} bytes, so that growing a buffer byte by byte costs amortized constant time per byte. The position is
+	 * kept, as is the limit unless it was at the old capacity, in which case it moves to the new one.
+	 */
+	private void expand(int required) {
+		if (required > MAX_BUFFER_SIZE) {
+			throw new BufferOverflowException();
+		}
+		int pos = buffer.position();
+		int limit = buffer.limit();
+		int cap = buffer.capacity();
+
+		int newCap = Math.max(cap, 1);
+		while (newCap < required) {
+			newCap = (newCap <= MAX_BUFFER_SIZE >> 1 ? newCap << 1 : MAX_BUFFER_SIZE);
+		}
+
+		boolean direct = buffer.isDirect();
+		ByteBuffer newBuff = (pooled ? BufferPool.acquire(newCap, direct) :
+		                      direct ? ByteBuffer.allocateDirect(newCap) : ByteBuffer.allocate(newCap));
+		buffer.position(0);
+		buffer.limit(limit < cap ? Math.max(pos, limit) : pos);
 		newBuff.put(buffer);
+		newBuff.limit(limit < cap ? limit : newBuff.capacity());
+		newBuff.position(pos);
+
+		if (pooled) {
+			BufferPool.recycle(buffer);
+		}
 		buffer = newBuff;
-		reset();
+	}
+
+	/**
+	 * The number of decimal digits in the given number, which must not be positive.
+	 */
+	private static int decimalDigits(long negative) {
+		long p = -10;
+		for (int digits = 1; digits < 19; digits++) {
+			if (negative > p) {
+				return digits;
+			}
+			p *= 10;
+		}
+		return 19;
+	}
+
+	private boolean isAscii(int start, int end) {
+		int i = start;
+		for (int lastWord = end - 8; i <= lastWord; i += 8) {
+			if ((buffer.getLong(i) & HIGH_BITS) != 0) {
+				return false;
+			}
+		}
+		for (; i < end; i++) {
+			if (buffer.get(i) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean matches(byte[] bytes, int index) {
+		for (int i = 1; i < bytes.length; i++) {
+			if (buffer.get(index + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Prepare to write {@code len} bytes directly in front of the current position, if they fit in the headroom this
+	 * buffer was {@link #allocate(int, int) allocated} with. On success the position is moved back over those bytes.
+	 */
+	private boolean claimHeadroom(int len) {
+		if (null == buffer) {
+			return false;
+		}
+		int pos = buffer.position();
+		if (pos > headroom || len > pos) {
+			return false;
+		}
+		buffer.position(pos - len);
+		headroom = pos - len;
+		return true;
 	}
 
 	private String decode() {
+		int pos = buffer.position();
+		int lim = buffer.limit();
+		if (buffer.hasArray() && isAscii(pos, lim)) {
+			// ASCII is the same in UTF-8 and ISO-8859-1, and the JDK turns ISO-8859-1 into a String with a plain copy
+			return new String(buffer.array(), buffer.arrayOffset() + pos, lim - pos, ISO_8859_1);
+		}
 		if (null == decoder) {
 			decoder = UTF8.newDecoder();
 		}
@@ -1149,6 +1683,7 @@ public class Buffer implements Comparable<Buffer>,
 		int len = buffer.remaining();
 		int pos = buffer.position();
 		ensureCapacity(right + len);
+		buffer.limit(Math.min(pos + right + len, buffer.capacity()));
 
 		buffer.position(pos + right);
 		buffer.put(currentBuffer);
@@ -1227,20 +1762,37 @@ public class Buffer implements Comparable<Buffer>,
 	}
 
 	/**
-	 * A {@literal View} represents a segment of a buffer. When {@link #get()} is called, the {@literal Buffer} is set to
-	 * the correct start and end points as given at creation time. After the view has been used, it is the responsibility
-	 * of the caller to {@link #reset()} the buffer if more manipulation is required. Otherwise, multiple views can be
-	 * created from a single buffer and used consecutively to extract portions of a buffer without expensive substrings.
+	 * A {@literal View} represents a segment of a buffer. When {@link #get()} is called, it returns a {@literal Buffer}
+	 * that shares the memory of the buffer it was created from but has its own position and limit, set to the start and
+	 * end of the segment, so using a view never disturbs the buffer it was created from and views can be handed to other
+	 * threads. Each view keeps hold of the {@literal Buffer} it returns, and can be moved to another segment with {@link
+	 * #set(int, int)}, so a single view can be used over and over without creating garbage.
 	 */
 	public class View implements Supplier<Buffer> {
-		private final int start;
-		private final int end;
+		private int        start;
+		private int        end;
+		private ByteBuffer source;
+		private ByteBuffer window;
+		private Buffer     windowBuffer;
 
 		private View(int start, int end) {
 			this.start = start;
 			this.end = end;
 		}
 
+		/**
+		 * Move this view to the given range of its buffer.
+		 *
+		 * @param start start of the range.
+		 * @param end   end of the range.
+		 * @return {@literal this}
+		 */
+		public View set(int start, int end) {
+			this.start = start;
+			this.end = end;
+			return this;
+		}
+
 		/**
 		 * Get the start of this range.
 		 *
@@ -1261,9 +1813,15 @@ public class Buffer implements Comparable<Buffer>,
 
 		@Override
 		public Buffer get() {
-			buffer.limit(end);
-			buffer.position(start);
-			return Buffer.this;
+			if (source != buffer || windowBuffer.buffer != window) {
+				// first use, or the buffer has moved to new storage since
+				source = buffer;
+				window = buffer.duplicate();
+				windowBuffer = new Buffer(window);
+			}
+			window.limit(end);
+			window.position(start);
+			return windowBuffer;
 		}
 	}
 
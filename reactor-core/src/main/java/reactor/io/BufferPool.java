@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.io;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of {@link ByteBuffer ByteBuffers} kept in size classes of powers of two, from 256 bytes up to {@code
+ * reactor.io.maxPooledBufferSize} bytes (1MB by default). Each size class keeps at most {@code
+ * reactor.io.pooledBytesPerSizeClass} bytes (1MB by default) of idle buffers; anything beyond that is left to the
+ * garbage collector, as are requests larger than the largest size class.
+ * <p>
+ * Heap and direct buffers are pooled separately. Pooling matters most for direct buffers: they are expensive to
+ * allocate, and their off-heap memory is only freed once the garbage collector gets round to the {@link ByteBuffer}
+ * that owns it.
+ * </p>
+ *
+ * @see Buffer#allocate(int)
+ * @see Buffer#release(Buffer)
+ */
+final class BufferPool {
+
+	static final int MIN_POOLED_SIZE = 256;
+
+	static final int MAX_POOLED_SIZE = Integer.highestOneBit(Integer.parseInt(
+			System.getProperty("reactor.io.maxPooledBufferSize", "" + 1024 * 1024)
+	));
+
+	private static final int POOLED_BYTES_PER_SIZE_CLASS = Integer.parseInt(
+			System.getProperty("reactor.io.pooledBytesPerSizeClass", "" + 1024 * 1024)
+	);
+
+	private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_POOLED_SIZE);
+
+	private static final SizeClass[] HEAP_SIZE_CLASSES   = createSizeClasses();
+	private static final SizeClass[] DIRECT_SIZE_CLASSES = createSizeClasses();
+
+	private BufferPool() {
+	}
+
+	/**
+	 * Take a cleared {@link ByteBuffer} of at least the given capacity from the pool, allocating a new one if the pool
+	 * has none to spare.
+	 *
+	 * @param atLeast
+	 * 		the minimum capacity
+	 * @param direct
+	 * 		{@literal true} for a direct buffer, {@literal false} for a heap buffer
+	 *
+	 * @return a cleared {@link ByteBuffer}, whose capacity is a power of two unless it is too big to be pooled
+	 */
+	static ByteBuffer acquire(int atLeast, boolean direct) {
+		int size = sizeFor(atLeast);
+		if (size > MAX_POOLED_SIZE) {
+			return allocate(atLeast, direct);
+		}
+		ByteBuffer buffer = (direct ? DIRECT_SIZE_CLASSES : HEAP_SIZE_CLASSES)[indexOf(size)].poll();
+		return (null != buffer ? buffer : allocate(size, direct));
+	}
+
+	/**
+	 * Hand a {@link ByteBuffer} back to the pool. Buffers that don't fit a size class, or whose size class is already
+	 * full, are dropped.
+	 *
+	 * @param buffer
+	 * 		the buffer, which must no longer be used by the caller
+	 */
+	static void recycle(ByteBuffer buffer) {
+		int capacity = buffer.capacity();
+		if (capacity < MIN_POOLED_SIZE
+				|| capacity > MAX_POOLED_SIZE
+				|| Integer.bitCount(capacity) != 1
+				|| buffer.isReadOnly()) {
+			return;
+		}
+		buffer.clear();
+		(buffer.isDirect() ? DIRECT_SIZE_CLASSES : HEAP_SIZE_CLASSES)[indexOf(capacity)].offer(buffer);
+	}
+
+	/**
+	 * The capacity of the size class a request for the given number of bytes is served from.
+	 */
+	static int sizeFor(int atLeast) {
+		if (atLeast <= MIN_POOLED_SIZE) {
+			return MIN_POOLED_SIZE;
+		}
+		int size = Integer.highestOneBit(atLeast - 1) << 1;
+		return (size > 0 ? size : Integer.MAX_VALUE);
+	}
+
+	private static ByteBuffer allocate(int capacity, boolean direct) {
+		return (direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+	}
+
+	private static int indexOf(int size) {
+		return Integer.numberOfTrailingZeros(size) - MIN_SHIFT;
+	}
+
+	private static SizeClass[] createSizeClasses() {
+		int count = Math.max(0, indexOf(MAX_POOLED_SIZE) + 1);
+		SizeClass[] sizeClasses = new SizeClass[count];
+		for (int i = 0; i < count; i++) {
+			sizeClasses[i] = new SizeClass(Math.max(1, POOLED_BYTES_PER_SIZE_CLASS / (MIN_POOLED_SIZE << i)));
+		}
+		return sizeClasses;
+	}
+
+	private static final class SizeClass {
+		private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+		private final AtomicInteger     idle    = new AtomicInteger();
+		private final int               maxIdle;
+
+		private SizeClass(int maxIdle) {
+			this.maxIdle = maxIdle;
+		}
+
+		private ByteBuffer poll() {
+			ByteBuffer buffer = buffers.poll();
+			if (null != buffer) {
+				idle.decrementAndGet();
+			}
+			return buffer;
+		}
+
+		private void offer(ByteBuffer buffer) {
+			if (idle.incrementAndGet() > maxIdle) {
+				idle.decrementAndGet();
+				return;
+			}
+			buffers.offer(buffer);
+		}
+	}
+
+}
@@ -0,0 +1,667 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.io;
+
+import reactor.function.Consumer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@link Buffer} made up of a sequence of {@link ByteBuffer} segments that are presented as one logical, readable
+ * {@literal Buffer}. Appending or prepending to a {@literal CompositeBuffer} adds a segment rather than copying: a
+ * {@link Buffer}, {@link ByteBuffer} or {@code byte[]} is referenced where it is, and only primitives and Strings get a
+ * small segment of their own. This lets a header or delimiter be put around a payload without ever copying the payload.
+ * <p>
+ * The content is always ready for reading, so there is no need to {@link #flip()} a {@literal CompositeBuffer}. Its
+ * size, its content as a String or {@code byte[]}, its {@link #byteBuffers() segments}, and {@link
+ * #writeTo(java.nio.channels.WritableByteChannel) writing} it to a channel, which uses a single gathering write, all
+ * work on the segments directly. Any other operation first copies the segments into a single {@link ByteBuffer}, once,
+ * after which the {@literal CompositeBuffer} behaves exactly like a plain {@link Buffer}.
+ * </p>
+ * <p>
+ * The segments must not be changed while they are part of a {@literal CompositeBuffer}. A {@link Buffer#allocate(int)
+ * pooled} {@link Buffer} that is appended or prepended is owned by the {@literal CompositeBuffer} from then on, and is
+ * {@link Buffer#release(Buffer) released} along with it.
+ * </p>
+ */
+@NotThreadSafe
+public class CompositeBuffer extends Buffer {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final List<ByteBuffer> segments   = new ArrayList<ByteBuffer>();
+	private final List<Buffer>     components = new ArrayList<Buffer>();
+	private       boolean          flattened;
+
+	/**
+	 * Create an empty {@literal CompositeBuffer}.
+	 */
+	public CompositeBuffer() {
+	}
+
+	/**
+	 * Create a {@literal CompositeBuffer} made up of the content of the given {@link Buffer Buffers}, in order.
+	 *
+	 * @param buffers The {@link Buffer Buffers} to compose.
+	 */
+	public CompositeBuffer(Buffer... buffers) {
+		append(buffers);
+	}
+
+	/**
+	 * Whether the content of this {@literal CompositeBuffer} has been copied into a single {@link ByteBuffer}, after which
+	 * it behaves like a plain {@link Buffer}.
+	 *
+	 * @return {@literal true} if this buffer has been flattened, {@literal false} while it is still made of segments.
+	 */
+	public boolean isFlattened() {
+		return flattened;
+	}
+
+	@Override
+	public boolean isDirect() {
+		if (flattened) {
+			return super.isDirect();
+		}
+		for (ByteBuffer segment : segments) {
+			if (!segment.isDirect()) {
+				return false;
+			}
+		}
+		return !segments.isEmpty();
+	}
+
+	@Override
+	public int position() {
+		return (flattened ? super.position() : 0);
+	}
+
+	@Override
+	public int limit() {
+		return (flattened ? super.limit() : remaining());
+	}
+
+	@Override
+	public int headroom() {
+		return (flattened ? super.headroom() : 0);
+	}
+
+	@Override
+	public int capacity() {
+		return (flattened ? super.capacity() : remaining());
+	}
+
+	@Override
+	public int remaining() {
+		if (flattened) {
+			return super.remaining();
+		}
+		int remaining = 0;
+		for (ByteBuffer segment : segments) {
+			remaining += segment.remaining();
+		}
+		return remaining;
+	}
+
+	@Override
+	public Buffer flip() {
+		return (flattened ? super.flip() : this);
+	}
+
+	@Override
+	public Buffer rewind() {
+		return (flattened ? super.rewind() : this);
+	}
+
+	@Override
+	public Buffer prepend(Buffer b) {
+		if (flattened) {
+			return super.prepend(b);
+		}
+		if (null != b) {
+			components.add(b);
+			int i = 0;
+			for (ByteBuffer segment : b.byteBuffers()) {
+				if (segment.hasRemaining()) {
+					segments.add(i++, segment);
+				}
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public Buffer prepend(String s) {
+		if (flattened) {
+			return super.prepend(s);
+		}
+		return (null != s ? addFirst(ByteBuffer.wrap(s.getBytes())) : this);
+	}
+
+	@Override
+	public Buffer prepend(byte[] bytes) {
+		return (flattened ? super.prepend(bytes) : addFirst(ByteBuffer.wrap(bytes)));
+	}
+
+	@Override
+	public Buffer prepend(ByteBuffer b) {
+		if (flattened) {
+			return super.prepend(b);
+		}
+		return (null != b ? addFirst(take(b)) : this);
+	}
+
+	@Override
+	public Buffer prepend(byte b) {
+		return (flattened ? super.prepend(b) : addFirst((ByteBuffer) ByteBuffer.allocate(1).put(b).flip()));
+	}
+
+	@Override
+	public Buffer prepend(char c) {
+		return (flattened ? super.prepend(c) : addFirst((ByteBuffer) ByteBuffer.allocate(2).putChar(c).flip()));
+	}
+
+	@Override
+	public Buffer prepend(short s) {
+		return (flattened ? super.prepend(s) : addFirst((ByteBuffer) ByteBuffer.allocate(2).putShort(s).flip()));
+	}
+
+	@Override
+	public Buffer prepend(int i) {
+		return (flattened ? super.prepend(i) : addFirst((ByteBuffer) ByteBuffer.allocate(4).putInt(i).flip()));
+	}
+
+	@Override
+	public Buffer prepend(long l) {
+		return (flattened ? super.prepend(l) : addFirst((ByteBuffer) ByteBuffer.allocate(8).putLong(l).flip()));
+	}
+
+	@Override
+	public Buffer append(String s) {
+		return (flattened ? super.append(s) : addLast(ByteBuffer.wrap(s.getBytes())));
+	}
+
+	@Override
+	public Buffer append(short s) {
+		return (flattened ? super.append(s) : addLast((ByteBuffer) ByteBuffer.allocate(2).putShort(s).flip()));
+	}
+
+	@Override
+	public Buffer append(int i) {
+		return (flattened ? super.append(i) : addLast((ByteBuffer) ByteBuffer.allocate(4).putInt(i).flip()));
+	}
+
+	@Override
+	public Buffer append(long l) {
+		return (flattened ? super.append(l) : addLast((ByteBuffer) ByteBuffer.allocate(8).putLong(l).flip()));
+	}
+
+	@Override
+	public Buffer append(char c) {
+		return (flattened ? super.append(c) : addLast((ByteBuffer) ByteBuffer.allocate(2).putChar(c).flip()));
+	}
+
+	@Override
+	public Buffer appendAscii(String s) {
+		return (flattened ? super.appendAscii(s) : addLast(new Buffer(s.length(), true).appendAscii(s).flip().byteBuffer()));
+	}
+
+	@Override
+	public Buffer appendDecimal(long l) {
+		return (flattened ? super.appendDecimal(l) : addLast(new Buffer(20, true).appendDecimal(l).flip().byteBuffer()));
+	}
+
+	@Override
+	public Buffer append(ByteBuffer... buffers) {
+		if (flattened) {
+			return super.append(buffers);
+		}
+		for (ByteBuffer bb : buffers) {
+			addLast(take(bb));
+		}
+		return this;
+	}
+
+	@Override
+	public Buffer append(Buffer... buffers) {
+		if (flattened) {
+			return super.append(buffers);
+		}
+		for (Buffer b : buffers) {
+			if (null == b) {
+				continue;
+			}
+			components.add(b);
+			for (ByteBuffer segment : b.byteBuffers()) {
+				addLast(segment);
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public Buffer append(byte b) {
+		return (flattened ? super.append(b) : addLast((ByteBuffer) ByteBuffer.allocate(1).put(b).flip()));
+	}
+
+	@Override
+	public Buffer append(byte[] b) {
+		return (flattened ? super.append(b) : addLast(ByteBuffer.wrap(b)));
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		if (flattened) {
+			return super.read(dst);
+		}
+		int pos = dst.position();
+		for (ByteBuffer segment : segments) {
+			if (!dst.hasRemaining()) {
+				break;
+			}
+			if (segment.remaining() <= dst.remaining()) {
+				dst.put(segment);
+			} else {
+				ByteBuffer part = segment.duplicate();
+				part.limit(part.position() + dst.remaining());
+				dst.put(part);
+				segment.position(part.position());
+			}
+		}
+		return dst.position() - pos;
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+		if (flattened) {
+			return super.write(src);
+		}
+		// the caller of a channel write is free to reuse its buffer afterwards, so this one has to be copied
+		int len = src.remaining();
+		addLast((ByteBuffer) ByteBuffer.allocate(len).put(src).flip());
+		return len;
+	}
+
+	/**
+	 * Write as much of the content as the channel will take. A {@link GatheringByteChannel} is given all the segments in a
+	 * single gathering write.
+	 *
+	 * @param channel The channel to write to.
+	 * @return The number of bytes written.
+	 * @throws IOException if the channel cannot be written to
+	 */
+	@Override
+	public long writeTo(WritableByteChannel channel) throws IOException {
+		if (flattened) {
+			return super.writeTo(channel);
+		}
+		if (channel instanceof GatheringByteChannel) {
+			return ((GatheringByteChannel) channel).write(segments.toArray(new ByteBuffer[segments.size()]));
+		}
+		long written = 0;
+		for (ByteBuffer segment : segments) {
+			int len = segment.remaining();
+			int n = channel.write(segment);
+			written += n;
+			if (n < len) {
+				break;
+			}
+		}
+		return written;
+	}
+
+	@Override
+	public String asString() {
+		if (flattened) {
+			return super.asString();
+		}
+		return (segments.isEmpty() ? null : new String(asBytes(), UTF8));
+	}
+
+	@Override
+	public byte[] asBytes() {
+		if (flattened) {
+			return super.asBytes();
+		}
+		if (segments.isEmpty()) {
+			return null;
+		}
+		byte[] bytes = new byte[remaining()];
+		int offset = 0;
+		for (ByteBuffer segment : segments) {
+			int len = segment.remaining();
+			segment.duplicate().get(bytes, offset, len);
+			offset += len;
+		}
+		return bytes;
+	}
+
+	@Override
+	public ByteBuffer[] byteBuffers() {
+		if (flattened) {
+			return super.byteBuffers();
+		}
+		ByteBuffer[] buffers = new ByteBuffer[segments.size()];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = segments.get(i).duplicate();
+		}
+		return buffers;
+	}
+
+	/**
+	 * Return the content as a single {@link ByteBuffer}, flattening this {@literal CompositeBuffer} first.
+	 *
+	 * @return The {@link ByteBuffer} in use.
+	 */
+	@Override
+	public ByteBuffer byteBuffer() {
+		flatten();
+		return super.byteBuffer();
+	}
+
+	@Override
+	public Buffer position(int pos) {
+		flatten();
+		return super.position(pos);
+	}
+
+	@Override
+	public Buffer limit(int limit) {
+		flatten();
+		return super.limit(limit);
+	}
+
+	@Override
+	public Buffer skip(int len) {
+		flatten();
+		return super.skip(len);
+	}
+
+	@Override
+	public Buffer clear() {
+		flatten();
+		return super.clear();
+	}
+
+	@Override
+	public Buffer compact() {
+		flatten();
+		return super.compact();
+	}
+
+	@Override
+	public Buffer rewind(int len) {
+		flatten();
+		return super.rewind(len);
+	}
+
+	@Override
+	public Buffer duplicate() {
+		flatten();
+		return super.duplicate();
+	}
+
+	@Override
+	public Buffer copy() {
+		flatten();
+		return super.copy();
+	}
+
+	@Override
+	public byte first() {
+		flatten();
+		return super.first();
+	}
+
+	@Override
+	public byte last() {
+		flatten();
+		return super.last();
+	}
+
+	@Override
+	public byte read() {
+		flatten();
+		return super.read();
+	}
+
+	@Override
+	public Buffer read(byte[] b) {
+		flatten();
+		return super.read(b);
+	}
+
+	@Override
+	public short readShort() {
+		flatten();
+		return super.readShort();
+	}
+
+	@Override
+	public int readInt() {
+		flatten();
+		return super.readInt();
+	}
+
+	@Override
+	public float readFloat() {
+		flatten();
+		return super.readFloat();
+	}
+
+	@Override
+	public double readDouble() {
+		flatten();
+		return super.readDouble();
+	}
+
+	@Override
+	public long readLong() {
+		flatten();
+		return super.readLong();
+	}
+
+	@Override
+	public char readChar() {
+		flatten();
+		return super.readChar();
+	}
+
+	@Override
+	public void snapshot() {
+		flatten();
+		super.snapshot();
+	}
+
+	@Override
+	public Buffer reset() {
+		flatten();
+		return super.reset();
+	}
+
+	@Override
+	public Iterator<Byte> iterator() {
+		flatten();
+		return super.iterator();
+	}
+
+	@Override
+	public String substring(int start, int end) {
+		flatten();
+		return super.substring(start, end);
+	}
+
+	@Override
+	public InputStream inputStream() {
+		flatten();
+		return super.inputStream();
+	}
+
+	@Override
+	public int parseInt(int start, int end) {
+		flatten();
+		return super.parseInt(start, end);
+	}
+
+	@Override
+	public long parseLong(int start, int end) {
+		flatten();
+		return super.parseLong(start, end);
+	}
+
+	@Override
+	public int indexOf(byte b) {
+		flatten();
+		return super.indexOf(b);
+	}
+
+	@Override
+	public int indexOf(byte b, int start, int end) {
+		flatten();
+		return super.indexOf(b, start, end);
+	}
+
+	@Override
+	public int indexOf(byte[] bytes) {
+		flatten();
+		return super.indexOf(bytes);
+	}
+
+	@Override
+	public int indexOf(byte[] bytes, int start, int end) {
+		flatten();
+		return super.indexOf(bytes, start, end);
+	}
+
+	@Override
+	public Buffer slice(int start, int len) {
+		flatten();
+		return super.slice(start, len);
+	}
+
+	@Override
+	public Iterable<View> split(List<View> views, int delimiter, boolean stripDelimiter) {
+		flatten();
+		return super.split(views, delimiter, stripDelimiter);
+	}
+
+	@Override
+	public int split(int delimiter, boolean stripDelimiter, Consumer<View> consumer) {
+		flatten();
+		return super.split(delimiter, stripDelimiter, consumer);
+	}
+
+	@Override
+	public View createView() {
+		flatten();
+		return super.createView();
+	}
+
+	@Override
+	public View createView(int start, int end) {
+		flatten();
+		return super.createView(start, end);
+	}
+
+	@Override
+	public List<View> slice(int... positions) {
+		flatten();
+		return super.slice(positions);
+	}
+
+	@Override
+	public int compareTo(Buffer buffer) {
+		flatten();
+		return super.compareTo(buffer);
+	}
+
+	@Override
+	public String toString() {
+		if (flattened) {
+			return super.toString();
+		}
+		return "CompositeBuffer{" +
+				"segments=" + segments.size() +
+				", remaining=" + remaining() +
+				'}';
+	}
+
+	@Override
+	void releaseStorage() {
+		for (Buffer component : components) {
+			Buffer.release(component);
+		}
+		components.clear();
+		segments.clear();
+		super.releaseStorage();
+	}
+
+	private CompositeBuffer addFirst(ByteBuffer segment) {
+		if (segment.hasRemaining()) {
+			segments.add(0, segment);
+		}
+		return this;
+	}
+
+	private CompositeBuffer addLast(ByteBuffer segment) {
+		if (segment.hasRemaining()) {
+			segments.add(segment);
+		}
+		return this;
+	}
+
+	/**
+	 * Reference the remaining content of the given {@link ByteBuffer} as a segment and consume it, just as copying it
+	 * into a plain {@link Buffer} would.
+	 */
+	private static ByteBuffer take(ByteBuffer bb) {
+		ByteBuffer segment = bb.slice();
+		bb.position(bb.limit());
+		return segment;
+	}
+
+	/**
+	 * Copy the segments into a single {@link ByteBuffer}, ready for reading, and from then on behave as a plain {@link
+	 * Buffer}. The components have been copied, so they can be released straight away.
+	 */
+	private void flatten() {
+		if (flattened) {
+			return;
+		}
+		flattened = true;
+		if (!segments.isEmpty()) {
+			ByteBuffer[] content = segments.toArray(new ByteBuffer[segments.size()]);
+			super.append(content);
+			super.flip();
+		}
+		segments.clear();
+		for (Buffer component : components) {
+			Buffer.release(component);
+		}
+		components.clear();
+	}
+
+}
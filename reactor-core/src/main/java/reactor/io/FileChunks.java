@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.io;
+
+import reactor.util.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link Iterable} that covers a file with {@link Buffer#map(File, long, int) memory-mapped} {@link Buffer Buffers}
+ * of at most {@code chunkSize} bytes each. A chunk is only mapped when the iteration reaches it, and its pages are only
+ * read in by the operating system as they are used, so a file of any size can be iterated over without loading it
+ * into the heap. Each {@link #iterator()} starts a new pass over the file, taking its size at that moment.
+ * <p>
+ * When a delimiter is given, every chunk but the last ends just after the last delimiter it contains, so records such
+ * as lines are never split across two chunks, unless a single record is longer than the chunk size.
+ * </p>
+ */
+public class FileChunks implements Iterable<Buffer> {
+
+	private final File    file;
+	private final int     chunkSize;
+	private final boolean delimited;
+	private final byte    delimiter;
+
+	/**
+	 * Create an {@literal Iterable} over the given file in chunks of the given size.
+	 *
+	 * @param file      The file to map.
+	 * @param chunkSize The maximum number of bytes in a chunk.
+	 */
+	public FileChunks(File file, int chunkSize) {
+		this(file, chunkSize, false, (byte) 0);
+	}
+
+	/**
+	 * Create an {@literal Iterable} over the given file in chunks of the given size that end on the given delimiter.
+	 *
+	 * @param file      The file to map.
+	 * @param chunkSize The maximum number of bytes in a chunk.
+	 * @param delimiter The delimiter chunks should end on.
+	 */
+	public FileChunks(File file, int chunkSize, byte delimiter) {
+		this(file, chunkSize, true, delimiter);
+	}
+
+	private FileChunks(File file, int chunkSize, boolean delimited, byte delimiter) {
+		Assert.notNull(file, "File cannot be null.");
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0.");
+		this.file = file;
+		this.chunkSize = chunkSize;
+		this.delimited = delimited;
+		this.delimiter = delimiter;
+	}
+
+	@Override
+	public Iterator<Buffer> iterator() {
+		return new ChunkIterator(file.length());
+	}
+
+	private class ChunkIterator implements Iterator<Buffer> {
+		private final long size;
+		private       long offset;
+
+		private ChunkIterator(long size) {
+			this.size = size;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return offset < size;
+		}
+
+		@Override
+		public Buffer next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int len = (int) Math.min(chunkSize, size - offset);
+			Buffer chunk;
+			try {
+				chunk = Buffer.map(file, offset, len);
+			} catch (IOException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			if (delimited && offset + len < size) {
+				len = endOfLastRecord(chunk.byteBuffer(), len);
+				chunk.byteBuffer().limit(len);
+			}
+			offset += len;
+			return chunk;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		private int endOfLastRecord(ByteBuffer bb, int len) {
+			for (int i = len - 1; i >= 0; i--) {
+				if (bb.get(i) == delimiter) {
+					return i + 1;
+				}
+			}
+			// a single record is longer than a chunk, so it has to be split
+			return len;
+		}
+	}
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.queue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.higherfrequencytrading.chronicle.Excerpt;
+import reactor.io.Buffer;
+
+/**
+ * An {@link ExcerptCodec} that writes the common types of queue elements in a compact binary form: a one byte type tag
+ * followed by the value. {@link String Strings}, boxed primitives, {@code byte[]} and {@link Buffer Buffers} are
+ * written field by field straight into the {@link Excerpt}. Any other {@link Serializable} element falls back to Java
+ * serialization, which has to go through a {@code byte[]} as its size isn't known until it has been serialized.
+ * <p>
+ * Like the {@link Excerpt Excerpts} it writes to, a {@literal CompactExcerptCodec} must only be used by one thread at a
+ * time.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of the elements
+ */
+public class CompactExcerptCodec<T> implements ExcerptCodec<T> {
+
+	// Chronicle rejects entries whose first 8 bytes are all zero, so no type tag is 0
+	private static final byte NULL         = 1;
+	private static final byte STRING       = 2;
+	private static final byte INTEGER      = 3;
+	private static final byte LONG         = 4;
+	private static final byte DOUBLE       = 5;
+	private static final byte FLOAT        = 6;
+	private static final byte SHORT        = 7;
+	private static final byte BYTE         = 8;
+	private static final byte CHARACTER    = 9;
+	private static final byte BOOLEAN      = 10;
+	private static final byte BYTES        = 11;
+	private static final byte BUFFER       = 12;
+	private static final byte SERIALIZABLE = 13;
+
+	// a stop bit encoded length takes at most 5 bytes
+	private static final int MAX_LENGTH_SIZE = 5;
+
+	// the element serialized by the last call to maxSize(), so that the encode() of the same offer doesn't
+	// serialize it again. maxSize() always overwrites it, so bytes left behind by an offer that failed between
+	// maxSize() and encode() are never written for a later offer.
+	private Object lastSerialized;
+	private byte[] lastSerializedBytes;
+
+	@Override
+	public int maxSize(T obj) {
+		if(null == obj) {
+			return 1;
+		} else if(obj instanceof String) {
+			// writeUTF takes at most 3 bytes per char
+			return 1 + MAX_LENGTH_SIZE + 3 * ((String)obj).length();
+		} else if(obj instanceof Long || obj instanceof Double) {
+			return 1 + 8;
+		} else if(obj instanceof Integer || obj instanceof Float) {
+			return 1 + 4;
+		} else if(obj instanceof Short || obj instanceof Character) {
+			return 1 + 2;
+		} else if(obj instanceof Byte || obj instanceof Boolean) {
+			return 1 + 1;
+		} else if(obj instanceof byte[]) {
+			return 1 + MAX_LENGTH_SIZE + ((byte[])obj).length;
+		} else if(obj instanceof Buffer) {
+			return 1 + MAX_LENGTH_SIZE + ((Buffer)obj).remaining();
+		} else {
+			lastSerialized = obj;
+			lastSerializedBytes = serialize(obj);
+			return 1 + MAX_LENGTH_SIZE + lastSerializedBytes.length;
+		}
+	}
+
+	@Override
+	public void encode(T obj, Excerpt excerpt) {
+		if(null == obj) {
+			excerpt.writeByte(NULL);
+		} else if(obj instanceof String) {
+			excerpt.writeByte(STRING);
+			excerpt.writeUTF((String)obj);
+		} else if(obj instanceof Integer) {
+			excerpt.writeByte(INTEGER);
+			excerpt.writeInt((Integer)obj);
+		} else if(obj instanceof Long) {
+			excerpt.writeByte(LONG);
+			excerpt.writeLong((Long)obj);
+		} else if(obj instanceof Double) {
+			excerpt.writeByte(DOUBLE);
+			excerpt.writeDouble((Double)obj);
+		} else if(obj instanceof Float) {
+			excerpt.writeByte(FLOAT);
+			excerpt.writeFloat((Float)obj);
+		} else if(obj instanceof Short) {
+			excerpt.writeByte(SHORT);
+			excerpt.writeShort((Short)obj);
+		} else if(obj instanceof Byte) {
+			excerpt.writeByte(BYTE);
+			excerpt.writeByte((Byte)obj);
+		} else if(obj instanceof Character) {
+			excerpt.writeByte(CHARACTER);
+			excerpt.writeChar((Character)obj);
+		} else if(obj instanceof Boolean) {
+			excerpt.writeByte(BOOLEAN);
+			excerpt.writeBoolean((Boolean)obj);
+		} else if(obj instanceof byte[]) {
+			byte[] bytes = (byte[])obj;
+			excerpt.writeByte(BYTES);
+			excerpt.writeStopBit(bytes.length);
+			excerpt.write(bytes);
+		} else if(obj instanceof Buffer) {
+			Buffer buffer = (Buffer)obj;
+			excerpt.writeByte(BUFFER);
+			excerpt.writeStopBit(buffer.remaining());
+			// Chronicle copies a long at a time when the byte orders match
+			excerpt.write(buffer.byteBuffer().duplicate().order(excerpt.order()));
+		} else {
+			byte[] bytes = (obj == lastSerialized ? lastSerializedBytes : serialize(obj));
+			lastSerialized = null;
+			lastSerializedBytes = null;
+			excerpt.writeByte(SERIALIZABLE);
+			excerpt.writeStopBit(bytes.length);
+			excerpt.write(bytes);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T decode(Excerpt excerpt) {
+		byte type = excerpt.readByte();
+		switch(type) {
+			case NULL:
+				return null;
+			case STRING:
+				return (T)excerpt.readUTF();
+			case INTEGER:
+				return (T)Integer.valueOf(excerpt.readInt());
+			case LONG:
+				return (T)Long.valueOf(excerpt.readLong());
+			case DOUBLE:
+				return (T)Double.valueOf(excerpt.readDouble());
+			case FLOAT:
+				return (T)Float.valueOf(excerpt.readFloat());
+			case SHORT:
+				return (T)Short.valueOf(excerpt.readShort());
+			case BYTE:
+				return (T)Byte.valueOf(excerpt.readByte());
+			case CHARACTER:
+				return (T)Character.valueOf(excerpt.readChar());
+			case BOOLEAN:
+				return (T)Boolean.valueOf(excerpt.readBoolean());
+			case BYTES: {
+				byte[] bytes = new byte[(int)excerpt.readStopBit()];
+				excerpt.readFully(bytes);
+				return (T)bytes;
+			}
+			case BUFFER: {
+				int len = (int)excerpt.readStopBit();
+				ByteBuffer bb = ByteBuffer.allocate(len).order(excerpt.order());
+				excerpt.read(bb);
+				bb.flip();
+				return (T)new Buffer(bb.order(ByteOrder.BIG_ENDIAN));
+			}
+			case SERIALIZABLE: {
+				byte[] bytes = new byte[(int)excerpt.readStopBit()];
+				excerpt.readFully(bytes);
+				return (T)deserialize(bytes);
+			}
+			default:
+				throw new IllegalStateException("Unknown type tag " + type + " at index " + excerpt.index());
+		}
+	}
+
+	private static byte[] serialize(Object obj) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try {
+			ObjectOutputStream oos = new ObjectOutputStream(baos);
+			oos.writeObject(obj);
+			oos.close();
+		} catch(IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+		return baos.toByteArray();
+	}
+
+	private static Object deserialize(byte[] bytes) {
+		try {
+			return new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+		} catch(IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch(ClassNotFoundException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.queue;
+
+import com.higherfrequencytrading.chronicle.Excerpt;
+
+/**
+ * Implementations of this interface turn the elements of a queue into the content of a Chronicle {@link Excerpt}, and
+ * back again, by writing to and reading from the {@link Excerpt} directly rather than going through an intermediate
+ * {@link reactor.io.Buffer} or {@code byte[]}.
+ *
+ * @param <T>
+ * 		the type of the elements
+ *
+ * @see IndexedChronicleQueuePersistor
+ * @see CompactExcerptCodec
+ */
+public interface ExcerptCodec<T> {
+
+	/**
+	 * The most bytes {@link #encode(Object, Excerpt)} will write for the given element. Space for that many bytes is
+	 * reserved in the Chronicle, but only the bytes actually written are kept.
+	 *
+	 * @param obj
+	 * 		the element to be encoded
+	 *
+	 * @return the maximum size of the encoded element, in bytes
+	 */
+	int maxSize(T obj);
+
+	/**
+	 * Write the given element to an {@link Excerpt} that has been started with at least {@link #maxSize(Object)} bytes
+	 * of capacity. Chronicle rejects entries whose first 8 bytes are all zero, so an encoding should start with a
+	 * non-zero byte, such as a type tag or a length.
+	 *
+	 * @param obj
+	 * 		the element to encode
+	 * @param excerpt
+	 * 		the {@link Excerpt} to write it to
+	 */
+	void encode(T obj, Excerpt excerpt);
+
+	/**
+	 * Read an element from an {@link Excerpt} positioned at the start of an entry written by {@link #encode(Object,
+	 * Excerpt)}.
+	 *
+	 * @param excerpt
+	 * 		the {@link Excerpt} to read from
+	 *
+	 * @return the decoded element
+	 */
+	T decode(Excerpt excerpt);
+
+}
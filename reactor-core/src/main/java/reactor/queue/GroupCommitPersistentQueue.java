@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nonnull;
+
+import reactor.core.composable.Deferred;
+import reactor.core.composable.Promise;
+import reactor.core.composable.spec.Promises;
+import reactor.util.Assert;
+
+/**
+ * A {@link PersistentQueue} that many threads can offer items to at once. Offers are handed to a single writer thread,
+ * which writes whatever has accumulated since its last write as one batch to an {@link
+ * IndexedChronicleQueuePersistor}, so that the cost of making the items durable is shared by the whole batch. How
+ * durable an item has to be before it is considered persisted is set by the queue's {@link Durability}.
+ * <p>
+ * {@link #persist(Object)} returns a {@link Promise} of the index the item was written at, which is fulfilled on the
+ * writer thread once the item is as durable as asked for. Items are polled from and iterated over as with any {@link
+ * PersistentQueue}.
+ * </p>
+ */
+public class GroupCommitPersistentQueue<T> extends PersistentQueue<T> {
+
+	/**
+	 * How durable an item has to be before its {@link Promise} is fulfilled.
+	 */
+	public enum Durability {
+		/**
+		 * As soon as it has been written to the memory-mapped Chronicle, where it survives the process but is left to the
+		 * operating system to write out.
+		 */
+		ASYNC,
+		/**
+		 * Once the Chronicle has been forced out to the storage device, which is done at a fixed period, so a batch
+		 * written within the period shares the cost of forcing it.
+		 */
+		PERIODIC,
+		/**
+		 * Once the Chronicle has been forced out to the storage device, which is done after every batch.
+		 */
+		SYNC
+	}
+
+	private static final AtomicInteger INSTANCE_COUNT = new AtomicInteger();
+
+	private final IndexedChronicleQueuePersistor<T> persistor;
+	private final Durability                        durability;
+	private final long                              flushPeriod;
+	private final BlockingQueue<Pending<T>>         pending       = BlockingQueueFactory.createQueue();
+	private final Pending<T>                        closeMarker   = new Pending<T>(null, null);
+	// persist() holds the read lock while it checks and enqueues, so close() can't put the close marker in between
+	private final ReentrantReadWriteLock            readWriteLock = new ReentrantReadWriteLock();
+	private final Lock                              readLock      = readWriteLock.readLock();
+	private final Lock                              writeLock     = readWriteLock.writeLock();
+	private final Thread                            writer;
+	private volatile boolean closed;
+
+	/**
+	 * Create a {@literal GroupCommitPersistentQueue} that writes to the given {@link IndexedChronicleQueuePersistor} with
+	 * {@link Durability#ASYNC} or {@link Durability#SYNC} durability.
+	 *
+	 * @param persistor
+	 * 		the persistor to write to, which must not be offered items other than by this queue
+	 * @param durability
+	 * 		how durable items have to be before they are considered persisted
+	 */
+	public GroupCommitPersistentQueue(@Nonnull IndexedChronicleQueuePersistor<T> persistor,
+	                                  @Nonnull Durability durability) {
+		this(persistor, durability, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Create a {@literal GroupCommitPersistentQueue} that writes to the given {@link IndexedChronicleQueuePersistor} with
+	 * the given durability. The flush period is only used by {@link Durability#PERIODIC} durability.
+	 *
+	 * @param persistor
+	 * 		the persistor to write to, which must not be offered items other than by this queue
+	 * @param durability
+	 * 		how durable items have to be before they are considered persisted
+	 * @param flushPeriod
+	 * 		how often the Chronicle is forced out to the storage device
+	 * @param unit
+	 * 		the unit of the flush period
+	 */
+	public GroupCommitPersistentQueue(@Nonnull IndexedChronicleQueuePersistor<T> persistor,
+	                                  @Nonnull Durability durability,
+	                                  long flushPeriod,
+	                                  @Nonnull TimeUnit unit) {
+		super(persistor);
+		Assert.notNull(persistor, "IndexedChronicleQueuePersistor cannot be null.");
+		Assert.notNull(durability, "Durability cannot be null.");
+		Assert.isTrue(durability != Durability.PERIODIC || flushPeriod > 0,
+		              "A flush period greater than 0 is required for PERIODIC durability.");
+		this.persistor = persistor;
+		this.durability = durability;
+		this.flushPeriod = unit.toMillis(flushPeriod);
+
+		this.writer = new Thread(new Writer(), "persistent-queue-writer-" + INSTANCE_COUNT.incrementAndGet());
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Persist the given item.
+	 *
+	 * @param obj
+	 * 		the item to persist
+	 *
+	 * @return a {@link Promise} of the index the item was written at, fulfilled once it is as durable as the queue's
+	 * {@link Durability} requires
+	 */
+	public Promise<Long> persist(T obj) {
+		Deferred<Long, Promise<Long>> deferred = Promises.<Long>defer().get();
+		readLock.lock();
+		try {
+			Assert.state(!closed, "GroupCommitPersistentQueue has been closed.");
+			pending.add(new Pending<T>(obj, deferred));
+		} finally {
+			readLock.unlock();
+		}
+		return deferred.compose();
+	}
+
+	/**
+	 * Persist the given item without waiting for it to be written.
+	 *
+	 * @param obj
+	 * 		the item to persist
+	 *
+	 * @return {@literal true}
+	 *
+	 * @see #persist(Object)
+	 */
+	@Override
+	public boolean offer(T obj) {
+		persist(obj);
+		return true;
+	}
+
+	/**
+	 * Stop accepting items, wait for the ones already accepted to be persisted and stop the writer thread. The
+	 * underlying {@link IndexedChronicleQueuePersistor} is left open.
+	 */
+	public void close() {
+		writeLock.lock();
+		try {
+			if(closed) {
+				return;
+			}
+			closed = true;
+			pending.add(closeMarker);
+		} finally {
+			writeLock.unlock();
+		}
+		try {
+			writer.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// every item was accepted before the close marker, but a writer that was interrupted leaves some of them behind
+		List<Pending<T>> abandoned = new ArrayList<Pending<T>>();
+		pending.drainTo(abandoned);
+		for(Pending<T> p : abandoned) {
+			if(p != closeMarker) {
+				p.deferred.accept(new IllegalStateException("GroupCommitPersistentQueue has been closed."));
+			}
+		}
+	}
+
+	private static class Pending<T> {
+		private final T                             obj;
+		private final Deferred<Long, Promise<Long>> deferred;
+		private       long                          id;
+
+		private Pending(T obj, Deferred<Long, Promise<Long>> deferred) {
+			this.obj = obj;
+			this.deferred = deferred;
+		}
+	}
+
+	private class Writer implements Runnable {
+		private final List<Pending<T>> batch    = new ArrayList<Pending<T>>();
+		private final List<Pending<T>> unsynced = new ArrayList<Pending<T>>();
+		private       long             lastSync = System.currentTimeMillis();
+
+		@Override
+		public void run() {
+			boolean running = true;
+			while(running) {
+				try {
+					Pending<T> next;
+					if(durability == Durability.PERIODIC && !unsynced.isEmpty()) {
+						long untilSync = lastSync + flushPeriod - System.currentTimeMillis();
+						next = pending.poll(Math.max(0, untilSync), TimeUnit.MILLISECONDS);
+					} else {
+						next = pending.take();
+					}
+					if(null != next) {
+						batch.add(next);
+						pending.drainTo(batch);
+					}
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					running = false;
+				}
+
+				for(Pending<T> p : batch) {
+					if(p == closeMarker) {
+						running = false;
+						continue;
+					}
+					try {
+						p.id = persistor.offer().apply(p.obj);
+						unsynced.add(p);
+					} catch(Throwable t) {
+						p.deferred.accept(t);
+					}
+				}
+				batch.clear();
+
+				if(!unsynced.isEmpty() && isTimeToSync(running)) {
+					commit();
+				}
+			}
+		}
+
+		private boolean isTimeToSync(boolean running) {
+			switch(durability) {
+				case PERIODIC:
+					return !running || System.currentTimeMillis() - lastSync >= flushPeriod;
+				default:
+					return true;
+			}
+		}
+
+		private void commit() {
+			Throwable error = null;
+			if(durability != Durability.ASYNC) {
+				try {
+					persistor.sync();
+				} catch(Throwable t) {
+					error = t;
+				}
+				lastSync = System.currentTimeMillis();
+			}
+			for(Pending<T> p : unsynced) {
+				if(null == error) {
+					p.deferred.accept(p.id);
+				} else {
+					p.deferred.accept(error);
+				}
+			}
+			unsynced.clear();
+		}
+	}
+
+}
@@ -5,6 +5,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.MappedByteBuffer;
 import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
@@ -33,14 +34,14 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 	private final        AtomicLong lastId = new AtomicLong();
 	private final String                  basePath;
 	private final boolean                 deleteOnExit;
-	private final Function<T, Buffer>     encoder;
-	private final Function<Buffer, T>     decoder;
+	private final ExcerptCodec<T>         codec;
 	private final ChronicleOfferFunction  offerFun;
 	private final ChronicleGetFunction    getFun;
 	private final ChronicleRemoveFunction removeFun;
 
 	/**
-	 * Create an {@link IndexedChronicleQueuePersistor} based on the given base path.
+	 * Create an {@link IndexedChronicleQueuePersistor} based on the given base path, which persists items with a {@link
+	 * CompactExcerptCodec}.
 	 *
 	 * @param basePath
 	 * 		Directory in which to create the Chronicle.
@@ -48,19 +49,20 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 	 * @throws IOException
 	 */
 	public IndexedChronicleQueuePersistor(@Nonnull String basePath) throws IOException {
-		this(basePath, null, null, true, false);
+		this(basePath, null, true, false);
 	}
 
 	/**
 	 * Create an {@link IndexedChronicleQueuePersistor} based on the given base path, encoder and decoder. Optionally,
-	 * passing {@literal false} to {@code clearOnStart} skips clearing the Chronicle on start for appending.
+	 * passing {@literal false} to {@code clearOnStart} skips clearing the Chronicle on start for appending. Items are
+	 * written as the length of their encoded {@link Buffer} followed by its content.
 	 *
 	 * @param basePath
 	 * 		Directory in which to create the Chronicle.
 	 * @param encoder
-	 * 		Encoder to turn objects into a {@link Buffer}.
+	 * 		Encoder to turn objects into a {@link Buffer}, or {@literal null} to use Java serialization.
 	 * @param decoder
-	 * 		Decoder to turn {@link Buffer Buffers} into an object.
+	 * 		Decoder to turn {@link Buffer Buffers} into an object, or {@literal null} to use Java serialization.
 	 * @param clearOnStart
 	 * 		Whether or not to clear the Chronicle on start.
 	 * @param deleteOnExit
@@ -73,12 +75,35 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 	                                      @Nullable Function<Buffer, T> decoder,
 	                                      boolean clearOnStart,
 	                                      boolean deleteOnExit) throws IOException {
+		this(basePath, new BufferExcerptCodec<T>(encoder, decoder), clearOnStart, deleteOnExit);
+	}
+
+	/**
+	 * Create an {@link IndexedChronicleQueuePersistor} based on the given base path and {@link ExcerptCodec}, which
+	 * writes items straight into the Chronicle. Optionally, passing {@literal false} to {@code clearOnStart} skips
+	 * clearing the Chronicle on start for appending.
+	 *
+	 * @param basePath
+	 * 		Directory in which to create the Chronicle.
+	 * @param codec
+	 * 		Codec to write objects to and read them from the Chronicle, or {@literal null} for a {@link
+	 * 		CompactExcerptCodec}.
+	 * @param clearOnStart
+	 * 		Whether or not to clear the Chronicle on start.
+	 * @param deleteOnExit
+	 * 		Whether or not to delete the Chronicle when the program exits.
+	 *
+	 * @throws IOException
+	 */
+	public IndexedChronicleQueuePersistor(@Nonnull String basePath,
+	                                      @Nullable ExcerptCodec<T> codec,
+	                                      boolean clearOnStart,
+	                                      boolean deleteOnExit) throws IOException {
 		this.basePath = basePath;
-		this.encoder = (null == encoder ? new SerializableEncoder<T>() : encoder);
-		this.decoder = (null == decoder ? new SerializableDecoder<T>() : decoder);
+		this.codec = (null == codec ? new CompactExcerptCodec<T>() : codec);
 		this.deleteOnExit = deleteOnExit;
 
-		this.offerFun = new ChronicleOfferFunction(new IndexedChronicle(basePath));
+		this.offerFun = new ChronicleOfferFunction(new SyncableIndexedChronicle(basePath));
 		if(clearOnStart) {
 			this.offerFun.chronicle.clear();
 		}
@@ -106,6 +131,15 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 		}
 	}
 
+	/**
+	 * Force the items offered since the last sync out of the memory-mapped Chronicle files and onto the storage device,
+	 * so they survive a crash of the operating system and not just of the process. Like the {@link #offer()} function,
+	 * this must not be called concurrently with offering items.
+	 */
+	public void sync() {
+		offerFun.sync();
+	}
+
 	@Override public long lastId() {
 		return lastId.get();
 	}
@@ -159,17 +193,14 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 			return null;
 		}
 
-		int len = -1;
 		try {
-			len = ex.readInt();
-			byte[] bytes = new byte[len];
-			ex.read(bytes);
+			T obj = codec.decode(ex);
 			ex.finish();
 
-			return decoder.apply(Buffer.wrap(bytes));
+			return obj;
 		} catch(Throwable t) {
 			if(LOG.isDebugEnabled()) {
-				LOG.debug("Asked to read: " + len + "b from index " + ex.index());
+				LOG.debug("Asked to read: " + ex.remaining() + "b from index " + ex.index());
 				LOG.debug(t.getMessage(), t);
 			}
 			return null;
@@ -177,23 +208,24 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 	}
 
 	private class ChronicleOfferFunction implements Function<T, Long> {
-		private final IndexedChronicle chronicle;
-		private final Excerpt          ex;
+		private final SyncableIndexedChronicle chronicle;
+		private final Excerpt                  ex;
+		private       long                     firstUnsynced = -1;
 
-		private ChronicleOfferFunction(IndexedChronicle chronicle) {
+		private ChronicleOfferFunction(SyncableIndexedChronicle chronicle) {
 			this.chronicle = chronicle;
 			this.ex = chronicle.createExcerpt();
 		}
 
 		@Override public Long apply(T t) {
-			Buffer buff = encoder.apply(t);
-
-			ex.startExcerpt(4 + buff.remaining());
-			ex.writeInt(buff.remaining());
-			ex.write(buff.asBytes());
+			ex.startExcerpt(codec.maxSize(t));
+			codec.encode(t, ex);
 
 			count.incrementAndGet();
 			lastId.set(ex.index());
+			if(firstUnsynced < 0) {
+				firstUnsynced = ex.index();
+			}
 
 			ex.finish();
 
@@ -203,6 +235,14 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 
 			return lastId();
 		}
+
+		private void sync() {
+			if(firstUnsynced < 0) {
+				return;
+			}
+			chronicle.force(firstUnsynced, lastId.get());
+			firstUnsynced = -1;
+		}
 	}
 
 	private class ChronicleGetFunction implements Function<Long, T> {
@@ -238,6 +278,74 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 		}
 	}
 
+	/**
+	 * An {@link IndexedChronicle} that can force the excerpts in a range of indexes out to the storage device.
+	 */
+	private static class SyncableIndexedChronicle extends IndexedChronicle {
+		private SyncableIndexedChronicle(String basePath) throws IOException {
+			super(basePath);
+		}
+
+		private void force(long fromIndex, long toIndex) {
+			// the index entry of an excerpt holds its start and the next entry its end, while the excerpt itself lies
+			// within a single data buffer, so forcing the distinct buffers those positions fall in covers the range
+			MappedByteBuffer lastIndexBuffer = null;
+			MappedByteBuffer lastDataBuffer = null;
+			for(long index = fromIndex; index <= toIndex + 1; index++) {
+				MappedByteBuffer indexBuffer = acquireIndexBuffer(index << indexBitSize());
+				if(indexBuffer != lastIndexBuffer) {
+					indexBuffer.force();
+					lastIndexBuffer = indexBuffer;
+				}
+				if(index <= toIndex) {
+					MappedByteBuffer dataBuffer = acquireDataBuffer(getIndexData(index));
+					if(dataBuffer != lastDataBuffer) {
+						dataBuffer.force();
+						lastDataBuffer = dataBuffer;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adapts an encoder and a decoder of {@link Buffer Buffers} to an {@link ExcerptCodec}, writing the length of the
+	 * encoded {@link Buffer} followed by its content.
+	 */
+	private static class BufferExcerptCodec<T> implements ExcerptCodec<T> {
+		private final Function<T, Buffer> encoder;
+		private final Function<Buffer, T> decoder;
+		// the item encoded by maxSize(), which encode() is about to be asked to write
+		private       T                   lastItem;
+		private       Buffer              lastEncoded;
+
+		private BufferExcerptCodec(@Nullable Function<T, Buffer> encoder, @Nullable Function<Buffer, T> decoder) {
+			this.encoder = (null == encoder ? new SerializableEncoder<T>() : encoder);
+			this.decoder = (null == decoder ? new SerializableDecoder<T>() : decoder);
+		}
+
+		@Override public int maxSize(T obj) {
+			lastItem = obj;
+			lastEncoded = encoder.apply(obj);
+			return 4 + lastEncoded.remaining();
+		}
+
+		@Override public void encode(T obj, Excerpt excerpt) {
+			Buffer buff = (obj == lastItem && null != lastEncoded ? lastEncoded : encoder.apply(obj));
+			lastItem = null;
+			lastEncoded = null;
+
+			excerpt.writeInt(buff.remaining());
+			excerpt.write(buff.byteBuffer());
+		}
+
+		@Override public T decode(Excerpt excerpt) {
+			byte[] bytes = new byte[excerpt.readInt()];
+			excerpt.readFully(bytes);
+			return decoder.apply(Buffer.wrap(bytes));
+		}
+	}
+
 	private static class SerializableEncoder<T> implements Function<T, Buffer> {
 		@Override public Buffer apply(T t) {
 			ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -3,6 +3,7 @@ package reactor.queue.spec;
 import java.io.IOException;
 
 import reactor.function.Supplier;
+import reactor.queue.ExcerptCodec;
 import reactor.queue.InMemoryQueuePersistor;
 import reactor.queue.IndexedChronicleQueuePersistor;
 import reactor.queue.PersistentQueue;
@@ -18,15 +19,19 @@ public class PersistentQueueSpec<T> implements Supplier<PersistentQueue<T>> {
 	private PersistentQueue<T> queue;
 
 	public PersistentQueueSpec<T> inMemory() {
-		Assert.isNull(queue, "PersistentQueue type already set (" + queue.getClass().getName() + ")");
+		Assert.isNull(queue, "PersistentQueue type already set (" + queue + ")");
 		this.queue = new PersistentQueue<T>(new InMemoryQueuePersistor<T>());
 		return this;
 	}
 
 	public PersistentQueueSpec<T> indexedChronicle(String basePath) {
-		Assert.isNull(queue, "PersistentQueue type already set (" + queue.getClass().getName() + ")");
+		return indexedChronicle(basePath, null);
+	}
+
+	public PersistentQueueSpec<T> indexedChronicle(String basePath, ExcerptCodec<T> codec) {
+		Assert.isNull(queue, "PersistentQueue type already set (" + queue + ")");
 		try {
-			this.queue = new PersistentQueue<T>(new IndexedChronicleQueuePersistor<T>(basePath));
+			this.queue = new PersistentQueue<T>(new IndexedChronicleQueuePersistor<T>(basePath, codec, true, false));
 		} catch(IOException e) {
 			throw new IllegalArgumentException(e.getMessage(), e);
 		}
@@ -18,10 +18,12 @@
 
 package reactor.io
 
+import reactor.function.Consumer
 import spock.lang.Specification
 
 import java.nio.BufferOverflowException
 import java.nio.ByteBuffer
+import java.nio.channels.Channels
 
 /**
  * @author Jon Brisbin
@@ -381,4 +383,233 @@ class BufferSpec extends Specification {
 		copy.asString() == "Hello World!"
 	}
 
+	def "A dynamic Buffer grows geometrically to fit its content"() {
+		given: "an empty dynamic Buffer"
+		def buffer = new Buffer()
+
+		when: "more than a small buffer's worth of data is appended at once"
+		buffer.append(new byte[Buffer.SMALL_BUFFER_SIZE + 1])
+
+		then: "the Buffer grew to hold it"
+		buffer.position() == Buffer.SMALL_BUFFER_SIZE + 1
+
+		when: "the Buffer is grown past its capacity again"
+		def capacity = buffer.capacity()
+		buffer.append(new byte[capacity - buffer.position() + 1])
+
+		then: "the capacity at least doubled"
+		buffer.capacity() >= capacity * 2
+	}
+
+	def "A pooled Buffer can be allocated and released"() {
+		when: "a Buffer is allocated from the pool"
+		def buffer = Buffer.allocate(1000)
+
+		then: "its capacity is rounded up to a power of two and it is ready for writing"
+		buffer.capacity() == 1024
+		buffer.position() == 0
+		buffer.isDynamic()
+
+		when: "the Buffer is written to, released and released again"
+		buffer.append("Hello World!")
+		Buffer.release(buffer)
+		Buffer.release(buffer)
+		Buffer.release(null)
+
+		then: "its storage was handed back"
+		buffer.byteBuffer() == null
+	}
+
+	def "A Buffer with headroom prepends in place"() {
+		given: "a pooled Buffer with 8 bytes of headroom"
+		def buffer = Buffer.allocate(64, 8).append("Hello World!").flip()
+		def content = buffer.byteBuffer().array()
+
+		expect: "the content starts after the headroom"
+		buffer.headroom() == 8
+		buffer.position() == 8
+		buffer.asString() == "Hello World!"
+
+		when: "an int is prepended"
+		buffer.prepend(12)
+
+		then: "it was written into the headroom and the content did not move"
+		buffer.headroom() == 4
+		buffer.position() == 4
+		buffer.byteBuffer().array().is(content)
+		new String(content, 8, 12) == "Hello World!"
+		buffer.readInt() == 12
+		buffer.asString() == "Hello World!"
+	}
+
+	def "A direct Buffer keeps its content off-heap as it grows"() {
+		given: "a pooled direct Buffer"
+		def buffer = Buffer.allocateDirect(256, 4)
+
+		expect: "it is direct and pooled"
+		buffer.isDirect()
+		buffer.isPooled()
+
+		when: "more is appended than it can hold"
+		buffer.append(new byte[300]).append("Hello World!").flip()
+
+		then: "it grew and is still direct"
+		buffer.capacity() >= 316
+		buffer.isDirect()
+		buffer.remaining() == 312
+		buffer.substring(buffer.position() + 300, buffer.limit()) == "Hello World!"
+
+		when: "a length is prepended and the Buffer is released"
+		buffer.prepend(312)
+		def length = buffer.readInt()
+		Buffer.release(buffer)
+
+		then: "the length was written into the headroom and the storage was handed back"
+		length == 312
+		!buffer.isPooled()
+		buffer.byteBuffer() == null
+	}
+
+	def "A CompositeBuffer joins Buffers without copying them"() {
+		given: "a payload and a CompositeBuffer around it"
+		def payload = Buffer.wrap("Hello World!")
+		def composite = new CompositeBuffer(payload).prepend(12).append((byte) 10)
+
+		expect: "the content is readable as one Buffer, made up of the original segments"
+		!composite.isFlattened()
+		composite.remaining() == 17
+		composite.byteBuffers().length == 3
+		composite.byteBuffers()[1].array().is(payload.byteBuffer().array())
+		composite.asString() == "\u0000\u0000\u0000\u000CHello World!\n"
+
+		when: "it is written to a channel"
+		def out = new ByteArrayOutputStream()
+		def written = composite.writeTo(Channels.newChannel(out))
+
+		then: "every segment was written"
+		written == 17
+		out.toByteArray().length == 17
+
+		when: "it is read from like any other Buffer"
+		composite = new CompositeBuffer(payload).prepend(12)
+		def length = composite.readInt()
+
+		then: "it was flattened first"
+		composite.isFlattened()
+		length == 12
+		composite.asString() == "Hello World!"
+	}
+
+	def "A slice shares memory with its Buffer but has its own position and limit"() {
+		given: "a Buffer and a slice of it"
+		def buff = Buffer.wrap("Hello World!")
+		def slice = buff.slice(6, 5)
+
+		expect: "the slice covers the range"
+		slice.position() == 0
+		slice.limit() == 5
+		slice.asString() == "World"
+
+		when: "the slice is read from and its content changed"
+		slice.read()
+		slice.byteBuffer().put(0, (byte) 119)
+
+		then: "the Buffer's position did not move but its content changed"
+		buff.position() == 0
+		buff.asString() == "Hello world!"
+	}
+
+	def "Getting a View leaves its Buffer untouched"() {
+		given: "a Buffer and two views of it"
+		def buff = Buffer.wrap("Hello World!")
+		def hello = buff.createView(0, 5)
+		def world = buff.createView(6, 11)
+
+		when: "both views are used"
+		def h = hello.get()
+		def w = world.get()
+
+		then: "each has its own range and the Buffer is untouched"
+		h.asString() == "Hello"
+		w.asString() == "World"
+		buff.position() == 0
+		buff.limit() == 12
+
+		when: "a view is moved to another range"
+		def again = hello.set(6, 11).get()
+
+		then: "the same Buffer is reused for the new range"
+		again.is(h)
+		again.asString() == "World"
+	}
+
+	def "A Buffer can be split by a callback that reuses a single View"() {
+		given: "a Buffer of lines with a partial line at the end"
+		def buff = Buffer.wrap("One\nTwo\nThree\nFo")
+		def lines = []
+		def views = [] as Set
+
+		when: "the Buffer is split"
+		def count = buff.split(10, true, { view ->
+			views << view
+			lines << view.get().asString()
+		} as Consumer<Buffer.View>)
+
+		then: "every complete line was handed over in the same View"
+		count == 3
+		lines == ['One', 'Two', 'Three']
+		views.size() == 1
+
+		and: "the partial line is left in the Buffer"
+		buff.asString() == "Fo"
+	}
+
+	def "A Buffer can find bytes and sequences of bytes"() {
+		expect: "the first occurrence is found, from the position or from a given index"
+		buff.indexOf((byte) 10) == 13
+		buff.indexOf((byte) 10, 14, buff.limit()) == 27
+		buff.indexOf((byte) 63) == -1
+		buff.indexOf([13, 10] as byte[]) == 12
+		buff.indexOf([13, 10] as byte[], 13, buff.limit()) == 26
+		buff.indexOf([10, 13] as byte[]) == -1
+
+		where: "the Buffer is on the heap or direct"
+		buff << [Buffer.wrap("Hello World!\r\nHello World!\r\n"),
+		         Buffer.allocateDirect(64).append("Hello World!\r\nHello World!\r\n").flip()]
+	}
+
+	def "A Buffer can format and parse numbers in place"() {
+		given: "a Buffer with numbers appended as text"
+		def buff = new Buffer().appendAscii("pri=").appendDecimal(-42).appendAscii(" ts=").appendDecimal(Long.MAX_VALUE).flip()
+
+		expect: "the text was appended"
+		buff.asString() == "pri=-42 ts=9223372036854775807"
+
+		and: "the numbers can be parsed back without moving the position"
+		buff.parseInt(4, 7) == -42
+		buff.parseLong(11, buff.limit()) == Long.MAX_VALUE
+		buff.position() == 0
+
+		when: "something that is not a number is parsed"
+		buff.parseInt(0, 3)
+
+		then: "a NumberFormatException is thrown"
+		thrown(NumberFormatException)
+	}
+
+	def "A Buffer can map a region of a file"() {
+		given: "a file"
+		def file = File.createTempFile("buffer-spec", ".txt")
+		file.deleteOnExit()
+		file.text = "Hello World!"
+
+		when: "a region of it is mapped"
+		def buff = Buffer.map(file, 6, 5)
+
+		then: "the Buffer holds that region, off the heap"
+		buff.isDirect()
+		buff.remaining() == 5
+		buff.asString() == "World"
+	}
+
 }
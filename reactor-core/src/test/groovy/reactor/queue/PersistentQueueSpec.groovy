@@ -16,8 +16,14 @@
 
 package reactor.queue
 
+import reactor.core.composable.Promise
 import spock.lang.Specification
 
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
 /**
  * @author Jon Brisbin
  */
@@ -46,4 +52,95 @@ class PersistentQueueSpec extends Specification {
 
   }
 
+  def "GroupCommitPersistentQueue persists items offered from many threads"() {
+
+    given:
+      "a GroupCommitPersistentQueue"
+      def persistor = new IndexedChronicleQueuePersistor<String>("./group-commit-queue", null, true, true)
+      def q = new GroupCommitPersistentQueue<String>(persistor, durability, 10, TimeUnit.MILLISECONDS)
+      def promises = new CopyOnWriteArrayList<Promise<Long>>()
+      def pool = Executors.newFixedThreadPool(4)
+
+    when:
+      "items are persisted from several threads"
+      4.times { t ->
+        pool.submit {
+          250.times { i -> promises << q.persist("test $t $i".toString()) }
+        }
+      }
+      pool.shutdown()
+      pool.awaitTermination(5, TimeUnit.SECONDS)
+      def ids = promises.collect { it.await(5, TimeUnit.SECONDS) } as Set
+
+    then:
+      "every item was given its own index"
+      ids.size() == 1000
+      !ids.contains(null)
+
+    when:
+      "the items are polled"
+      def count = 0
+      while (null != q.poll()) {
+        ++count
+      }
+
+    then:
+      "all of them were written"
+      count == 1000
+
+    cleanup:
+      q.close()
+      persistor.close()
+
+    where:
+      durability << GroupCommitPersistentQueue.Durability.values()
+
+  }
+
+  def "GroupCommitPersistentQueue completes every item persisted while it is being closed"() {
+
+    given:
+      "a GroupCommitPersistentQueue"
+      def persistor = new IndexedChronicleQueuePersistor<String>("./group-commit-queue", null, true, true)
+      def q = new GroupCommitPersistentQueue<String>(persistor, GroupCommitPersistentQueue.Durability.ASYNC)
+      def promises = new CopyOnWriteArrayList<Promise<Long>>()
+      def start = new CountDownLatch(1)
+      def pool = Executors.newFixedThreadPool(4)
+
+    when:
+      "items are persisted from several threads while the queue is closed"
+      4.times { t ->
+        pool.submit {
+          start.await()
+          try {
+            1000.times { i -> promises << q.persist("test $t $i".toString()) }
+          } catch (IllegalStateException closed) {
+            // the queue was closed, so the remaining items are refused
+          }
+        }
+      }
+      start.countDown()
+      q.close()
+      pool.shutdown()
+      pool.awaitTermination(5, TimeUnit.SECONDS)
+      promises.each { p ->
+        try {
+          p.await(1, TimeUnit.SECONDS)
+        } catch (RuntimeException closed) {
+          // the item was accepted but failed because the queue was closed
+        }
+      }
+
+    then:
+      "every accepted item was either written or failed"
+      promises.every { it.complete }
+
+    cleanup:
+      persistor.close()
+
+    where:
+      round << (1..20)
+
+  }
+
 }
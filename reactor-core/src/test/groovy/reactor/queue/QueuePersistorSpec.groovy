@@ -16,6 +16,9 @@
 
 package reactor.queue
 
+import com.higherfrequencytrading.chronicle.Excerpt
+import reactor.function.Function
+import reactor.io.Buffer
 import spock.lang.Specification
 
 /**
@@ -82,4 +85,126 @@ class QueuePersistorSpec extends Specification {
 
   }
 
+  def "IndexedChronicleQueuePersistor persists common types with the compact codec"() {
+
+    given:
+      "an IndexedChronicleQueuePersistor"
+      def persistor = new IndexedChronicleQueuePersistor("./queue-persistor")
+
+    when:
+      "an object is persisted"
+      def id = persistor.offer().apply(obj)
+
+    then:
+      "the same object is read back"
+      def read = persistor.get().apply(id)
+      read.getClass() == obj.getClass()
+      read == obj
+
+    cleanup:
+      persistor.close()
+
+    where:
+      obj << ["", "Hello W\u00f6rld!", 42, -42L, 4.2d, 4.2f, (short) 4, (byte) 4, 'c' as Character, true,
+              new Date(0)]
+
+  }
+
+  def "IndexedChronicleQueuePersistor persists Buffers and byte arrays with the compact codec"() {
+
+    given:
+      "an IndexedChronicleQueuePersistor"
+      def persistor = new IndexedChronicleQueuePersistor("./queue-persistor")
+      def bytes = new byte[1000]
+      new Random().nextBytes(bytes)
+
+    when:
+      "a Buffer and a byte array are persisted"
+      def bufferId = persistor.offer().apply(Buffer.wrap(bytes))
+      def bytesId = persistor.offer().apply(bytes)
+
+    then:
+      "their content is read back"
+      persistor.get().apply(bufferId).asBytes() == bytes
+      persistor.get().apply(bytesId) == bytes
+
+    cleanup:
+      persistor.close()
+
+  }
+
+  def "IndexedChronicleQueuePersistor serializes objects when given neither an encoder nor a decoder"() {
+
+    given:
+      "an IndexedChronicleQueuePersistor without an encoder or decoder, and a reader that deserializes"
+      def persistor = new IndexedChronicleQueuePersistor<Object>("./queue-persistor", null, null, true, false)
+      def reader = new IndexedChronicleQueuePersistor<Object>(
+          "./queue-persistor",
+          null,
+          { Buffer b -> new ObjectInputStream(new ByteArrayInputStream(b.asBytes())).readObject() } as Function<Buffer, Object>,
+          false,
+          false
+      )
+
+    when:
+      "an object is persisted"
+      def id = persistor.offer().apply("Hello World!")
+
+    then:
+      "it was written with Java serialization"
+      reader.get().apply(id) == "Hello World!"
+
+    cleanup:
+      reader.close()
+      persistor.close()
+
+  }
+
+  def "IndexedChronicleQueuePersistor persists objects with a custom codec"() {
+
+    given:
+      "an IndexedChronicleQueuePersistor with a codec for Longs"
+      def codec = [
+          maxSize: { Long l -> 8 },
+          encode : { Long l, Excerpt ex -> ex.writeLong(l) },
+          decode : { Excerpt ex -> ex.readLong() }
+      ] as ExcerptCodec<Long>
+      def persistor = new IndexedChronicleQueuePersistor<Long>("./queue-persistor", codec, true, false)
+
+    when:
+      "an object is persisted"
+      def id = persistor.offer().apply(Long.MAX_VALUE)
+
+    then:
+      "the object is read back"
+      persistor.get().apply(id) == Long.MAX_VALUE
+
+    cleanup:
+      persistor.close()
+
+  }
+
+  def "CompactExcerptCodec doesn't size an offer with bytes left behind by an earlier one"() {
+
+    given:
+      "a compact codec that sized a list for an offer that never encoded it"
+      def codec = new CompactExcerptCodec<Object>()
+      def persistor = new IndexedChronicleQueuePersistor<Object>("./queue-persistor", codec, true, false)
+      def list = new ArrayList<Integer>()
+      codec.maxSize(list)
+
+    when:
+      "the list grows and is then persisted"
+      (0..<1000).each { list << it }
+      def id = persistor.offer().apply(list)
+
+    then:
+      "the whole list is read back"
+      persistor.get().apply(id) == list
+
+    cleanup:
+      persistor.close()
+
+  }
+
 }
@@ -16,6 +16,7 @@
 
 package reactor;
 
+import org.junit.After;
 import org.junit.Before;
 import reactor.core.Environment;
 
@@ -31,4 +32,9 @@ public abstract class AbstractReactorTest {
 		env = new Environment();
 	}
 
+	@After
+	public void shutdownEnv() {
+		env.shutdown();
+	}
+
 }
@@ -16,7 +16,11 @@
 
 package reactor.core;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.OrderingComparison.greaterThanOrEqualTo;
+import static org.hamcrest.number.OrderingComparison.lessThan;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -68,4 +72,40 @@ public class AwaitTests extends AbstractReactorTest {
 		}
 	}
 
+	@Test
+	public void testAwaitWakesPromptlyOnCompletion() throws InterruptedException {
+		ThreadPoolExecutorDispatcher dispatcher = new ThreadPoolExecutorDispatcher(4, 64);
+		Reactor innerReactor = Reactors.reactor().env(env).dispatcher(dispatcher).get();
+
+		long slowest = 0;
+		for (int i = 0; i < 100; i++) {
+			final Deferred<String, Promise<String>> deferred = Promises.<String>defer().get();
+			Reactors.schedule(new Consumer() {
+				@Override
+				public void accept(Object t) {
+					deferred.accept("foo");
+				}
+			}, null, innerReactor);
+
+			long start = System.nanoTime();
+			assertThat(deferred.compose().await(5, TimeUnit.SECONDS), is("foo"));
+			slowest = Math.max(slowest, System.nanoTime() - start);
+		}
+		assertThat("no await lagged behind completion",
+		           TimeUnit.NANOSECONDS.toMillis(slowest),
+		           lessThan(150L));
+	}
+
+	@Test
+	public void testAwaitReturnsNullWhenTimedOut() throws InterruptedException {
+		Promise<String> promise = Promises.<String>defer().get().compose();
+
+		long start = System.nanoTime();
+		assertThat(promise.await(50, TimeUnit.MILLISECONDS), is(nullValue()));
+		assertThat("await waited for the timeout",
+		           TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+		           greaterThanOrEqualTo(50L));
+		assertThat(promise.isPending(), is(true));
+	}
+
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.OrderingComparison.greaterThanOrEqualTo;
+import static org.hamcrest.number.OrderingComparison.lessThan;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import reactor.event.dispatch.Dispatcher;
+import reactor.event.dispatch.ThreadPoolExecutorDispatcher;
+import reactor.event.registry.Registration;
+import reactor.function.Consumer;
+
+public class HashWheelTimerTests {
+
+	// 4 buckets of 5ms: the inner wheel spans 20ms and the overflow wheel 80ms
+	private final HashWheelTimer timer = new HashWheelTimer(5, 4);
+
+	@After
+	public void cancelTimer() {
+		timer.cancel();
+	}
+
+	private long fireAfter(long delay) throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		long start = System.currentTimeMillis();
+		timer.submit(new Consumer<Long>() {
+			@Override
+			public void accept(Long now) {
+				latch.countDown();
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+		assertThat("the task fired", latch.await(delay + 1000, TimeUnit.MILLISECONDS), is(true));
+		return System.currentTimeMillis() - start;
+	}
+
+	@Test
+	public void testSubmittedTaskFiresAfterItsDelay() throws InterruptedException {
+		assertThat(fireAfter(10), is(greaterThanOrEqualTo(10L)));
+	}
+
+	@Test
+	public void testDelayBeyondTheInnerWheelIsCascaded() throws InterruptedException {
+		long elapsed = fireAfter(50);
+		assertThat(elapsed, is(greaterThanOrEqualTo(50L)));
+		assertThat(elapsed, is(lessThan(500L)));
+	}
+
+	@Test
+	public void testDelayBeyondTheOverflowWheelCountsRounds() throws InterruptedException {
+		long elapsed = fireAfter(200);
+		assertThat(elapsed, is(greaterThanOrEqualTo(200L)));
+		assertThat(elapsed, is(lessThan(700L)));
+	}
+
+	@Test
+	public void testCancelledTaskNeverFires() throws InterruptedException {
+		final AtomicInteger fired = new AtomicInteger();
+		Consumer<Long> count = new Consumer<Long>() {
+			@Override
+			public void accept(Long now) {
+				fired.incrementAndGet();
+			}
+		};
+		Registration<? extends Consumer<Long>> inner = timer.submit(count, 10, TimeUnit.MILLISECONDS);
+		Registration<? extends Consumer<Long>> overflow = timer.submit(count, 60, TimeUnit.MILLISECONDS);
+		inner.cancel();
+		overflow.cancel();
+
+		fireAfter(100);
+		assertThat(fired.get(), is(0));
+	}
+
+	@Test
+	public void testScheduledTaskRepeatsUntilCancelled() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(5);
+		final AtomicInteger fired = new AtomicInteger();
+		Registration<? extends Consumer<Long>> reg = timer.schedule(new Consumer<Long>() {
+			@Override
+			public void accept(Long now) {
+				fired.incrementAndGet();
+				latch.countDown();
+			}
+		}, 25, TimeUnit.MILLISECONDS, 25);
+
+		assertThat("the task repeated", latch.await(1, TimeUnit.SECONDS), is(true));
+		reg.cancel();
+		// let a firing that was already under way finish on the timer thread
+		fireAfter(10);
+		int firedWhenCancelled = fired.get();
+
+		fireAfter(100);
+		assertThat(fired.get(), is(firedWhenCancelled));
+	}
+
+	@Test
+	public void testTimeSpentFiringDoesNotDelayLaterTicks() throws InterruptedException {
+		final AtomicInteger fired = new AtomicInteger();
+		Registration<? extends Consumer<Long>> reg = timer.schedule(new Consumer<Long>() {
+			@Override
+			public void accept(Long now) {
+				fired.incrementAndGet();
+				try {
+					Thread.sleep(3);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, 5, TimeUnit.MILLISECONDS);
+
+		Thread.sleep(500);
+		reg.cancel();
+		// 3ms of work in each 5ms tick would have stretched every period to 8ms, or about 62 firings
+		assertThat(fired.get(), is(greaterThanOrEqualTo(85)));
+	}
+
+	@Test
+	public void testSubMillisecondResolutionWithParking() throws InterruptedException {
+		HashWheelTimer fine = new HashWheelTimer(100, TimeUnit.MICROSECONDS, 512, HashWheelTimer.WaitStrategy.PARK);
+		try {
+			assertThat(fine.getResolution(TimeUnit.MICROSECONDS), is(100L));
+
+			final AtomicInteger fired = new AtomicInteger();
+			Registration<? extends Consumer<Long>> reg = fine.schedule(new Consumer<Long>() {
+				@Override
+				public void accept(Long now) {
+					fired.incrementAndGet();
+				}
+			}, 200, TimeUnit.MICROSECONDS);
+
+			Thread.sleep(200);
+			reg.cancel();
+			// one firing every 200us would be 1000; a millisecond timer could manage at most 200
+			assertThat(fired.get(), is(greaterThanOrEqualTo(400)));
+		} finally {
+			fine.cancel();
+		}
+	}
+
+	@Test
+	public void testBusySpinTimerFiresSubMillisecondDelays() throws InterruptedException {
+		HashWheelTimer spinning = new HashWheelTimer(50, TimeUnit.MICROSECONDS, 512, HashWheelTimer.WaitStrategy.BUSY_SPIN);
+		try {
+			final CountDownLatch latch = new CountDownLatch(1);
+			long start = System.nanoTime();
+			spinning.submit(new Consumer<Long>() {
+				@Override
+				public void accept(Long now) {
+					latch.countDown();
+				}
+			}, 300, TimeUnit.MICROSECONDS);
+			assertThat("the task fired", latch.await(1, TimeUnit.SECONDS), is(true));
+			assertThat(System.nanoTime() - start, is(greaterThanOrEqualTo(TimeUnit.MICROSECONDS.toNanos(300))));
+		} finally {
+			spinning.cancel();
+		}
+	}
+
+	@Test
+	public void testSlowDispatchedTaskDoesNotHoldUpTheTimer() throws InterruptedException {
+		Dispatcher dispatcher = new ThreadPoolExecutorDispatcher(1, 64, "hash-wheel-timer-tests");
+		try {
+			timer.submit(sleep(300), 5, TimeUnit.MILLISECONDS, dispatcher);
+			Thread.sleep(20);
+
+			assertThat(fireAfter(10), is(lessThan(200L)));
+			assertThat(timer.getMaxLag(TimeUnit.MILLISECONDS), is(lessThan(200L)));
+		} finally {
+			dispatcher.shutdown();
+		}
+	}
+
+	@Test
+	public void testSlowTaskOnTheTimerThreadShowsAsLag() throws InterruptedException {
+		timer.submit(sleep(300), 5, TimeUnit.MILLISECONDS);
+		Thread.sleep(20);
+
+		assertThat(fireAfter(10), is(greaterThanOrEqualTo(200L)));
+		assertThat(timer.getMaxLag(TimeUnit.MILLISECONDS), is(greaterThanOrEqualTo(200L)));
+	}
+
+	private static Consumer<Long> sleep(final long millis) {
+		return new Consumer<Long>() {
+			@Override
+			public void accept(Long now) {
+				try {
+					Thread.sleep(millis);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+	}
+
+}
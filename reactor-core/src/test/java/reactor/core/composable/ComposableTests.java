@@ -17,30 +17,56 @@
 package reactor.core.composable;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
 import static org.hamcrest.number.OrderingComparison.lessThan;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import org.hamcrest.Matcher;
 import org.junit.Test;
 
 import reactor.AbstractReactorTest;
+import reactor.core.Environment;
 import reactor.core.Reactor;
+import reactor.core.configuration.ConfigurationReader;
+import reactor.core.configuration.DispatcherConfiguration;
+import reactor.core.configuration.ReactorConfiguration;
 import reactor.core.composable.spec.Streams;
 import reactor.core.spec.Reactors;
 import reactor.event.Event;
 import reactor.event.selector.Selector;
 import reactor.event.selector.Selectors;
+import reactor.function.BiFunction;
 import reactor.function.Consumer;
 import reactor.function.Function;
+import reactor.function.Functions;
+import reactor.function.LongConsumer;
+import reactor.function.LongPredicate;
+import reactor.function.LongUnaryOperator;
 import reactor.function.Predicate;
+import reactor.function.ToDoubleFunction;
+import reactor.function.ToLongFunction;
 import reactor.function.support.Tap;
+import reactor.io.Buffer;
 import reactor.tuple.Tuple2;
 
 /**
@@ -240,6 +266,669 @@ public class ComposableTests extends AbstractReactorTest {
 		assertThat("error handler was invoked", latch.getCount(), is(0L));
 	}
 
+	@Test
+	public void testConcurrentProducersCountEveryValueAndBatchBoundary() throws InterruptedException {
+		final int producers = 4;
+		final int values = 10000;
+		final int batchSize = 100;
+
+		final Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().batchSize(batchSize).get();
+		Stream<Integer> s = d.compose();
+		final AtomicInteger firsts = new AtomicInteger();
+		final AtomicInteger lasts = new AtomicInteger();
+		s.first().consume(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer i) {
+				firsts.incrementAndGet();
+			}
+		});
+		s.last().consume(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer i) {
+				lasts.incrementAndGet();
+			}
+		});
+
+		final CountDownLatch latch = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < values; i++) {
+						d.accept(i);
+					}
+					latch.countDown();
+				}
+			}.start();
+		}
+
+		assertThat("producers finished", latch.await(5, TimeUnit.SECONDS), is(true));
+		assertThat("every value was counted", s.getAcceptCount(), is((long) producers * values));
+		assertThat("each batch was opened once", firsts.get(), is(producers * values / batchSize));
+		assertThat("each batch was closed once", lasts.get(), is(producers * values / batchSize));
+	}
+
+	@Test
+	public void testIterableStreamHonorsRequestedDemand() {
+		Deferred<String, Stream<String>> d = Streams.defer(Arrays.asList("1", "2", "3", "4", "5")).get();
+		Stream<Integer> s =
+				d.compose()
+				 .map(STRING_2_INTEGER)
+				 .filter(new Predicate<Integer>() {
+					 @Override
+					 public boolean test(Integer i) {
+						 return i != 2;
+					 }
+				 });
+
+		final List<Integer> received = new ArrayList<Integer>();
+		s.consume(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer i) {
+				received.add(i);
+			}
+		});
+
+		s.request(2).flush();
+		assertThat("only the requested values were emitted", received, is(Arrays.asList(1, 3)));
+
+		s.request(1);
+		assertThat("one more value was emitted", received, is(Arrays.asList(1, 3, 4)));
+
+		s.request(10);
+		assertThat("the remaining values were emitted", received, is(Arrays.asList(1, 3, 4, 5)));
+	}
+
+	@Test
+	public void testFileStreamHonorsRequestedDemand() throws IOException {
+		File file = File.createTempFile("reactor-file-stream", ".log");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			for (int i = 0; i < 100; i++) {
+				out.write(("line " + i + "\n").getBytes("UTF-8"));
+			}
+		} finally {
+			out.close();
+		}
+
+		Deferred<Buffer, Stream<Buffer>> d = Streams.deferFile(file, 64, (byte) '\n').get();
+		final List<String> chunks = new ArrayList<String>();
+		Stream<Buffer> s = d.compose();
+		s.consume(new Consumer<Buffer>() {
+			@Override
+			public void accept(Buffer b) {
+				chunks.add(b.asString());
+			}
+		});
+
+		s.request(1).flush();
+		assertThat("only the requested chunk was emitted", chunks.size(), is(1));
+
+		s.request(Long.MAX_VALUE);
+		StringBuilder content = new StringBuilder();
+		for (String chunk : chunks) {
+			assertThat("no chunk is longer than the chunk size", chunk.length() <= 64, is(true));
+			assertThat("every chunk ends on a line", chunk.endsWith("\n"), is(true));
+			content.append(chunk);
+		}
+		assertThat("the whole file was emitted", content.length(), is((int) file.length()));
+		assertThat("the whole file was emitted in order", content.toString().startsWith("line 0\nline 1\n"), is(true));
+	}
+
+	@Test
+	public void testBoundedStreamReleasesBufferedValuesOnDemand() {
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().get();
+		Stream<Integer> s = d.compose().bounded(2);
+
+		final List<Integer> received = new ArrayList<Integer>();
+		final AtomicInteger errors = new AtomicInteger();
+		s.consume(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer i) {
+				received.add(i);
+			}
+		}).when(IllegalStateException.class, new Consumer<IllegalStateException>() {
+			@Override
+			public void accept(IllegalStateException e) {
+				errors.incrementAndGet();
+			}
+		});
+
+		s.request(1);
+		d.accept(1);
+		d.accept(2);
+		d.accept(3);
+		assertThat("one value was released", received, is(Arrays.asList(1)));
+
+		d.accept(4);
+		assertThat("a value arriving at a full buffer was rejected", errors.get(), is(1));
+
+		s.request(5);
+		assertThat("buffered values were released", received, is(Arrays.asList(1, 2, 3)));
+	}
+
+	@Test
+	public void testBufferWithTimeoutFlushesOnSizeOrDeadline() throws InterruptedException {
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().env(env).synchronousDispatcher().get();
+		final List<List<Integer>> batches = new CopyOnWriteArrayList<List<Integer>>();
+		final CountDownLatch latch = new CountDownLatch(2);
+		d.compose()
+		 .bufferWithTimeout(3, 200)
+		 .consume(new Consumer<List<Integer>>() {
+			 @Override
+			 public void accept(List<Integer> batch) {
+				 batches.add(batch);
+				 latch.countDown();
+			 }
+		 });
+
+		for (int i = 1; i <= 5; i++) {
+			d.accept(i);
+		}
+		assertThat("a full batch is published immediately", batches.size(), is(1));
+
+		assertThat("the partial batch was published", latch.await(2, TimeUnit.SECONDS), is(true));
+		assertThat(batches.get(0), is(Arrays.asList(1, 2, 3)));
+		assertThat(batches.get(1), is(Arrays.asList(4, 5)));
+	}
+
+	@Test
+	public void testWindowPublishesValuesSeenInEachPeriod() throws InterruptedException {
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().env(env).synchronousDispatcher().get();
+		final List<Integer> windowed = new CopyOnWriteArrayList<Integer>();
+		final CountDownLatch latch = new CountDownLatch(2);
+		d.compose()
+		 .window(50, TimeUnit.MILLISECONDS)
+		 .consume(new Consumer<List<Integer>>() {
+			 @Override
+			 public void accept(List<Integer> values) {
+				 windowed.addAll(values);
+				 for (int i = 0; i < values.size(); i++) {
+					 latch.countDown();
+				 }
+			 }
+		 });
+
+		d.accept(1);
+		d.accept(2);
+
+		assertThat("the window was published", latch.await(2, TimeUnit.SECONDS), is(true));
+		assertThat(windowed, is(Arrays.asList(1, 2)));
+	}
+
+	@Test
+	public void testSlidingWindowPublishesValuesInEveryWindowTheyFallIn() throws InterruptedException {
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().env(env).synchronousDispatcher().get();
+		final List<List<Integer>> windows = new CopyOnWriteArrayList<List<Integer>>();
+		final CountDownLatch latch = new CountDownLatch(2);
+		d.compose()
+		 .window(200, 50, TimeUnit.MILLISECONDS)
+		 .consume(new Consumer<List<Integer>>() {
+			 @Override
+			 public void accept(List<Integer> values) {
+				 windows.add(values);
+				 latch.countDown();
+			 }
+		 });
+
+		d.accept(1);
+
+		assertThat("the value was published in overlapping windows", latch.await(2, TimeUnit.SECONDS), is(true));
+		Thread.sleep(400);
+		int published = windows.size();
+		Thread.sleep(200);
+		assertThat("the value is dropped once it is older than the period", windows.size(), is(published));
+		for (List<Integer> window : windows) {
+			assertThat(window, is(Arrays.asList(1)));
+		}
+	}
+	@Test
+	public void testWindowHonoursSubMillisecondPeriods() throws InterruptedException {
+		final Properties timer = new Properties();
+		timer.setProperty("reactor.timer.resolution", "100");
+		timer.setProperty("reactor.timer.resolutionUnit", "MICROSECONDS");
+		timer.setProperty("reactor.timer.waitStrategy", "PARK");
+		Environment fine = new Environment(new ConfigurationReader() {
+			@Override
+			public ReactorConfiguration read() {
+				return new ReactorConfiguration(Collections.<DispatcherConfiguration>emptyList(), "sync", timer);
+			}
+		});
+		try {
+			Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().env(fine).synchronousDispatcher().get();
+			final AtomicInteger windows = new AtomicInteger();
+			d.compose().window(500, TimeUnit.MICROSECONDS).consume(new Consumer<List<Integer>>() {
+				@Override
+				public void accept(List<Integer> window) {
+					windows.incrementAndGet();
+				}
+			});
+
+			long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+			while (System.nanoTime() < end) {
+				d.accept(1);
+				LockSupport.parkNanos(10000);
+			}
+			// a 500us window closes about 400 times in 200ms; one closing on every 100us tick would close several times more
+			assertThat(windows.get(), is(greaterThan(0)));
+			assertThat(windows.get(), is(lessThanOrEqualTo(420)));
+		} finally {
+			fine.shutdown();
+		}
+	}
+
+	@Test
+	public void testBufferWithTimeoutIgnoresTheDeadlineOfAClosedBatch() {
+		Deferred<List<Integer>, Stream<List<Integer>>> d = Streams.<List<Integer>>defer().get();
+		final List<List<Integer>> batches = new CopyOnWriteArrayList<List<Integer>>();
+		d.compose().consume(new Consumer<List<Integer>>() {
+			@Override
+			public void accept(List<Integer> batch) {
+				batches.add(batch);
+			}
+		});
+		Stream.TimeoutBatch<Integer> batch = new Stream.TimeoutBatch<Integer>(d.compose(),
+		                                                                      2,
+		                                                                      1,
+		                                                                      TimeUnit.HOURS,
+		                                                                      env.getRootTimer());
+
+		batch.accept(null, 1);
+		Stream.TimeoutBatch<Integer>.Deadline firstDeadline = batch.deadline;
+		batch.accept(null, 2);
+		batch.accept(null, 3);
+		// the first batch's deadline fired just as the batch filled up, and only gets the lock once the next one is open
+		firstDeadline.accept(System.currentTimeMillis());
+
+		assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2))));
+
+		batch.deadline.accept(System.currentTimeMillis());
+
+		assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3))));
+	}
+
+	@Test
+	public void testTimedOperatorsDoNotKeepTheirStreamsAlive() throws InterruptedException {
+		WeakReference<Stream<Integer>> stream = createTimedStreams();
+		for (int i = 0; i < 50 && null != stream.get(); i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		assertThat("the root timer let go of the Stream", null == stream.get(), is(true));
+	}
+
+	private WeakReference<Stream<Integer>> createTimedStreams() {
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().env(env).synchronousDispatcher().get();
+		Function<Integer, Integer> key = new Function<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer i) {
+				return i % 2;
+			}
+		};
+		Stream<Integer> s = d.compose();
+		s.window(10, TimeUnit.MILLISECONDS);
+		s.groupBy(key, 10, TimeUnit.MILLISECONDS);
+		s.sumByKey(key, null, 10, TimeUnit.MILLISECONDS);
+		d.accept(1);
+		return new WeakReference<Stream<Integer>>(s);
+	}
+
+	@Test
+	public void testOrderedMapAsyncRestoresInputOrder() throws InterruptedException {
+		final int values = 1000;
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().env(env).synchronousDispatcher().get();
+		final List<Integer> received = new CopyOnWriteArrayList<Integer>();
+		final CountDownLatch latch = new CountDownLatch(values);
+		d.compose()
+		 .mapAsync(new Function<Integer, Integer>() {
+			 @Override
+			 public Integer apply(Integer i) {
+				 return i * 2;
+			 }
+		 }, "eventLoop", true)
+		 .consume(new Consumer<Integer>() {
+			 @Override
+			 public void accept(Integer i) {
+				 received.add(i);
+				 latch.countDown();
+			 }
+		 });
+
+		for (int i = 0; i < values; i++) {
+			d.accept(i);
+		}
+
+		assertThat("all values were mapped", latch.await(5, TimeUnit.SECONDS), is(true));
+		for (int i = 0; i < values; i++) {
+			assertThat(received.get(i), is(i * 2));
+		}
+	}
+
+	@Test
+	public void testGroupByPublishesOneStreamPerKey() {
+		Deferred<String, Stream<String>> d = Streams.defer(Arrays.asList("1", "2", "3", "4", "5", "6")).get();
+		final Map<Boolean, Integer> sums = new HashMap<Boolean, Integer>();
+		d.compose()
+		 .map(STRING_2_INTEGER)
+		 .groupBy(new Function<Integer, Boolean>() {
+			 @Override
+			 public Boolean apply(Integer i) {
+				 return i % 2 == 0;
+			 }
+		 })
+		 .consume(new Consumer<GroupedStream<Boolean, Integer>>() {
+			 @Override
+			 public void accept(final GroupedStream<Boolean, Integer> group) {
+				 group.reduce(new Function<Tuple2<Integer, Integer>, Integer>() {
+					 @Override
+					 public Integer apply(Tuple2<Integer, Integer> r) {
+						 return r.getT1() + r.getT2();
+					 }
+				 }, 0).consume(new Consumer<Integer>() {
+					 @Override
+					 public void accept(Integer sum) {
+						 sums.put(group.getKey(), sum);
+					 }
+				 });
+			 }
+		 });
+
+		d.compose().flush();
+
+		assertThat("two groups were created", sums.size(), is(2));
+		assertThat(sums.get(true), is(12));
+		assertThat(sums.get(false), is(9));
+	}
+
+	@Test
+	public void testGroupByEvictsIdleGroups() throws InterruptedException {
+		Deferred<String, Stream<String>> d = Streams.<String>defer().env(env).synchronousDispatcher().get();
+		final AtomicInteger groups = new AtomicInteger();
+		d.compose()
+		 .groupBy(new Function<String, String>() {
+			 @Override
+			 public String apply(String s) {
+				 return s;
+			 }
+		 }, 50, TimeUnit.MILLISECONDS)
+		 .consume(new Consumer<GroupedStream<String, String>>() {
+			 @Override
+			 public void accept(GroupedStream<String, String> group) {
+				 groups.incrementAndGet();
+			 }
+		 });
+
+		d.accept("a");
+		d.accept("a");
+		assertThat("one group was created", groups.get(), is(1));
+
+		Thread.sleep(500);
+		d.accept("a");
+		assertThat("the idle group was evicted and recreated", groups.get(), is(2));
+	}
+
+	@Test
+	public void testGroupByNeverPassesValuesToAnEvictedGroup() throws InterruptedException {
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().env(env).synchronousDispatcher().get();
+		final List<GroupedStream<Integer, Integer>> groups = new CopyOnWriteArrayList<GroupedStream<Integer, Integer>>();
+		final List<Integer> evicted = new CopyOnWriteArrayList<Integer>();
+		final List<Integer> received = new CopyOnWriteArrayList<Integer>();
+		d.compose()
+		 .groupBy(new Function<Integer, Integer>() {
+			 @Override
+			 public Integer apply(Integer i) {
+				 return 0;
+			 }
+		 }, 1, TimeUnit.MILLISECONDS)
+		 .consume(new Consumer<GroupedStream<Integer, Integer>>() {
+			 @Override
+			 public void accept(GroupedStream<Integer, Integer> group) {
+				 final int index = groups.size();
+				 groups.add(group);
+				 group.consumeFlush(new Signal.Handler<Void>() {
+					 @Override
+					 public void accept(Event<?> origin, Void v) {
+						 evicted.add(index);
+					 }
+				 });
+				 group.consume(new Consumer<Integer>() {
+					 @Override
+					 public void accept(Integer i) {
+						 received.add(index);
+					 }
+				 });
+				 if (index == 0) {
+					 // hold the first value between looking its group up and passing it in while eviction ticks go by
+					 try {
+						 Thread.sleep(500);
+					 } catch (InterruptedException e) {
+						 Thread.currentThread().interrupt();
+					 }
+				 }
+			 }
+		 });
+
+		d.accept(1);
+		d.accept(2);
+
+		assertThat("the first group was evicted while its first value was held", evicted.contains(0), is(true));
+		assertThat("the values started a new group", groups.size(), is(2));
+		assertThat("both values went to the new group", received, is(Arrays.asList(1, 1)));
+	}
+
+	@Test
+	public void testCountByKeyPublishesCountsPerBatch() {
+		Deferred<String, Stream<String>> d = Streams.<String>defer().batchSize(5).get();
+		final List<Map<String, Long>> counts = new ArrayList<Map<String, Long>>();
+		d.compose()
+		 .countByKey(new Function<String, String>() {
+			 @Override
+			 public String apply(String s) {
+				 return s;
+			 }
+		 })
+		 .consume(new Consumer<Map<String, Long>>() {
+			 @Override
+			 public void accept(Map<String, Long> m) {
+				 counts.add(m);
+			 }
+		 });
+
+		for (String s : Arrays.asList("a", "b", "a", "c", "a", "b")) {
+			d.accept(s);
+		}
+		assertThat("a batch was published", counts.size(), is(1));
+		assertThat(counts.get(0).get("a"), is(3L));
+		assertThat(counts.get(0).get("b"), is(1L));
+		assertThat(counts.get(0).get("c"), is(1L));
+
+		d.compose().flush();
+		assertThat("the partial batch was published on flush", counts.size(), is(2));
+		assertThat(counts.get(1).get("b"), is(1L));
+		assertThat(counts.get(1).size(), is(1));
+	}
+
+	@Test
+	public void testSumByKeySumsPrimitiveAmountsPerKey() {
+		Deferred<String, Stream<String>> d = Streams.<String>defer().get();
+		final List<Map<String, Long>> sums = new ArrayList<Map<String, Long>>();
+		d.compose()
+		 .sumByKey(new Function<String, String>() {
+			 @Override
+			 public String apply(String s) {
+				 return s.substring(0, 1);
+			 }
+		 }, new ToLongFunction<String>() {
+			 @Override
+			 public long apply(String s) {
+				 return Long.parseLong(s.substring(1));
+			 }
+		 })
+		 .consume(new Consumer<Map<String, Long>>() {
+			 @Override
+			 public void accept(Map<String, Long> m) {
+				 sums.add(m);
+			 }
+		 });
+
+		for (String s : Arrays.asList("a1000", "b2", "a2000", "b3")) {
+			d.accept(s);
+		}
+		d.compose().flush();
+		assertThat("the sums were published on flush", sums.size(), is(1));
+		assertThat(sums.get(0).get("a"), is(3000L));
+		assertThat(sums.get(0).get("b"), is(5L));
+	}
+
+	@Test
+	public void testAggregatePublishesOnlyOnBatchEndAndFlush() {
+		Deferred<Integer, Stream<Integer>> d = Streams.<Integer>defer().batchSize(3).get();
+		final List<Integer> reduced = new ArrayList<Integer>();
+		final List<Integer> aggregated = new ArrayList<Integer>();
+		BiFunction<Integer, Integer, Integer> sum = new BiFunction<Integer, Integer, Integer>() {
+			@Override
+			public Integer apply(Integer acc, Integer value) {
+				return acc + value;
+			}
+		};
+		d.compose().reduce(sum, 0).consume(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer i) {
+				reduced.add(i);
+			}
+		});
+		Deferred<Integer, Stream<Integer>> unbatched = Streams.<Integer>defer().get();
+		unbatched.compose().aggregate(sum, Functions.supplier(0)).consume(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer i) {
+				aggregated.add(i);
+			}
+		});
+
+		for (int i = 1; i <= 5; i++) {
+			d.accept(i);
+			unbatched.accept(i);
+		}
+		assertThat("the batched reduce published the first batch", reduced, is(Arrays.asList(6)));
+		assertThat("the unbatched aggregate waits for a flush", aggregated.isEmpty(), is(true));
+
+		d.compose().flush();
+		unbatched.compose().flush();
+		assertThat("the partial batch was published on flush", reduced, is(Arrays.asList(6, 9)));
+		assertThat(aggregated, is(Arrays.asList(15)));
+
+		d.compose().flush();
+		unbatched.compose().flush();
+		assertThat("nothing is published for an empty batch", reduced.size(), is(2));
+		assertThat(aggregated.size(), is(1));
+	}
+
+	@Test
+	public void testLongStreamReducesPrimitiveValuesPerBatch() {
+		LongDeferred d = Streams.deferLong(4);
+		final List<Long> sums = new ArrayList<Long>();
+		final List<long[]> histograms = new ArrayList<long[]>();
+		LongStream s = d.compose()
+		                .filter(new LongPredicate() {
+			                @Override
+			                public boolean test(long value) {
+				                return value >= 0;
+			                }
+		                })
+		                .map(new LongUnaryOperator() {
+			                @Override
+			                public long apply(long value) {
+				                return value * 10;
+			                }
+		                });
+		s.sum().consume(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				sums.add(value);
+			}
+		});
+		s.histogram(20, 50).consume(new Consumer<long[]>() {
+			@Override
+			public void accept(long[] counts) {
+				histograms.add(counts);
+			}
+		});
+
+		for (long l : new long[]{1, 2, -1, 3, 4, 5, 6}) {
+			d.accept(l);
+		}
+		assertThat("one batch was summed", sums, is(Arrays.asList(100L)));
+		assertThat(histograms.size(), is(1));
+		assertThat(histograms.get(0), is(new long[]{1, 3, 0}));
+
+		s.flush();
+		assertThat("the partial batch was published on flush", sums, is(Arrays.asList(100L, 110L)));
+		assertThat(histograms.get(1), is(new long[]{0, 0, 2}));
+	}
+
+	@Test
+	public void testMapToDoubleConvertsAndBoxesValues() {
+		Deferred<String, Stream<String>> d = Streams.<String>defer().get();
+		final List<Double> maxes = new ArrayList<Double>();
+		final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		d.compose()
+		 .mapToDouble(new ToDoubleFunction<String>() {
+			 @Override
+			 public double apply(String s) {
+				 return Double.parseDouble(s);
+			 }
+		 })
+		 .max()
+		 .boxed()
+		 .when(NumberFormatException.class, new Consumer<NumberFormatException>() {
+			 @Override
+			 public void accept(NumberFormatException e) {
+				 error.set(e);
+			 }
+		 })
+		 .consume(new Consumer<Double>() {
+			 @Override
+			 public void accept(Double value) {
+				 maxes.add(value);
+			 }
+		 });
+
+		d.accept("1.5");
+		d.accept("0.5");
+		d.accept("not a number");
+		d.accept("2.5");
+		assertThat(maxes, is(Arrays.asList(1.5, 1.5, 2.5)));
+		assertThat("the conversion error reached the boxed stream", error.get(), is(notNullValue()));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedObservableMirrorsValuesAndFlushes() {
+		Deferred<String, Stream<String>> d = Streams.<String>defer().get();
+		Stream<String> s = d.compose();
+		final List<String> values = new ArrayList<String>();
+		final AtomicInteger flushes = new AtomicInteger();
+		s.getObservable().on(s.getAccept().getT1(), new Consumer<Event<String>>() {
+			@Override
+			public void accept(Event<String> ev) {
+				values.add(ev.getData());
+			}
+		});
+		s.getObservable().on(s.getFlush().getT1(), new Consumer<Event<Void>>() {
+			@Override
+			public void accept(Event<Void> ev) {
+				flushes.incrementAndGet();
+			}
+		});
+
+		d.accept("a");
+		d.accept("b");
+		s.flush();
+		assertThat(values, is(Arrays.asList("a", "b")));
+		assertThat(flushes.get(), is(1));
+	}
+
 	<T> void await(Stream<T> s, Matcher<T> expected) throws InterruptedException {
 		await(1, s, expected);
 	}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ObjectLongHashMapTests {
+
+	@Test
+	public void testAddAccumulatesAcrossRehashes() {
+		ObjectLongHashMap<String> map = new ObjectLongHashMap<String>(1);
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 1000; i++) {
+				map.add("key-" + i, i);
+			}
+		}
+		map.add(null, 7);
+
+		assertThat(map.size(), is(1001));
+		assertThat(map.get("key-10", -1), is(30L));
+		assertThat(map.get("missing", -1), is(-1L));
+		assertThat(map.get(null, -1), is(7L));
+
+		Map<String, Long> copy = map.toMap();
+		assertThat(copy.size(), is(1001));
+		assertThat(copy.get("key-999"), is(2997L));
+		assertThat(copy.get(null), is(7L));
+
+		map.clear();
+		assertThat(map.isEmpty(), is(true));
+		assertThat(map.get("key-10", -1), is(-1L));
+	}
+
+}
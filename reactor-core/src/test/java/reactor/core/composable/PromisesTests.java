@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.composable;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import reactor.AbstractReactorTest;
+import reactor.core.composable.spec.Promises;
+import reactor.function.Consumer;
+import reactor.function.Function;
+
+public class PromisesTests extends AbstractReactorTest {
+
+	@Test
+	public void testWhenListsValuesInInputOrder() {
+		Deferred<Integer, Promise<Integer>> first = Promises.<Integer>defer().get();
+		Deferred<Integer, Promise<Integer>> second = Promises.<Integer>defer().get();
+		Promise<List<Integer>> joined = Promises.when(first, second);
+
+		second.accept(2);
+		assertThat(joined.isPending(), is(true));
+		first.accept(1);
+		assertThat(joined.get(), is(Arrays.asList(1, 2)));
+	}
+
+	@Test
+	public void testWhenIsRejectedByTheFirstError() {
+		Deferred<Integer, Promise<Integer>> first = Promises.<Integer>defer().get();
+		Deferred<Integer, Promise<Integer>> second = Promises.<Integer>defer().get();
+		Promise<List<Integer>> joined = Promises.when(first, second);
+
+		IllegalArgumentException error = new IllegalArgumentException();
+		first.accept(error);
+		assertThat("rejected without waiting for the other promise", joined.isError(), is(true));
+		assertThat(joined.reason(), is(sameInstance((Throwable) error)));
+
+		second.accept(2);
+		assertThat(joined.isError(), is(true));
+	}
+
+	@Test
+	public void testWhenOfNoPromisesIsFulfilledImmediately() {
+		Promise<List<Integer>> joined = Promises.when(Collections.<Promise<Integer>>emptyList());
+		assertThat(joined.get(), is(Collections.<Integer>emptyList()));
+	}
+
+	@Test
+	public void testWhenJoinsPromisesCompletedConcurrently() throws InterruptedException {
+		final int size = 1000;
+		final int threads = 4;
+		final List<Deferred<Integer, Promise<Integer>>> deferreds = new ArrayList<Deferred<Integer, Promise<Integer>>>();
+		List<Promise<Integer>> promises = new ArrayList<Promise<Integer>>();
+		for (int i = 0; i < size; i++) {
+			Deferred<Integer, Promise<Integer>> d = Promises.<Integer>defer().get();
+			deferreds.add(d);
+			promises.add(d.compose());
+		}
+		Promise<List<Integer>> joined = Promises.when(promises);
+
+		final CountDownLatch start = new CountDownLatch(1);
+		for (int t = 0; t < threads; t++) {
+			final int offset = t;
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = offset; i < size; i += threads) {
+						deferreds.get(i).accept(i);
+					}
+				}
+			}.start();
+		}
+		start.countDown();
+
+		List<Integer> values = joined.await(5, TimeUnit.SECONDS);
+		assertThat(values.size(), is(size));
+		for (int i = 0; i < size; i++) {
+			assertThat(values.get(i), is(i));
+		}
+	}
+
+	@Test
+	public void testAnyIsCompletedByTheFirstPromise() {
+		Deferred<Integer, Promise<Integer>> first = Promises.<Integer>defer().get();
+		Deferred<Integer, Promise<Integer>> second = Promises.<Integer>defer().get();
+		Promise<Integer> any = Promises.any(first, second);
+
+		second.accept(2);
+		first.accept(1);
+		assertThat(any.get(), is(2));
+	}
+
+	@Test
+	public void testAwaitThatTimesOutOrIsInterruptedDoesNotDisturbOtherWaiters() throws InterruptedException {
+		Deferred<Integer, Promise<Integer>> d = Promises.<Integer>defer().get();
+		final Promise<Integer> p = d.compose();
+		assertThat(p.await(10, TimeUnit.MILLISECONDS), is(nullValue()));
+
+		final CountDownLatch completed = new CountDownLatch(1);
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		Thread waiter = new Thread() {
+			@Override
+			public void run() {
+				try {
+					if (Integer.valueOf(1).equals(p.await(5, TimeUnit.SECONDS))) {
+						completed.countDown();
+					}
+				} catch (InterruptedException e) {
+					// not expected, the latch stays up
+				}
+			}
+		};
+		Thread interruptedWaiter = new Thread() {
+			@Override
+			public void run() {
+				try {
+					p.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					interrupted.countDown();
+				}
+			}
+		};
+		waiter.start();
+		interruptedWaiter.start();
+		Thread.sleep(50);
+		interruptedWaiter.interrupt();
+		assertThat("the interrupted waiter gave up", interrupted.await(1, TimeUnit.SECONDS), is(true));
+		assertThat(p.await(10, TimeUnit.MILLISECONDS), is(nullValue()));
+
+		d.accept(1);
+		assertThat("the remaining waiter saw the value", completed.await(1, TimeUnit.SECONDS), is(true));
+		assertThat(p.await(10, TimeUnit.MILLISECONDS), is(1));
+	}
+
+	@Test
+	public void testPromiseFailsWhenTimedOut() throws InterruptedException {
+		Deferred<Integer, Promise<Integer>> d = Promises.<Integer>defer().env(env).timeout(50, TimeUnit.MILLISECONDS).get();
+		Promise<String> derived = d.compose().map(new Function<Integer, String>() {
+			@Override
+			public String apply(Integer i) {
+				return String.valueOf(i);
+			}
+		});
+		assertThat(derived.timeRemaining(TimeUnit.MILLISECONDS), is(lessThanOrEqualTo(50L)));
+
+		final CountDownLatch failed = new CountDownLatch(1);
+		derived.onError(new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				if (t instanceof TimeoutException) {
+					failed.countDown();
+				}
+			}
+		});
+
+		assertThat("the derived promise failed with the timeout", failed.await(1, TimeUnit.SECONDS), is(true));
+		assertThat(d.compose().reason(), is(instanceOf(TimeoutException.class)));
+		assertThat(d.compose().timeRemaining(TimeUnit.MILLISECONDS), is(0L));
+	}
+
+	@Test
+	public void testPromiseCompletedBeforeItsTimeoutSucceeds() throws InterruptedException {
+		Deferred<Integer, Promise<Integer>> d = Promises.<Integer>defer().env(env).get();
+		d.compose().timeout(50, TimeUnit.MILLISECONDS);
+		d.accept(1);
+
+		Thread.sleep(150);
+		assertThat(d.compose().isSuccess(), is(true));
+		assertThat(d.compose().get(), is(1));
+		assertThat(Promises.<Integer>defer().get().compose().timeRemaining(TimeUnit.MILLISECONDS), is(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testCompletionRacingItsTimeoutIsNotCountedAsAnError() throws InterruptedException {
+		List<Deferred<Integer, Promise<Integer>>> deferreds = new ArrayList<Deferred<Integer, Promise<Integer>>>();
+		for (int i = 0; i < 1000; i++) {
+			Deferred<Integer, Promise<Integer>> d = Promises.<Integer>defer().env(env).get();
+			d.compose().timeout(10, TimeUnit.MILLISECONDS);
+			deferreds.add(d);
+		}
+
+		Thread.sleep(10);
+		for (Deferred<Integer, Promise<Integer>> d : deferreds) {
+			try {
+				d.accept(1);
+			} catch (IllegalStateException timedOut) {
+				// the timeout won the race
+			}
+		}
+
+		Thread.sleep(150);
+		for (Deferred<Integer, Promise<Integer>> d : deferreds) {
+			Promise<Integer> p = d.compose();
+			assertThat(p.getErrorCount(), is(p.isSuccess() ? 0L : 1L));
+		}
+	}
+
+}
@@ -16,6 +16,12 @@
 
 package reactor.tcp;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import reactor.core.Environment;
 import reactor.core.Reactor;
 import reactor.core.composable.Deferred;
@@ -33,6 +39,7 @@ import reactor.function.Function;
 import reactor.io.Buffer;
 import reactor.tcp.encoding.Codec;
 import reactor.tuple.Tuple2;
+import reactor.util.Assert;
 
 /**
  * Implementations of this class should provide concrete functionality for doing real IO.
@@ -43,6 +50,12 @@ import reactor.tuple.Tuple2;
  */
 public abstract class AbstractTcpConnection<IN, OUT> implements TcpConnection<IN, OUT> {
 
+	/**
+	 * The largest region of a file that is mapped into memory at once by {@link #writeFile(File, long, long,
+	 * Consumer)}.
+	 */
+	private static final int MAX_MAPPED_CHUNK = 1 << 30;
+
 	protected final long                     created = System.currentTimeMillis();
 	protected final Tuple2<Selector, Object> read    = Selectors.$();
 
@@ -53,6 +66,12 @@ public abstract class AbstractTcpConnection<IN, OUT> implements TcpConnection<IN
 	protected final Reactor               eventsReactor;
 	protected final Environment           env;
 
+	/**
+	 * Values still requested by the consumers of {@link #in()}, or {@link Long#MAX_VALUE} while nobody has asked for
+	 * reads to be paced.
+	 */
+	private final AtomicLong readDemand = new AtomicLong(Long.MAX_VALUE);
+
 	protected AbstractTcpConnection(Environment env,
 																	Codec<Buffer, IN, OUT> codec,
 																	Dispatcher ioDispatcher,
@@ -93,9 +112,16 @@ public abstract class AbstractTcpConnection<IN, OUT> implements TcpConnection<IN
 																							.env(env)
 																							.dispatcher(eventsReactor.getDispatcher())
 																							.get();
+		d.onRequest(new Consumer<Long>() {
+			@Override
+			public void accept(Long n) {
+				requestReads(n);
+			}
+		});
 		consume(new Consumer<IN>() {
 			@Override
 			public void accept(IN in) {
+				readConsumed();
 				d.accept(in);
 			}
 		});
@@ -191,6 +217,39 @@ public abstract class AbstractTcpConnection<IN, OUT> implements TcpConnection<IN
 		return this;
 	}
 
+	@Override
+	public TcpConnection<IN, OUT> sendFile(File file, long position, long count) {
+		return sendFile(file, position, count, null);
+	}
+
+	@Override
+	public TcpConnection<IN, OUT> sendFile(File file,
+	                                       final long position,
+	                                       final long count,
+	                                       final Consumer<Boolean> onComplete) {
+		Assert.notNull(file, "File cannot be null.");
+		Assert.isTrue(position >= 0 && count >= 0, "Position and count cannot be negative.");
+		Assert.isTrue(position + count <= file.length(), "Cannot send beyond the end of " + file);
+		Reactors.schedule(
+				new Consumer<File>() {
+					@Override
+					public void accept(File file) {
+						try {
+							writeFile(file, position, count, onComplete);
+						} catch (Throwable t) {
+							eventsReactor.notify(t.getClass(), Event.wrap(t));
+							if (null != onComplete) {
+								onComplete.accept(false);
+							}
+						}
+					}
+				},
+				file,
+				ioReactor
+		);
+		return this;
+	}
+
 	/**
 	 * Perfoming necessary decoding on the data and notify the internal {@link Reactor} of any results.
 	 *
@@ -208,6 +267,63 @@ public abstract class AbstractTcpConnection<IN, OUT> implements TcpConnection<IN
 		return data.remaining() > 0;
 	}
 
+	/**
+	 * Add {@code n} to the number of values the consumers of {@link #in()} are ready for and resume reading if it had
+	 * been suspended. The first request switches the connection from reading as fast as data arrives to only reading
+	 * while there is outstanding demand.
+	 *
+	 * @param n The number of additional values requested.
+	 */
+	protected void requestReads(long n) {
+		for (; ; ) {
+			long current = readDemand.get();
+			long next = (current == Long.MAX_VALUE ? n : current + n);
+			if (next < 0) {
+				next = Long.MAX_VALUE - 1;
+			}
+			if (readDemand.compareAndSet(current, next)) {
+				if (next > 0) {
+					autoRead(true);
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Take one value off the demand {@link #requestReads(long) requested} by the consumers of {@link #in()}, and suspend
+	 * reading once it is used up. Nothing is counted until demand has been requested.
+	 */
+	private void readConsumed() {
+		for (; ; ) {
+			long current = readDemand.get();
+			if (current == Long.MAX_VALUE) {
+				return;
+			}
+			if (readDemand.compareAndSet(current, current - 1)) {
+				if (current - 1 <= 0) {
+					autoRead(false);
+					// demand requested while reading was being suspended must not be left waiting for a read that never
+					// comes
+					if (readDemand.get() > 0) {
+						autoRead(true);
+					}
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Subclasses that can stop reading from the underlying connection should override this method to do so when {@code
+	 * autoRead} is {@literal false} and resume when it is {@literal true}. Data already read is still decoded and
+	 * delivered; what is held back is left to the transport's own flow control.
+	 *
+	 * @param autoRead Whether the connection should keep reading.
+	 */
+	protected void autoRead(boolean autoRead) {
+	}
+
 	/**
 	 * Subclasses should override this method to perform the actual IO of writing data to the connection.
 	 *
@@ -224,4 +340,44 @@ public abstract class AbstractTcpConnection<IN, OUT> implements TcpConnection<IN
 	 */
 	protected abstract void write(Object data, Consumer<Boolean> onComplete);
 
+	/**
+	 * Subclasses should override this method to transfer a region of a file in the most efficient way the connection
+	 * allows. By default the region is {@link Buffer#map(File, long, int) mapped} into memory, a gigabyte at most at a
+	 * time, and written as {@link Buffer Buffers}, so it is never read into the heap.
+	 *
+	 * @param file       The file to write.
+	 * @param position   The position in the file at which the region starts.
+	 * @param count      The number of bytes to write.
+	 * @param onComplete The callback to invoke when the whole region has been written.
+	 * @throws IOException if the file cannot be mapped
+	 */
+	protected void writeFile(File file, long position, long count, final Consumer<Boolean> onComplete) throws IOException {
+		int chunks = (int) ((count + MAX_MAPPED_CHUNK - 1) / MAX_MAPPED_CHUNK);
+		if (chunks == 0) {
+			if (null != onComplete) {
+				onComplete.accept(true);
+			}
+			return;
+		}
+
+		// onComplete is told once, after the last chunk, whether all of them were written
+		final AtomicInteger pending = new AtomicInteger(chunks);
+		final AtomicBoolean success = new AtomicBoolean(true);
+		Consumer<Boolean> chunkWritten = new Consumer<Boolean>() {
+			@Override
+			public void accept(Boolean written) {
+				if (!written) {
+					success.set(false);
+				}
+				if (pending.decrementAndGet() == 0 && null != onComplete) {
+					onComplete.accept(success.get());
+				}
+			}
+		};
+		long end = position + count;
+		for (long pos = position; pos < end; pos += MAX_MAPPED_CHUNK) {
+			write(Buffer.map(file, pos, (int) Math.min(MAX_MAPPED_CHUNK, end - pos)), chunkWritten);
+		}
+	}
+
 }
@@ -20,6 +20,7 @@ import reactor.core.composable.Stream;
 import reactor.function.Consumer;
 import reactor.function.Function;
 
+import java.io.File;
 import java.net.InetSocketAddress;
 
 /**
@@ -110,7 +111,8 @@ public interface TcpConnection<IN, OUT> {
 
 	/**
 	 * Send data on this connection. The current codec (if any) will be used to encode the data to a {@link
-	 * reactor.io.Buffer}.
+	 * reactor.io.Buffer}. A {@link reactor.io.Buffer} that is sent belongs to the connection from then on, as described
+	 * for {@link #send(Object, Consumer)}.
 	 *
 	 * @param data The outgoing data.
 	 * @return {@literal this}
@@ -120,6 +122,15 @@ public interface TcpConnection<IN, OUT> {
 	/**
 	 * Send data on this connection. The current codec (if any) will be used to encode the data to a {@link
 	 * reactor.io.Buffer}. The given callback will be invoked when the write has completed.
+	 * <p>
+	 * A {@link reactor.io.Buffer} that is sent, whether as it is or through a codec that passes it on, such as {@link
+	 * reactor.tcp.encoding.StandardCodecs#PASS_THROUGH_CODEC}, belongs to the connection from then on and must not be
+	 * used again by the caller. If it was {@link reactor.io.Buffer#allocate(int) pooled} it is {@link
+	 * reactor.io.Buffer#release(reactor.io.Buffer) released} once it has been written. The content of a {@link
+	 * reactor.io.Buffer#isDirect() direct} {@link reactor.io.Buffer} is written to the socket from where it is, without a
+	 * copy, so changing a direct {@link reactor.io.Buffer} before {@code onComplete} has been invoked changes the data
+	 * that is sent.
+	 * </p>
 	 *
 	 * @param data       The outgoing data.
 	 * @param onComplete The callback to invoke when the write is complete.
@@ -127,6 +138,30 @@ public interface TcpConnection<IN, OUT> {
 	 */
 	TcpConnection<IN, OUT> send(OUT data, Consumer<Boolean> onComplete);
 
+	/**
+	 * Send a region of a file on this connection, as it is, without going through the codec. Where the transport allows
+	 * it the file is handed to the kernel to transfer (sendfile), so its content is never copied into user space.
+	 *
+	 * @param file     The file to send.
+	 * @param position The position in the file at which the region starts.
+	 * @param count    The number of bytes to send.
+	 * @return {@literal this}
+	 */
+	TcpConnection<IN, OUT> sendFile(File file, long position, long count);
+
+	/**
+	 * Send a region of a file on this connection, as it is, without going through the codec. Where the transport allows
+	 * it the file is handed to the kernel to transfer (sendfile), so its content is never copied into user space. The
+	 * given callback will be invoked when the transfer has completed.
+	 *
+	 * @param file       The file to send.
+	 * @param position   The position in the file at which the region starts.
+	 * @param count      The number of bytes to send.
+	 * @param onComplete The callback to invoke when the transfer is complete.
+	 * @return {@literal this}
+	 */
+	TcpConnection<IN, OUT> sendFile(File file, long position, long count, Consumer<Boolean> onComplete);
+
 	/**
 	 * Provide the caller with a spec-style configuration object that allows a user to attach multiple event handlers to
 	 * the connection.
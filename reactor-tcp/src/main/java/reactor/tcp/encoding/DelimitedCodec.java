@@ -20,12 +20,16 @@ import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.io.Buffer;
 import reactor.io.Buffer.View;
+import reactor.io.CompositeBuffer;
 
 /**
  * An implementation of {@link Codec} that decodes by splitting a {@link Buffer} into segments
  * based on a delimiter and encodes by appending its delimiter to each piece of output.
  * During decoding the delegate is used to process each segment. During encoding the delegate
  * is used to create a buffer for each piece of output to which the delimiter is then appended.
+ * Encoded output is a {@link CompositeBuffer} of the delegate's output followed by the
+ * delimiter, so the output is never copied; a pooled buffer produced by the delegate is
+ * released along with it.
  *
  * @param <IN> The type that will be produced by decoding
  * @param <OUT> The type that will be consumed by encoding
@@ -87,9 +91,16 @@ public class DelimitedCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 
 	private class DelimitedDecoder implements Function<Buffer, IN> {
 		private final Function<Buffer, IN> decoder;
+		private final Consumer<View>       segments;
 
 		DelimitedDecoder(Consumer<IN> next) {
 			this.decoder = delegate.decoder(next);
+			this.segments = new Consumer<View>() {
+				@Override
+				public void accept(View view) {
+					decoder.apply(view.get());
+				}
+			};
 		}
 
 		@Override
@@ -98,18 +109,7 @@ public class DelimitedCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 				return null;
 			}
 
-			Iterable<View> views = bytes.split(delimiter, stripDelimiter);
-
-			int limit = bytes.limit();
-			int position = bytes.position();
-
-			for (Buffer.View view : views) {
-				Buffer b = view.get();
-				decoder.apply(b);
-			}
-
-			bytes.limit(limit);
-			bytes.position(position);
+			bytes.split(delimiter, stripDelimiter, segments);
 
 			return null;
 		}
@@ -119,14 +119,12 @@ public class DelimitedCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 		Function<OUT, Buffer> encoder = delegate.encoder();
 
 		@Override
-		@SuppressWarnings("resource")
 		public Buffer apply(OUT out) {
-			Buffer buffer = new Buffer();
 			Buffer encoded = encoder.apply(out);
-			if (null != encoded && encoded.remaining() > 0) {
-				buffer.append(encoded).append(delimiter);
+			if (null == encoded || encoded.remaining() == 0) {
+				return new Buffer().flip();
 			}
-			return buffer.flip();
+			return new CompositeBuffer(encoded).append(delimiter);
 		}
 	}
 
@@ -19,13 +19,16 @@ package reactor.tcp.encoding;
 import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.io.Buffer;
+import reactor.io.CompositeBuffer;
 import reactor.util.Assert;
 
 /**
  * A codec that uses a length-field at the start of each chunk to denote the chunk's size.
  * During decoding the delegate is used to process each chunk. During encoding the delegate
  * is used to encode each piece of output into a buffer. The buffer is then output, with its
- * length prepended.
+ * length prepended. If the delegate's buffer has {@link Buffer#allocate(int, int) headroom}
+ * for the length field, the length is written into it in place; otherwise the output is
+ * wrapped in a {@link CompositeBuffer} with the length in front, so it is never copied.
  *
  * @param <IN> The type that will be produced by decoding
  * @param <OUT> The type that will be consumed by encoding
@@ -131,14 +134,20 @@ public class LengthFieldCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 			}
 
 			Buffer encoded = encoder.apply(out);
-			if (null != encoded && encoded.remaining() > 0) {
-				if (lengthFieldLength == 4) {
-					encoded.prepend(encoded.remaining());
-				} else if (lengthFieldLength == 8) {
-					encoded.prepend((long) encoded.remaining());
-				}
+			if (null == encoded || encoded.remaining() == 0) {
+				return encoded;
+			}
+
+			int len = encoded.remaining();
+			// write the length into room the delegate left in front of its output, or else put it in front as a
+			// segment of its own
+			Buffer framed = (encoded.headroom() >= lengthFieldLength ? encoded : new CompositeBuffer(encoded));
+			if (lengthFieldLength == 4) {
+				framed.prepend(len);
+			} else {
+				framed.prepend((long) len);
 			}
-			return encoded;
+			return framed;
 		}
 	}
 
@@ -97,23 +97,25 @@ public class SyslogCodec implements Codec<Buffer, SyslogMessage, Void> {
 				int facility = priority / 8;
 				int severity = priority % 8;
 
-				int priStart = line.indexOf('<', start);
-				int priEnd = line.indexOf('>', start + 1);
-				if (priStart == 0) {
-					int pri = Buffer.parseInt(b, 1, priEnd);
+				// the fields are found in the line's own Buffer, whose indexes are those of the Buffer being decoded
+				int offset = b.position();
+				int lineEnd = b.limit();
+				int priEnd = b.indexOf((byte) '>', offset + 1, lineEnd);
+				if (b.byteBuffer().get(offset) == '<' && priEnd > 0) {
+					int pri = parseField(b, offset + 1, priEnd);
 					if (pri >= MINIMUM_PRI && pri <= MAXIMUM_PRI) {
 						priority = pri;
 						facility = priority / 8;
 						severity = priority % 8;
 					}
-					start = 4;
+					start = priEnd - offset + 1;
 				}
 
-				Date tstamp = parseRfc3414Date(b, start, start + 15);
+				Date tstamp = parseRfc3414Date(b, offset + start, offset + start + 15);
 				String host = null;
 				if (null != tstamp) {
 					start += 16;
-					int end = line.indexOf(' ', start);
+					int end = b.indexOf((byte) ' ', offset + start, lineEnd) - offset;
 					host = line.substring(start, end);
 					if (null != host) {
 						start += host.length() + 1;
@@ -143,7 +145,8 @@ public class SyslogCodec implements Codec<Buffer, SyslogMessage, Void> {
 		}
 
 		private Date parseRfc3414Date(Buffer b, int start, int end) {
-			b.snapshot();
+			int position = b.position();
+			int limit = b.limit();
 
 			b.byteBuffer().limit(end);
 			b.byteBuffer().position(start);
@@ -228,15 +231,15 @@ public class SyslogCodec implements Codec<Buffer, SyslogMessage, Void> {
 			while (b.read() != ' ') {
 			}
 			int dayEnd = b.position() - 1;
-			day = Buffer.parseInt(b, dayStart, dayEnd);
+			day = parseField(b, dayStart, dayEnd);
 
 			while (b.read() == ' ') {
 			}
 
 			int timeStart = b.position() - 1;
-			hr = Buffer.parseInt(b, timeStart, timeStart + 2);
-			min = Buffer.parseInt(b, timeStart + 3, timeStart + 5);
-			sec = Buffer.parseInt(b, timeStart + 6, timeStart + 8);
+			hr = parseField(b, timeStart, timeStart + 2);
+			min = parseField(b, timeStart + 3, timeStart + 5);
+			sec = parseField(b, timeStart + 6, timeStart + 8);
 
 			try {
 				if (month < 0 || day < 0 || hr < 0 || min < 0 || sec < 0) {
@@ -246,7 +249,16 @@ public class SyslogCodec implements Codec<Buffer, SyslogMessage, Void> {
 					return cal.getTime();
 				}
 			} finally {
-				b.reset();
+				b.byteBuffer().limit(limit);
+				b.byteBuffer().position(position);
+			}
+		}
+
+		private int parseField(Buffer b, int start, int end) {
+			try {
+				return b.parseInt(start, end);
+			} catch (NumberFormatException e) {
+				return -1;
 			}
 		}
 	}
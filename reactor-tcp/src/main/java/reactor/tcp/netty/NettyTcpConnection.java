@@ -17,10 +17,13 @@
 package reactor.tcp.netty;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.handler.timeout.IdleStateHandler;
@@ -33,8 +36,12 @@ import reactor.io.Buffer;
 import reactor.tcp.AbstractTcpConnection;
 import reactor.tcp.encoding.Codec;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -112,13 +119,40 @@ public class NettyTcpConnection<IN, OUT> extends AbstractTcpConnection<IN, OUT>
 		return closing;
 	}
 
+	@Override
+	protected void autoRead(boolean autoRead) {
+		if (channel.config().isAutoRead() != autoRead) {
+			channel.config().setAutoRead(autoRead);
+		}
+	}
+
 	void notifyRead(Object obj) {
 		eventsReactor.notify(read.getT2(), (Event.class.isInstance(obj) ? (Event) obj : Event.wrap(obj)));
 	}
 
 	@Override
-	protected void write(Buffer data, final Consumer<Boolean> onComplete) {
-		write(data.byteBuffer(), onComplete);
+	protected void write(final Buffer data, final Consumer<Boolean> onComplete) {
+		ByteBuffer[] segments = data.byteBuffers();
+		if (segments.length < 2 && !data.isDirect()) {
+			write(data.byteBuffer(), onComplete);
+			// the content now lives in a ByteBuf, and a sent Buffer belongs to the connection, so a pooled one can go
+			// straight back to the pool
+			Buffer.release(data);
+			return;
+		}
+
+		// direct memory, and the segments of a CompositeBuffer, can be written to the socket as they are, in a single
+		// gathering write, so hand them to Netty without copying and only release the Buffer once Netty is done with it;
+		// the sender must leave the memory alone until then, as TcpConnection.send documents
+		write(Unpooled.wrappedBuffer(segments), new Consumer<Boolean>() {
+			@Override
+			public void accept(Boolean success) {
+				Buffer.release(data);
+				if (null != onComplete) {
+					onComplete.accept(success);
+				}
+			}
+		});
 	}
 
 	protected void write(ByteBuffer data, final Consumer<Boolean> onComplete) {
@@ -128,6 +162,19 @@ public class NettyTcpConnection<IN, OUT> extends AbstractTcpConnection<IN, OUT>
 		write(buf, onComplete);
 	}
 
+	@Override
+	protected void writeFile(File file, long position, long count, Consumer<Boolean> onComplete) throws IOException {
+		if (null != channel.pipeline().get(SslHandler.class)) {
+			// the content has to be encrypted in user space, so it can't be handed to the kernel
+			super.writeFile(file, position, count, onComplete);
+			return;
+		}
+		// Netty transfers a FileRegion with FileChannel.transferTo, which is sendfile where the OS has it, and closes the
+		// file once the region has been written
+		FileChannel fileChannel = new RandomAccessFile(file, "r").getChannel();
+		write(new DefaultFileRegion(fileChannel, position, count), onComplete);
+	}
+
 	@Override
 	protected void write(Object data, final Consumer<Boolean> onComplete) {
 		ChannelFuture writeFuture = channel.writeAndFlush(data);
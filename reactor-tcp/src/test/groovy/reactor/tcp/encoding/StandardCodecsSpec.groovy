@@ -19,6 +19,7 @@ package reactor.tcp.encoding
 import reactor.function.Consumer
 import reactor.io.Buffer
 import reactor.tcp.encoding.syslog.SyslogCodec
+import reactor.tcp.encoding.syslog.SyslogMessage
 import spock.lang.Specification
 
 /**
@@ -138,4 +139,56 @@ class StandardCodecsSpec extends Specification {
 		host == "mymachine"
 	}
 
+	def "SyslogCodec decodes every message in a Buffer"() {
+		given: "several syslog messages, buffered"
+		def codec = new SyslogCodec()
+		def data = Buffer.wrap("<34>Oct 11 22:14:15 mymachine su: 'su root' failed\n<165>Aug 24 05:34:00 otherhost app: hi\n")
+		def msgs = []
+
+		when: "data is decoded"
+		codec.decoder({ msgs << it } as Consumer<SyslogMessage>).apply(data)
+
+		then: "each message was decoded on its own"
+		msgs.size() == 2
+		msgs[0].priority == 34
+		msgs[0].host == "mymachine"
+		msgs[1].priority == 165
+		msgs[1].host == "otherhost"
+		msgs[1].message == "app: hi\n"
+	}
+
+	def "LengthFieldCodec prefixes encoded data with its length"() {
+		given: "a length-field codec"
+		def codec = new LengthFieldCodec<String, String>(StandardCodecs.STRING_CODEC)
+
+		when: "data is encoded"
+		def encoded = codec.encoder().apply("Hello World!")
+
+		then: "the length was prepended"
+		encoded.remaining() == 16
+		encoded.readInt() == 12
+		encoded.asString() == "Hello World!"
+
+		when: "the encoded data is decoded"
+		encoded.rewind(4)
+		def decoded = codec.decoder(null).apply(encoded)
+
+		then: "the data was decoded"
+		decoded == "Hello World!"
+	}
+
+	def "LengthFieldCodec writes the length into the headroom of pooled data"() {
+		given: "a length-field codec over pass-through data that has headroom"
+		def codec = new LengthFieldCodec<Buffer, Buffer>(StandardCodecs.PASS_THROUGH_CODEC)
+		def data = Buffer.allocate(64, 4).append("Hello World!").flip()
+
+		when: "the data is encoded"
+		def encoded = codec.encoder().apply(data)
+
+		then: "the same Buffer was framed in place"
+		encoded.is(data)
+		encoded.readInt() == 12
+		encoded.asString() == "Hello World!"
+	}
+
 }
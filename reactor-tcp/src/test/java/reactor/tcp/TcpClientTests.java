@@ -122,6 +122,47 @@ public class TcpClientTests {
 	}
 
 
+	@Test
+	public void sentBufferIsReleasedOnceItHasBeenWritten() throws InterruptedException {
+		final CountDownLatch written = new CountDownLatch(1);
+		final CountDownLatch echoed = new CountDownLatch(1);
+		final Buffer buffer = Buffer.allocate(64).append("Hello World!").flip();
+
+		TcpClient<Buffer, Buffer> client = new TcpClientSpec<Buffer, Buffer>(NettyTcpClient.class)
+				.env(env)
+				.codec(StandardCodecs.PASS_THROUGH_CODEC)
+				.connect("localhost", ECHO_SERVER_PORT)
+				.get();
+
+		client.open().consume(new Consumer<TcpConnection<Buffer, Buffer>>() {
+			@Override
+			public void accept(TcpConnection<Buffer, Buffer> conn) {
+				conn.in().consume(new Consumer<Buffer>() {
+					@Override
+					public void accept(Buffer b) {
+						if ("Hello World!".equals(b.asString())) {
+							echoed.countDown();
+						}
+					}
+				});
+				conn.send(buffer, new Consumer<Boolean>() {
+					@Override
+					public void accept(Boolean success) {
+						if (success) {
+							written.countDown();
+						}
+					}
+				});
+			}
+		});
+
+		assertTrue("buffer was written", written.await(30, TimeUnit.SECONDS));
+		assertFalse("buffer was handed back to the pool", buffer.isPooled());
+		assertTrue("buffer content was echoed", echoed.await(30, TimeUnit.SECONDS));
+
+		client.close();
+	}
+
 	@Test
 	public void testTcpClientWithInetSocketAddress() throws InterruptedException {
 		final CountDownLatch latch = new CountDownLatch(1);
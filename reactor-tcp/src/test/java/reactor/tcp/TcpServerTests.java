@@ -41,11 +41,14 @@ import reactor.tcp.spec.TcpServerSpec;
 
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -325,6 +328,67 @@ public class TcpServerTests {
 		server.shutdown().await();
 	}
 
+	@Test
+	public void tcpServerSendsFileRegions() throws Exception {
+		final int port = this.port.incrementAndGet();
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch sent = new CountDownLatch(1);
+		final AtomicInteger successes = new AtomicInteger();
+
+		final File file = File.createTempFile("reactor-sendfile", ".dat");
+		file.deleteOnExit();
+		byte[] content = new byte[64 * 1024];
+		new Random().nextBytes(content);
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+
+		TcpServer<String, String> server = new TcpServerSpec<String, String>(NettyTcpServer.class)
+				.env(env)
+				.synchronousDispatcher()
+				.listen("localhost", port)
+				.codec(StandardCodecs.LINE_FEED_CODEC)
+				.consume(new Consumer<TcpConnection<String, String>>() {
+					@Override
+					public void accept(TcpConnection<String, String> conn) {
+						// the first half of the file, then the rest of it, in order
+						conn.sendFile(file, 0, 1024)
+								.sendFile(file, 1024, file.length() - 1024, new Consumer<Boolean>() {
+									@Override
+									public void accept(Boolean success) {
+										if (success) {
+											successes.incrementAndGet();
+										}
+										sent.countDown();
+									}
+								});
+					}
+				})
+				.get()
+				.start(new Consumer<Void>() {
+					@Override
+					public void accept(Void v) {
+						started.countDown();
+					}
+				});
+		assertTrue("Server was started", started.await(5, TimeUnit.SECONDS));
+
+		java.nio.channels.SocketChannel ch = java.nio.channels.SocketChannel.open(new InetSocketAddress("localhost", port));
+		ByteBuffer received = ByteBuffer.allocate(content.length);
+		while (received.hasRemaining() && ch.read(received) >= 0) {
+		}
+		ch.close();
+
+		assertTrue("File was sent", sent.await(5, TimeUnit.SECONDS));
+		assertTrue("File was sent successfully", successes.get() == 1);
+		assertTrue("Received content is the file's", Arrays.equals(content, received.array()));
+
+		server.shutdown().await();
+	}
+
 	public static class Pojo {
 		private String name;
 